@@ -66,6 +66,23 @@ public class EventControllerTest extends AbstractIntegrationTest {
       .andExpect(jsonPath("$.data[*].attributes.eventId", Matchers.containsInAnyOrder("15b6c19a-6084-4e82-ada9-6c30e282191f", "225e9b2e-ae09-4ae1-a198-eca8780b0fcd")));
   }
 
+  @Test
+  public void samePlayerEventCanBeUpdatedMultipleTimes() throws Exception {
+    List<EventUpdateRequest> updatedEvents = List.of(
+      new EventUpdateRequest(1, "15b6c19a-6084-4e82-ada9-6c30e282191f", 10),
+      new EventUpdateRequest(1, "15b6c19a-6084-4e82-ada9-6c30e282191f", 5)
+    );
+    mockMvc.perform(
+      patch("/events/update")
+        .header(HttpHeaders.CONTENT_TYPE, JsonApiMediaType.JSON_API_MEDIA_TYPE)
+        .content(objectMapper.writeValueAsString(updatedEvents))
+        .with(getOAuthTokenWithoutUser(OAuthScope._WRITE_EVENTS)))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.data", hasSize(2)))
+      .andExpect(jsonPath("$.data[0].attributes.currentCount", Matchers.is(31)))
+      .andExpect(jsonPath("$.data[1].attributes.currentCount", Matchers.is(36)));
+  }
+
   @Test
   public void authWithoutCorrectScopeShouldFail() throws Exception {
     List<EventUpdateRequest> updatedEvents = List.of(new EventUpdateRequest(1, "15b6c19a-6084-4e82-ada9-6c30e282191f", 10));
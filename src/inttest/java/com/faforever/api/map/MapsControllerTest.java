@@ -1,19 +1,35 @@
 package com.faforever.api.map;
 
 import com.faforever.api.AbstractIntegrationTest;
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.map.MapUploadJob.State;
 import com.faforever.api.security.OAuthScope;
 import com.google.common.io.ByteStreams;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.util.FileSystemUtils;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -24,6 +40,14 @@ public class MapsControllerTest extends AbstractIntegrationTest{
 
   @Autowired
   MapRepository mapRepository;
+  @Autowired
+  FafApiProperties fafApiProperties;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    // Maps uploaded by previous runs would conflict
+    FileSystemUtils.deleteRecursively(fafApiProperties.getMap().getTargetDirectory());
+  }
 
   @WithUserDetails(AUTH_USER)
   @Test
@@ -75,11 +99,49 @@ public class MapsControllerTest extends AbstractIntegrationTest{
         "application/zip",
         ByteStreams.toByteArray(inputStream));
 
-      mockMvc.perform(multipart("/maps/upload")
+      String location = mockMvc.perform(multipart("/maps/upload")
         .file(file)
         .with(getOAuthTokenWithTestUser(OAuthScope._UPLOAD_MAP, NO_AUTHORITIES))
         .param("metadata", jsonString)
-      ).andExpect(status().isOk());
+      ).andExpect(status().isAccepted())
+        .andExpect(header().string(HttpHeaders.LOCATION, startsWith("/maps/upload/")))
+        .andExpect(jsonPath("$.fileName", is(zipFile)))
+        .andExpect(jsonPath("$.id", notNullValue()))
+        .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+
+      awaitUploadJob(location)
+        .andExpect(jsonPath("$.fileName", is(zipFile)))
+        .andExpect(jsonPath("$.state", is("SUCCEEDED")))
+        .andExpect(jsonPath("$.errors", hasSize(0)));
+    }
+    assertTrue(Files.exists(fafApiProperties.getMap().getTargetDirectory().resolve("command_conquer_rush.v0007.zip")));
+  }
+
+  @WithUserDetails(AUTH_USER)
+  @Test
+  void unknownUploadJob() throws Exception {
+    mockMvc.perform(get("/maps/upload/unknown")
+      .with(getOAuthTokenWithTestUser(OAuthScope._UPLOAD_MAP, NO_AUTHORITIES)))
+      .andExpect(status().isNotFound());
+  }
+
+  /**
+   * Polls the upload job at the specified location until it has been processed.
+   */
+  private ResultActions awaitUploadJob(String location) throws Exception {
+    Instant deadline = Instant.now().plus(Duration.ofSeconds(30));
+    while (true) {
+      ResultActions resultActions = mockMvc.perform(get(location)
+        .with(getOAuthTokenWithTestUser(OAuthScope._UPLOAD_MAP, NO_AUTHORITIES)))
+        .andExpect(status().isOk());
+      String state = JsonPath.read(resultActions.andReturn().getResponse().getContentAsString(), "$.state");
+      if (!state.equals(State.QUEUED.name()) && !state.equals(State.PROCESSING.name())) {
+        return resultActions;
+      }
+      if (Instant.now().isAfter(deadline)) {
+        throw new AssertionError("Upload job " + location + " has not been processed in time, its state is " + state);
+      }
+      Thread.sleep(100);
     }
   }
 
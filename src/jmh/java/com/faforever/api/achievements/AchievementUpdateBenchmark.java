@@ -0,0 +1,157 @@
+package com.faforever.api.achievements;
+
+import com.faforever.api.achievements.AchievementUpdateRequest.Operation;
+import com.faforever.api.data.domain.Achievement;
+import com.faforever.api.data.listeners.AchievementLocalizationListener;
+import org.hibernate.boot.model.naming.PhysicalNamingStrategyStandardImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.support.MessageSourceAccessor;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares applying one achievement update batch request by request, as the update endpoint used to, with
+ * {@link AchievementService#updateAll(List)} applying the whole batch at once. Both run in a single transaction
+ * through the real service and repositories.
+ * <p>
+ * Needs a faf-db instance, for instance the one of the integration tests. The benchmark starts a Spring context with
+ * only the persistence layer and the achievement service, creates its own incremental achievement and players, and
+ * removes them afterwards. Add {@code rewriteBatchedStatements=true} to the JDBC URL to let the driver send the
+ * upserts as a single statement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AchievementUpdateBenchmark {
+
+  private static final String ACHIEVEMENT_ID = "benchmark";
+  private static final int FIRST_PLAYER_ID = 1_000_000;
+
+  @Param({"jdbc:mysql://127.0.0.1/faf?useSSL=false"})
+  public String jdbcUrl;
+  @Param({"root"})
+  public String username;
+  @Param({"banana"})
+  public String password;
+  @Param({"10", "100"})
+  public int batchSize;
+
+  private ConfigurableApplicationContext context;
+  private AchievementService achievementService;
+  private TransactionTemplate transactionTemplate;
+  private JdbcTemplate jdbcTemplate;
+  private List<AchievementUpdateRequest> updateRequests;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(BenchmarkConfiguration.class)
+      .web(WebApplicationType.NONE)
+      .logStartupInfo(false)
+      .run(
+        // Don't pick up the application.yml of the application or the unit tests
+        "--spring.config.name=achievement-benchmark",
+        "--spring.datasource.url=" + jdbcUrl,
+        "--spring.datasource.username=" + username,
+        "--spring.datasource.password=" + password,
+        "--spring.jpa.hibernate.ddl-auto=none",
+        "--spring.jpa.hibernate.naming.physical-strategy=" + PhysicalNamingStrategyStandardImpl.class.getName(),
+        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQL5Dialect"
+      );
+    achievementService = context.getBean(AchievementService.class);
+    transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+    deleteBenchmarkData();
+    jdbcTemplate.update("INSERT INTO achievement_definitions (id, `order`, name_key, description_key, type, total_steps, " +
+        "revealed_icon_url, unlocked_icon_url, initial_state, experience_points) " +
+        "VALUES (?, 1, 'achievement.benchmark.name', 'achievement.benchmark.description', 'INCREMENTAL', ?, NULL, NULL, 'REVEALED', 10)",
+      ACHIEVEMENT_ID, Integer.MAX_VALUE / 2);
+    jdbcTemplate.batchUpdate("INSERT INTO login (id, login, email, password) VALUES (?, ?, ?, 'benchmark')",
+      IntStream.range(FIRST_PLAYER_ID, FIRST_PLAYER_ID + batchSize)
+        .mapToObj(playerId -> new Object[]{playerId, "benchmark" + playerId, "benchmark" + playerId + "@example.com"})
+        .toList());
+
+    updateRequests = IntStream.range(FIRST_PLAYER_ID, FIRST_PLAYER_ID + batchSize)
+      .mapToObj(playerId -> new AchievementUpdateRequest(playerId, ACHIEVEMENT_ID, Operation.INCREMENT, 1))
+      .toList();
+  }
+
+  @TearDown
+  public void tearDown() {
+    deleteBenchmarkData();
+    context.close();
+  }
+
+  private void deleteBenchmarkData() {
+    jdbcTemplate.update("DELETE FROM player_achievements WHERE achievement_id = ?", ACHIEVEMENT_ID);
+    jdbcTemplate.update("DELETE FROM achievement_definitions WHERE id = ?", ACHIEVEMENT_ID);
+    jdbcTemplate.update("DELETE FROM login WHERE id >= ? AND id < ?", FIRST_PLAYER_ID, FIRST_PLAYER_ID + batchSize);
+  }
+
+  @Benchmark
+  public void updateEach() {
+    transactionTemplate.executeWithoutResult(status ->
+      updateRequests.forEach(request -> achievementService.updateAll(List.of(request))));
+  }
+
+  @Benchmark
+  public List<UpdatedAchievementResponse> updateAll() {
+    return achievementService.updateAll(updateRequests);
+  }
+
+  /**
+   * The persistence layer as configured for the application, without the web layer, security, Elide or caches.
+   */
+  @Configuration
+  @ImportAutoConfiguration({
+    DataSourceAutoConfiguration.class,
+    HibernateJpaAutoConfiguration.class,
+    JdbcTemplateAutoConfiguration.class,
+    TransactionAutoConfiguration.class
+  })
+  @EntityScan(basePackageClasses = Achievement.class)
+  @EnableJpaRepositories(basePackageClasses = AchievementService.class)
+  @Import({AchievementService.class, PlayerAchievementBatchRepository.class, AchievementLocalizationListener.class})
+  static class BenchmarkConfiguration {
+
+    @Bean
+    public MessageSourceAccessor messageSourceAccessor() {
+      StaticMessageSource messageSource = new StaticMessageSource();
+      messageSource.setUseCodeAsDefaultMessage(true);
+      return new MessageSourceAccessor(messageSource);
+    }
+  }
+}
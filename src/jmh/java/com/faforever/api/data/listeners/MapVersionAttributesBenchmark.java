@@ -0,0 +1,84 @@
+package com.faforever.api.data.listeners;
+
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.data.domain.MapVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Simulates the computed attributes of a {@code /data/mapVersion} request with 10k rows: formatting all of them when
+ * the map versions are loaded, as it used to be done, compared with computing them on access, either all of them or
+ * none for a sparse fieldset. Run with {@code -prof gc} to compare the allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MapVersionAttributesBenchmark {
+
+  private static final int ROWS = 10_000;
+
+  private FafApiProperties.Map properties;
+  private List<MapVersion> mapVersions;
+
+  @Setup
+  public void setUp() {
+    FafApiProperties fafApiProperties = new FafApiProperties();
+    properties = fafApiProperties.getMap();
+    properties.setDownloadUrlFormat("https://content.faforever.com/maps/%s");
+    properties.setSmallPreviewsUrlFormat("https://content.faforever.com/maps/previews/small/%s");
+    properties.setLargePreviewsUrlFormat("https://content.faforever.com/maps/previews/large/%s");
+    new MapVersionEnricher().init(fafApiProperties);
+
+    mapVersions = IntStream.range(0, ROWS)
+      .mapToObj(i -> new MapVersion()
+        .setId(i)
+        .setFilename("maps/map_" + i + ".v0001.zip"))
+      .toList();
+  }
+
+  @Benchmark
+  public void formatOnLoad(Blackhole blackhole) {
+    for (MapVersion mapVersion : mapVersions) {
+      String filename = mapVersion.getFilename();
+      blackhole.consume(String.format(properties.getDownloadUrlFormat(), filename.replace("maps/", "")));
+      blackhole.consume(String.format(properties.getLargePreviewsUrlFormat(), filename.replace("maps/", "").replace(".zip", ".png")));
+      blackhole.consume(String.format(properties.getSmallPreviewsUrlFormat(), filename.replace("maps/", "").replace(".zip", ".png")));
+      blackhole.consume(filename.substring(filename.indexOf('/') + 1, filename.indexOf(".zip")));
+      blackhole.consume(mapVersion.getId());
+    }
+  }
+
+  @Benchmark
+  public void computeAllOnAccess(Blackhole blackhole) {
+    for (MapVersion mapVersion : mapVersions) {
+      blackhole.consume(mapVersion.getDownloadUrl());
+      blackhole.consume(mapVersion.getThumbnailUrlLarge());
+      blackhole.consume(mapVersion.getThumbnailUrlSmall());
+      blackhole.consume(mapVersion.getFolderName());
+      blackhole.consume(mapVersion.getId());
+    }
+  }
+
+  @Benchmark
+  public void sparseFieldset(Blackhole blackhole) {
+    for (MapVersion mapVersion : mapVersions) {
+      blackhole.consume(mapVersion.getId());
+    }
+  }
+}
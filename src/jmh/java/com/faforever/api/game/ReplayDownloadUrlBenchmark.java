@@ -0,0 +1,66 @@
+package com.faforever.api.game;
+
+import com.faforever.api.config.FafApiProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares formatting and parsing the padded replay ID, as the replay URL used to be built, with
+ * {@link GameService#getReplayDownloadUrl(int)} for a page of 10k games. Run with {@code -prof gc} to compare the
+ * allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReplayDownloadUrlBenchmark {
+
+  private static final int GAMES = 10_000;
+  private static final int FIRST_GAME_ID = 15_000_000;
+
+  private FafApiProperties properties;
+  private GameService gameService;
+
+  @Setup
+  public void setUp() {
+    properties = new FafApiProperties();
+    properties.getReplay().setDownloadUrlFormat("https://replays.faforever.com/%s");
+    gameService = new GameService(properties);
+  }
+
+  @Benchmark
+  public void formatAndParse(Blackhole blackhole) {
+    for (int replayId = FIRST_GAME_ID; replayId < FIRST_GAME_ID + GAMES; replayId++) {
+      String leadingZeroReplayId = String.format("%010d", replayId);
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 4; i++) {
+        String subfolderId = leadingZeroReplayId.substring(i * 2, i * 2 + 2);
+        sb.append(Integer.parseInt(subfolderId));
+        sb.append("/");
+      }
+      sb.append(replayId);
+      sb.append(".fafreplay");
+      blackhole.consume(String.format(properties.getReplay().getDownloadUrlFormat(), sb.toString()));
+    }
+  }
+
+  @Benchmark
+  public void arithmetic(Blackhole blackhole) {
+    for (int replayId = FIRST_GAME_ID; replayId < FIRST_GAME_ID + GAMES; replayId++) {
+      blackhole.consume(gameService.getReplayDownloadUrl(replayId));
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.faforever.api.map;
+
+import com.faforever.commons.io.Unzipper;
+import com.faforever.commons.map.PreviewGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import javax.imageio.ImageIO;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares rendering each map preview size from scratch, as map uploads used to, with {@link MapPreviewGenerator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MapPreviewBenchmark {
+
+  private static final int SMALL_SIZE = 128;
+  private static final int LARGE_SIZE = 512;
+
+  @Param({"command_conquer_rush.v0007.zip"})
+  public String mapFile;
+
+  private Path tempDirectory;
+  private Path mapFolder;
+  private MapPreviewGenerator mapPreviewGenerator;
+
+  @Setup
+  public void setUp() throws Exception {
+    tempDirectory = Files.createTempDirectory("map-preview-benchmark");
+    Path contentDirectory = Files.createDirectories(tempDirectory.resolve("content"));
+    try (InputStream inputStream = MapPreviewBenchmark.class.getResourceAsStream("/maps/" + mapFile)) {
+      Unzipper.from(inputStream).to(contentDirectory).unzip();
+    }
+    try (Stream<Path> files = Files.list(contentDirectory)) {
+      mapFolder = files.filter(Files::isDirectory).findFirst().orElseThrow();
+    }
+    mapPreviewGenerator = new MapPreviewGenerator(new SimpleMeterRegistry());
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    mapPreviewGenerator.destroy();
+    FileSystemUtils.deleteRecursively(tempDirectory);
+  }
+
+  @Benchmark
+  public void renderEachSize() throws Exception {
+    ImageIO.write(PreviewGenerator.generatePreview(mapFolder, SMALL_SIZE, SMALL_SIZE), "png", tempDirectory.resolve("small.png").toFile());
+    ImageIO.write(PreviewGenerator.generatePreview(mapFolder, LARGE_SIZE, LARGE_SIZE), "png", tempDirectory.resolve("large.png").toFile());
+  }
+
+  @Benchmark
+  public void renderOnceAndDownscale() {
+    mapPreviewGenerator.generatePreviews(mapFolder,
+      tempDirectory.resolve("small.png"), SMALL_SIZE,
+      tempDirectory.resolve("large.png"), LARGE_SIZE);
+  }
+}
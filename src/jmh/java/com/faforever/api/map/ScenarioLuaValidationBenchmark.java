@@ -0,0 +1,66 @@
+package com.faforever.api.map;
+
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.lua.LuaSandboxPool;
+import com.faforever.commons.lua.LuaAccessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static java.text.MessageFormat.format;
+
+/**
+ * Measures the validation behind {@code /maps/validateScenarioLua}, compared with parsing the file in new Lua globals
+ * and matching each path against a regular expression built for it, as it used to be done.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(4)
+@Fork(1)
+public class ScenarioLuaValidationBenchmark {
+
+  private String scenarioLua;
+  private MapService mapService;
+
+  @Setup
+  public void setUp() throws Exception {
+    try (InputStream inputStream = ScenarioLuaValidationBenchmark.class.getResourceAsStream("/maps/scenario/valid_with_version_scenario.lua")) {
+      scenarioLua = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    // Validating scenario files does neither access the database nor the file system
+    mapService = new MapService(null, null, null, null, null,
+      new LuaSandboxPool(new FafApiProperties(), new SimpleMeterRegistry()));
+  }
+
+  @Benchmark
+  public void validateScenarioLua() {
+    mapService.validateScenarioLua(scenarioLua);
+  }
+
+  @Benchmark
+  public boolean newGlobalsAndRegularExpressions() throws Exception {
+    LuaAccessor luaAccessor = LuaAccessor.of(scenarioLua, "ScenarioInfo");
+    boolean valid = true;
+    for (String[] declaration : new String[][]{{"map", "mirage.scmap"}, {"save", "mirage_save.lua"}, {"script", "mirage_script.lua"}}) {
+      String regex = format("\\/maps\\/{0}(\\.v\\d{4})?\\/{1}", "mirage", declaration[1]);
+      valid &= luaAccessor.hasVariableMatchingIgnoreCase(regex, declaration[0]);
+    }
+    return valid;
+  }
+}
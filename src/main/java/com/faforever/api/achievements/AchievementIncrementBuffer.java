@@ -0,0 +1,75 @@
+package com.faforever.api.achievements;
+
+import com.faforever.api.achievements.AchievementUpdateRequest.Operation;
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.config.FafApiProperties.WriteBehind;
+import com.faforever.api.writebehind.WriteBehindBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-behind stage in front of {@link AchievementService}, see {@link WriteBehind}. Only increments are buffered,
+ * since other operations don't commute with them.
+ */
+@Component
+public class AchievementIncrementBuffer implements DisposableBean {
+
+  private final AchievementService achievementService;
+  /** {@code null} if write-behind is disabled. */
+  private final WriteBehindBuffer<IncrementKey> buffer;
+
+  public AchievementIncrementBuffer(AchievementService achievementService, FafApiProperties properties, MeterRegistry meterRegistry) {
+    this.achievementService = achievementService;
+
+    WriteBehind writeBehind = properties.getWriteBehind();
+    buffer = writeBehind.isEnabled()
+      ? new WriteBehindBuffer<>("achievements", this::apply, writeBehind.getFlushInterval(), writeBehind.getMaxPendingKeys(),
+        writeBehind.getMaxBufferedKeys(), meterRegistry)
+      : null;
+  }
+
+  /**
+   * Verifies the specified requests and buffers them if all of them are increments. Otherwise, all pending increments
+   * are written first so that the requests are applied in order. Increments are not buffered either if the buffer
+   * is full.
+   *
+   * @return {@code false} if the requests have not been buffered and have to be applied directly
+   */
+  boolean offer(List<AchievementUpdateRequest> updateRequests) {
+    if (buffer == null) {
+      return false;
+    }
+
+    if (updateRequests.stream().anyMatch(request -> request.operation() != Operation.INCREMENT)) {
+      buffer.flush();
+      return false;
+    }
+    if (buffer.isFull()) {
+      return false;
+    }
+
+    achievementService.verifyAll(updateRequests);
+    updateRequests.forEach(request -> buffer.add(new IncrementKey(request.playerId(), request.achievementId()), request.steps()));
+    return true;
+  }
+
+  private void apply(Map<IncrementKey, Integer> increments) {
+    achievementService.updateAll(increments.entrySet().stream()
+      .map(entry -> new AchievementUpdateRequest(entry.getKey().playerId(), entry.getKey().achievementId(), Operation.INCREMENT, entry.getValue()))
+      .toList());
+  }
+
+  @Override
+  public void destroy() {
+    if (buffer != null) {
+      buffer.close();
+    }
+  }
+
+  private record IncrementKey(int playerId, String achievementId) {
+  }
+}
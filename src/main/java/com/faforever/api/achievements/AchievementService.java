@@ -1,15 +1,26 @@
 package com.faforever.api.achievements;
 
+import com.faforever.api.achievements.AchievementUpdateRequest.Operation;
+import com.faforever.api.achievements.PlayerAchievementBatchRepository.PlayerAchievementState;
 import com.faforever.api.data.domain.Achievement;
 import com.faforever.api.data.domain.AchievementState;
 import com.faforever.api.data.domain.AchievementType;
-import com.faforever.api.data.domain.PlayerAchievement;
 import com.faforever.api.error.ApiException;
+import com.faforever.api.error.ProgrammingError;
 import com.google.common.base.MoreObjects;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.faforever.api.error.ErrorCode.ACHIEVEMENT_NOT_INCREMENTAL;
 import static com.faforever.api.error.ErrorCode.ACHIEVEMENT_NOT_STANDARD;
@@ -21,68 +32,126 @@ public class AchievementService {
 
   private final AchievementRepository achievementRepository;
   private final PlayerAchievementRepository playerAchievementRepository;
-
-  UpdatedAchievementResponse increment(int playerId, String achievementId, int steps) {
-    return updateSteps(playerId, achievementId, steps, Integer::sum);
-  }
-
-  private UpdatedAchievementResponse updateSteps(int playerId, String achievementId, int steps, BiFunction<Integer, Integer, Integer> stepsFunction) {
-    Achievement achievement = achievementRepository.findById(achievementId)
-      .orElseThrow(() -> ApiException.of(ENTITY_NOT_FOUND, achievementId));
-
-    if (achievement.getType() != AchievementType.INCREMENTAL) {
-      throw ApiException.of(ACHIEVEMENT_NOT_INCREMENTAL, achievementId);
+  private final PlayerAchievementBatchRepository playerAchievementBatchRepository;
+
+  /**
+   * Applies all updates in a single transaction. All referenced achievements and all affected player achievements
+   * are loaded with one query each, the updates are applied in memory in the order of the requests, and changed
+   * player achievements are written back with a single batch of upserts. The affected player achievements are locked
+   * while the batch is applied, so that concurrent batches for the same player achievements don't overwrite each
+   * other's steps.
+   *
+   * @return one response per request, in the order of the requests
+   */
+  @Transactional
+  public List<UpdatedAchievementResponse> updateAll(List<AchievementUpdateRequest> updateRequests) {
+    if (updateRequests.isEmpty()) {
+      return List.of();
     }
 
-    PlayerAchievement playerAchievement = getOrCreatePlayerAchievement(playerId, achievement, AchievementState.REVEALED);
-
-    int currentSteps = MoreObjects.firstNonNull(playerAchievement.getCurrentSteps(), 0);
-    int newCurrentSteps = stepsFunction.apply(currentSteps, steps);
-
-    boolean newlyUnlocked = false;
-
-    if (newCurrentSteps >= achievement.getTotalSteps()) {
-      playerAchievement.setState(AchievementState.UNLOCKED);
-      playerAchievement.setCurrentSteps(achievement.getTotalSteps());
-      newlyUnlocked = playerAchievement.getState() != AchievementState.UNLOCKED;
-    } else {
-      playerAchievement.setCurrentSteps(newCurrentSteps);
+    Set<Integer> playerIds = updateRequests.stream().map(AchievementUpdateRequest::playerId).collect(Collectors.toSet());
+    Set<String> achievementIds = updateRequests.stream().map(AchievementUpdateRequest::achievementId).collect(Collectors.toSet());
+
+    // Validate everything before anything is computed, so that a batch is either applied completely or not at all
+    Map<String, Achievement> achievementsById = verifyAll(updateRequests);
+
+    Map<ProgressKey, Progress> progressByKey = new HashMap<>();
+    playerAchievementRepository.findAllByPlayerIdInAndAchievementIdIn(playerIds, achievementIds).forEach(playerAchievement ->
+      progressByKey.put(
+        new ProgressKey(playerAchievement.getPlayerId(), playerAchievement.getAchievement().getId()),
+        new Progress(playerAchievement.getState(), playerAchievement.getCurrentSteps())
+      ));
+
+    List<UpdatedAchievementResponse> responses = new ArrayList<>(updateRequests.size());
+    for (AchievementUpdateRequest request : updateRequests) {
+      Achievement achievement = achievementsById.get(request.achievementId());
+      Progress progress = progressByKey.computeIfAbsent(new ProgressKey(request.playerId(), request.achievementId()),
+        key -> new Progress(AchievementState.REVEALED, null));
+
+      responses.add(switch (request.operation()) {
+        case UNLOCK -> progress.unlock(achievement);
+        case INCREMENT -> progress.updateSteps(achievement, request.steps(), Integer::sum);
+        case SET_STEPS_AT_LEAST -> progress.updateSteps(achievement, request.steps(), Math::max);
+        case REVEAL -> throw new ProgrammingError("Unsupported operation should have been rejected: " + request.operation());
+      });
     }
 
-    playerAchievementRepository.save(playerAchievement);
+    playerAchievementBatchRepository.upsertAll(progressByKey.entrySet().stream()
+      .filter(entry -> entry.getValue().changed)
+      .map(entry -> new PlayerAchievementState(entry.getKey().playerId(), entry.getKey().achievementId(),
+        entry.getValue().currentSteps, entry.getValue().state))
+      .toList());
 
-    return new UpdatedAchievementResponse(achievementId, newlyUnlocked, playerAchievement.getState(), playerAchievement.getCurrentSteps());
+    return responses;
   }
 
-  private PlayerAchievement getOrCreatePlayerAchievement(int playerId, Achievement achievement, AchievementState initialState) {
-    return playerAchievementRepository.findOneByAchievementIdAndPlayerId(achievement.getId(), playerId)
-        .orElseGet(() -> new PlayerAchievement()
-            .setPlayerId(playerId)
-            .setAchievement(achievement)
-            .setState(initialState));
+  /**
+   * Ensures that all requests reference existing achievements of a matching type.
+   *
+   * @return the referenced achievements by ID
+   */
+  Map<String, Achievement> verifyAll(List<AchievementUpdateRequest> updateRequests) {
+    Set<String> achievementIds = updateRequests.stream().map(AchievementUpdateRequest::achievementId).collect(Collectors.toSet());
+    Map<String, Achievement> achievementsById = achievementRepository.findAllById(achievementIds).stream()
+      .collect(Collectors.toMap(Achievement::getId, Function.identity()));
+
+    updateRequests.forEach(request -> verifyOperation(request, achievementsById.get(request.achievementId())));
+    return achievementsById;
   }
 
-  UpdatedAchievementResponse setStepsAtLeast(int playerId, String achievementId, int steps) {
-    return updateSteps(playerId, achievementId, steps, Math::max);
+  private void verifyOperation(AchievementUpdateRequest request, Achievement achievement) {
+    if (request.operation() == Operation.REVEAL) {
+      throw new UnsupportedOperationException("REVEAL is not yet implemented");
+    }
+    if (achievement == null) {
+      throw ApiException.of(ENTITY_NOT_FOUND, request.achievementId());
+    }
+    if (request.operation() == Operation.UNLOCK && achievement.getType() != AchievementType.STANDARD) {
+      throw ApiException.of(ACHIEVEMENT_NOT_STANDARD, request.achievementId());
+    }
+    if (request.operation() != Operation.UNLOCK && achievement.getType() != AchievementType.INCREMENTAL) {
+      throw ApiException.of(ACHIEVEMENT_NOT_INCREMENTAL, request.achievementId());
+    }
   }
 
-  UpdatedAchievementResponse unlock(int playerId, String achievementId) {
-    Achievement achievement = achievementRepository.findById(achievementId)
-      .orElseThrow(() -> ApiException.of(ENTITY_NOT_FOUND, achievementId));
+  private record ProgressKey(int playerId, String achievementId) {
+  }
 
-    if (achievement.getType() != AchievementType.STANDARD) {
-      throw ApiException.of(ACHIEVEMENT_NOT_STANDARD, achievementId);
+  /**
+   * The in-memory state of a player achievement while a batch is being applied.
+   */
+  private static class Progress {
+    private AchievementState state;
+    private Integer currentSteps;
+    private boolean changed;
+
+    private Progress(AchievementState state, Integer currentSteps) {
+      this.state = state;
+      this.currentSteps = currentSteps;
     }
 
-    PlayerAchievement playerAchievement = getOrCreatePlayerAchievement(playerId, achievement, AchievementState.REVEALED);
+    private UpdatedAchievementResponse updateSteps(Achievement achievement, int steps, BiFunction<Integer, Integer, Integer> stepsFunction) {
+      int newCurrentSteps = stepsFunction.apply(MoreObjects.firstNonNull(currentSteps, 0), steps);
+      boolean newlyUnlocked = false;
 
-    boolean newlyUnlocked = playerAchievement.getState() != AchievementState.UNLOCKED;
+      if (newCurrentSteps >= achievement.getTotalSteps()) {
+        newlyUnlocked = state != AchievementState.UNLOCKED;
+        state = AchievementState.UNLOCKED;
+        newCurrentSteps = achievement.getTotalSteps();
+      }
+      changed |= newlyUnlocked || !Objects.equals(currentSteps, newCurrentSteps);
+      currentSteps = newCurrentSteps;
 
-    if (newlyUnlocked) {
-      playerAchievement.setState(AchievementState.UNLOCKED);
-      playerAchievementRepository.save(playerAchievement);
+      return new UpdatedAchievementResponse(achievement.getId(), newlyUnlocked, state, currentSteps);
     }
 
-    return new UpdatedAchievementResponse(achievementId, newlyUnlocked, playerAchievement.getState());
+    private UpdatedAchievementResponse unlock(Achievement achievement) {
+      boolean newlyUnlocked = state != AchievementState.UNLOCKED;
+      if (newlyUnlocked) {
+        state = AchievementState.UNLOCKED;
+        changed = true;
+      }
+      return new UpdatedAchievementResponse(achievement.getId(), newlyUnlocked, state);
+    }
   }
 }
@@ -8,6 +8,8 @@ import com.yahoo.elide.jsonapi.models.Data;
 import com.yahoo.elide.jsonapi.models.JsonApiDocument;
 import com.yahoo.elide.jsonapi.models.Resource;
 import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -15,7 +17,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @RestController
@@ -24,19 +28,25 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class AchievementsController {
 
   private final AchievementService achievementService;
+  private final AchievementIncrementBuffer achievementIncrementBuffer;
   private final AtomicInteger nextUpdateId = new AtomicInteger();
 
   @ApiOperation(value = "Updates the state and progress of one or multiple achievements.")
+  @ApiResponses(value = {
+    @ApiResponse(code = 200, message = "The updates were applied. Contains the resulting newlyUnlocked, state and currentSteps of each updated achievement."),
+    @ApiResponse(code = 202, message = "Only if write-behind is enabled and all updates are increments: the updates were "
+      + "buffered and will be applied shortly. The data array is empty, so newlyUnlocked, state and currentSteps are not "
+      + "available and clients can't be notified about unlocked achievements.")})
   @PreAuthorize("#oauth2.hasScope('" + OAuthScope._WRITE_ACHIEVEMENTS + "')")
   @RequestMapping(value = "/update", method = RequestMethod.PATCH, produces = JsonApiMediaType.JSON_API_MEDIA_TYPE)
-  public JsonApiDocument update(@RequestBody AchievementUpdateRequest[] updateRequests) {
-    return new JsonApiDocument(new Data<>(Arrays.stream(updateRequests)
-      .map(request -> switch (request.operation()) {
-        case REVEAL -> throw new UnsupportedOperationException("REVEAL is not yet implemented");
-        case UNLOCK -> achievementService.unlock(request.playerId(), request.achievementId());
-        case INCREMENT -> achievementService.increment(request.playerId(), request.achievementId(), request.steps());
-        case SET_STEPS_AT_LEAST -> achievementService.setStepsAtLeast(request.playerId(), request.achievementId(), request.steps());
-      })
+  public JsonApiDocument update(@RequestBody AchievementUpdateRequest[] updateRequests, HttpServletResponse response) {
+    List<AchievementUpdateRequest> requests = Arrays.asList(updateRequests);
+    if (achievementIncrementBuffer.offer(requests)) {
+      response.setStatus(HttpServletResponse.SC_ACCEPTED);
+      return new JsonApiDocument(new Data<>(List.of()));
+    }
+
+    return new JsonApiDocument(new Data<>(achievementService.updateAll(requests).stream()
       .map(this::toResource)
       .toList()));
   }
@@ -0,0 +1,45 @@
+package com.faforever.api.achievements;
+
+import com.faforever.api.data.domain.AchievementState;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Writes player achievements in a single JDBC batch of upserts, relying on the unique key of
+ * {@code (player_id, achievement_id)}. Entities loaded in the current persistence context are not updated.
+ */
+@Repository
+public class PlayerAchievementBatchRepository {
+
+  private static final String UPSERT = "INSERT INTO player_achievements (player_id, achievement_id, current_steps, state) " +
+    "VALUES (:playerId, :achievementId, :currentSteps, :state) " +
+    "ON DUPLICATE KEY UPDATE current_steps = VALUES(current_steps), state = VALUES(state)";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public PlayerAchievementBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  // Don't make this package private, see https://jira.spring.io/browse/SPR-15911
+  public void upsertAll(Collection<PlayerAchievementState> states) {
+    if (states.isEmpty()) {
+      return;
+    }
+
+    jdbcTemplate.batchUpdate(UPSERT, states.stream()
+      .map(state -> new MapSqlParameterSource()
+        .addValue("playerId", state.playerId())
+        .addValue("achievementId", state.achievementId())
+        .addValue("currentSteps", state.currentSteps())
+        .addValue("state", state.state().name()))
+      .toArray(SqlParameterSource[]::new));
+  }
+
+  record PlayerAchievementState(int playerId, String achievementId, Integer currentSteps, AchievementState state) {
+  }
+}
@@ -2,12 +2,20 @@ package com.faforever.api.achievements;
 
 import com.faforever.api.data.domain.PlayerAchievement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface PlayerAchievementRepository extends JpaRepository<PlayerAchievement, String> {
 
-  Optional<PlayerAchievement> findOneByAchievementIdAndPlayerId(String achievementId, int playerId);
+  /**
+   * Loads the player achievements with {@code SELECT ... FOR UPDATE}. In MySQL's default isolation level, this also
+   * locks the gaps of player achievements that don't exist yet, so concurrent inserts of them wait as well.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  List<PlayerAchievement> findAllByPlayerIdInAndAchievementIdIn(Collection<Integer> playerIds, Collection<String> achievementIds);
 }
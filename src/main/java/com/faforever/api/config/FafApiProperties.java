@@ -1,11 +1,14 @@
 package com.faforever.api.config;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.List;
 import java.util.Set;
 
 @Data
@@ -39,6 +42,10 @@ public class FafApiProperties {
   private Tutorial tutorial = new Tutorial();
   private Nodebb nodebb = new Nodebb();
   private Recaptcha recaptcha = new Recaptcha();
+  private RateLimit rateLimit = new RateLimit();
+  private QueryCost queryCost = new QueryCost();
+  private WriteBehind writeBehind = new WriteBehind();
+  private Lua lua = new Lua();
 
   @Data
   public static class OAuth2 {
@@ -103,6 +110,18 @@ public class FafApiProperties {
      * Allowed file extensions of uploaded maps.
      */
     private Set<String> allowedExtensions = Set.of("zip");
+    /**
+     * The number of uploaded maps that are processed concurrently.
+     */
+    private int uploadWorkers = 2;
+    /**
+     * The number of uploaded maps that may wait for processing. Further uploads are rejected.
+     */
+    private int uploadQueueCapacity = 20;
+    /**
+     * How long the state of a map upload can be queried after it has been submitted or finished.
+     */
+    private Duration uploadJobRetention = Duration.ofHours(1);
   }
 
   @Data
@@ -117,6 +136,10 @@ public class FafApiProperties {
     private Path thumbnailTargetDirectory = Paths.get("static/mod_thumbnails");
     /** The maximum allowed length of a mod's name. */
     private int maxNameLength = 100;
+    /** The maximum total size of all files of an uploaded mod, once uncompressed. */
+    private long maxUncompressedSize = 4L * 1024 * 1024 * 1024;
+    /** The maximum ratio between the uncompressed content and the size of an uploaded mod file. */
+    private int maxCompressionRatio = 100;
   }
 
   @Data
@@ -139,6 +162,11 @@ public class FafApiProperties {
   public static class FeaturedMod {
     private String fileUrlFormat;
     private String bireusUrlFormat;
+    /**
+     * How long the in-memory file manifest of a featured mod is used before it's reloaded from the database. Only
+     * relevant for changes that aren't made through this instance.
+     */
+    private Duration fileManifestTimeToLive = Duration.ofHours(1);
   }
 
   @Data
@@ -164,6 +192,18 @@ public class FafApiProperties {
     private String allowedExeExtension = "exe";
     private String forgedAllianceBetaExePath;
     private String forgedAllianceDevelopExePath;
+    /** The maximum number of directories that are packaged concurrently. */
+    private int packagingThreads = Runtime.getRuntime().availableProcessors();
+    /**
+     * The maximum number of featured mod deployments that run concurrently. Deployments of the same repository are
+     * always run one after another, see {@link com.faforever.api.deployment.DeploymentScheduler}.
+     */
+    private int maxConcurrentDeployments = 2;
+    /**
+     * Directory in which deployed featured mod files are stored by their hash, see
+     * {@link com.faforever.api.deployment.ContentAddressedFileStore}. If not set, files are written directly.
+     */
+    private String contentStoreDirectory;
   }
 
   @Data
@@ -267,4 +307,111 @@ public class FafApiProperties {
     private boolean enabled;
     private String secret;
   }
+
+  @Data
+  public static class RateLimit {
+    /** Whether expensive endpoints are rate limited at all. */
+    private boolean enabled = true;
+    /** The maximum number of token buckets (i.e. distinct clients) kept in memory per route. */
+    private long maxBucketsPerRoute = 100_000;
+    /** Token buckets that haven't been used for this long are evicted. */
+    private Duration bucketIdleTimeout = Duration.ofMinutes(30);
+    /** The rate limited routes. The first matching route applies. */
+    private List<RateLimitRoute> routes = List.of(
+      new RateLimitRoute("POST", "/users/register", 0, 5, Duration.ofHours(1)),
+      new RateLimitRoute("POST", "/users/requestPasswordReset", 0, 5, Duration.ofHours(1)),
+      new RateLimitRoute("POST", "/maps/upload", 0, 20, Duration.ofHours(1)),
+      new RateLimitRoute("POST", "/mods/upload", 0, 20, Duration.ofHours(1)),
+      new RateLimitRoute("GET", "/data/**", 1000, 30, Duration.ofMinutes(1))
+    );
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class RateLimitRoute {
+    /** The HTTP method this route applies to, or {@code null} for all methods. */
+    private String method;
+    /** Ant-style path pattern, relative to the context path. */
+    private String pathPattern;
+    /** If greater than 0, only requests with a {@code page[size]} of at least this value are limited. */
+    private int minPageSize;
+    /** The number of requests a client may burst. */
+    private int capacity;
+    /** The time it takes to refill all tokens of an empty bucket. */
+    private Duration refillPeriod;
+  }
+
+  @Data
+  public static class QueryCost {
+    /** Whether the estimated cost of JSON-API read requests is checked before they are executed. */
+    private boolean enabled = true;
+    /** The maximum estimated number of rows a single request may load. */
+    private long maxCost = 200_000;
+    /**
+     * What to do with requests whose estimated cost exceeds {@link #maxCost}. Only logs them by default, until the
+     * estimates and the budget have been checked against production traffic.
+     */
+    private OverBudgetAction overBudgetAction = OverBudgetAction.LOG;
+    /** The page size Elide uses if the client didn't specify one. */
+    private int defaultPageSize = 500;
+    /** The assumed number of related entities of a to-many relationship, unless a specific hint is configured. */
+    private int defaultToManyCardinality = 10;
+    /**
+     * Assumed number of related entities per relationship, keyed by {@code <type>.<relationship>}, for instance
+     * {@code game.playerStats}.
+     */
+    private java.util.Map<String, Integer> cardinalityHints = java.util.Map.of(
+      "game.playerStats", 8,
+      "gamePlayerStats.ratingChanges", 1,
+      "player.names", 3,
+      "player.avatarAssignments", 2,
+      "mapVersion.reviews", 5,
+      "modVersion.reviews", 5
+    );
+  }
+
+  public enum OverBudgetAction {
+    /** Execute the request anyway, but log it and count it in {@code faf.api.data.queryCost.exceeded}. */
+    LOG,
+    /** Reject the request. */
+    REJECT,
+    /** Reduce the page size until the estimated cost fits the budget. */
+    DOWNGRADE
+  }
+
+  /**
+   * Aggregates achievement and event increments in memory and writes them asynchronously. Accepted increments are
+   * written when the application shuts down gracefully, but are lost if it crashes before the next flush. Buffered
+   * requests are answered with {@code 202 Accepted} and without updated states, so clients can't be told about
+   * newly unlocked achievements.
+   */
+  @Data
+  public static class WriteBehind {
+    /** Whether increments are buffered at all. */
+    private boolean enabled = false;
+    /** How often buffered increments are written. */
+    private Duration flushInterval = Duration.ofSeconds(2);
+    /** Buffered increments are written early as soon as this many distinct counters are pending. */
+    private int maxPendingKeys = 5_000;
+    /**
+     * Requests are written synchronously instead of being buffered as soon as this many distinct counters are
+     * pending, which bounds the memory of a buffer if writing falls behind.
+     */
+    private int maxBufferedKeys = 50_000;
+  }
+
+  @Data
+  public static class Lua {
+    /** The number of sandboxes in which uploaded Lua files, like scenario files of maps, are evaluated concurrently. */
+    private int sandboxes = 4;
+    /** How long to wait for a free sandbox before the evaluation is rejected. */
+    private Duration sandboxTimeout = Duration.ofSeconds(5);
+    /** The maximum number of instructions a Lua file may execute, so that endless loops are aborted. */
+    private int maxInstructions = 1_000_000;
+    /** The maximum number of bytes the evaluation of a Lua file may allocate, so that it can't exhaust the heap. */
+    private long maxAllocatedBytes = 8L * 1024 * 1024;
+    /** The maximum size of a Lua file in bytes. */
+    private int maxCodeSize = 256 * 1024;
+  }
 }
@@ -1,5 +1,7 @@
 package com.faforever.api.config;
 
+import com.faforever.api.config.elide.RequestStatisticsInterceptor;
+import com.faforever.api.config.elide.RequestStatisticsSessionEventListener;
 import com.faforever.api.config.elide.SpringHibernateDataStore;
 import com.yahoo.elide.core.datastore.DataStore;
 import org.hibernate.ScrollMode;
@@ -61,6 +63,8 @@ public class FafDatasourceConfig {
       .build();
     //https://github.com/spring-projects/spring-framework/issues/23968
     emf.getJpaPropertyMap().put(AvailableSettings.BEAN_CONTAINER, new SpringBeanContainer(beanFactory));
+    emf.getJpaPropertyMap().put(AvailableSettings.INTERCEPTOR, new RequestStatisticsInterceptor());
+    emf.getJpaPropertyMap().put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, RequestStatisticsSessionEventListener.class.getName());
     return emf;
   }
 
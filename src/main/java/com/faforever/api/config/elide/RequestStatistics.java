@@ -0,0 +1,92 @@
+package com.faforever.api.config.elide;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Collects Hibernate statistics of a single request. Hibernate's own {@link org.hibernate.stat.Statistics} are
+ * aggregated over the whole session factory, so they can't be attributed to individual requests. Instead, the
+ * statistics are bound to the thread that processes the request; Elide runs its transaction on that same thread.
+ */
+public final class RequestStatistics {
+
+  private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+  private final long startNanos;
+  private long entitiesLoaded;
+  private long statementsExecuted;
+  private long secondLevelCacheHits;
+  private long secondLevelCacheMisses;
+  private long transactionNanos;
+
+  private RequestStatistics() {
+    startNanos = System.nanoTime();
+  }
+
+  /**
+   * Starts collecting statistics for the current thread, replacing any previously started collection.
+   */
+  public static RequestStatistics start() {
+    RequestStatistics statistics = new RequestStatistics();
+    CURRENT.set(statistics);
+    return statistics;
+  }
+
+  /**
+   * Stops collecting statistics for the current thread.
+   */
+  public static void stop() {
+    CURRENT.remove();
+  }
+
+  static Optional<RequestStatistics> current() {
+    return Optional.ofNullable(CURRENT.get());
+  }
+
+  void entityLoaded() {
+    entitiesLoaded++;
+  }
+
+  void statementExecuted() {
+    statementsExecuted++;
+  }
+
+  void secondLevelCacheAccessed(boolean hit) {
+    if (hit) {
+      secondLevelCacheHits++;
+    } else {
+      secondLevelCacheMisses++;
+    }
+  }
+
+  void transactionFinished(long durationNanos) {
+    transactionNanos += durationNanos;
+  }
+
+  public long getEntitiesLoaded() {
+    return entitiesLoaded;
+  }
+
+  public long getStatementsExecuted() {
+    return statementsExecuted;
+  }
+
+  /**
+   * Publishes the collected statistics to the specified registry. Meant to be called once the request has been
+   * processed.
+   *
+   * @param tags tags identifying the request, like its JSON-API type and HTTP method
+   */
+  public void publish(MeterRegistry meterRegistry, Iterable<Tag> tags) {
+    meterRegistry.timer("faf.api.data.request", tags).record(Duration.ofNanos(System.nanoTime() - startNanos));
+    meterRegistry.timer("faf.api.data.transaction", tags).record(Duration.ofNanos(transactionNanos));
+    meterRegistry.summary("faf.api.data.rowsLoaded", tags).record(entitiesLoaded);
+    meterRegistry.summary("faf.api.data.statements", tags).record(statementsExecuted);
+    meterRegistry.counter("faf.api.data.secondLevelCache", Tags.of(tags).and("result", "hit")).increment(secondLevelCacheHits);
+    meterRegistry.counter("faf.api.data.secondLevelCache", Tags.of(tags).and("result", "miss")).increment(secondLevelCacheMisses);
+  }
+}
@@ -0,0 +1,19 @@
+package com.faforever.api.config.elide;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+
+/**
+ * Session factory scoped interceptor that records Hibernate activity into the {@link RequestStatistics} of the
+ * current thread, if any.
+ */
+public class RequestStatisticsInterceptor extends EmptyInterceptor {
+
+  @Override
+  public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+    RequestStatistics.current().ifPresent(RequestStatistics::entityLoaded);
+    return false;
+  }
+}
@@ -0,0 +1,25 @@
+package com.faforever.api.config.elide;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Records JDBC and second-level cache activity of a Hibernate session into the {@link RequestStatistics} of the
+ * current thread, if any. Hibernate instantiates one listener per session.
+ */
+public class RequestStatisticsSessionEventListener extends BaseSessionEventListener {
+
+  @Override
+  public void jdbcExecuteStatementEnd() {
+    RequestStatistics.current().ifPresent(RequestStatistics::statementExecuted);
+  }
+
+  @Override
+  public void jdbcExecuteBatchEnd() {
+    RequestStatistics.current().ifPresent(RequestStatistics::statementExecuted);
+  }
+
+  @Override
+  public void cacheGetEnd(boolean hit) {
+    RequestStatistics.current().ifPresent(statistics -> statistics.secondLevelCacheAccessed(hit));
+  }
+}
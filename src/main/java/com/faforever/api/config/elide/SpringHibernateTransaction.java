@@ -36,6 +36,7 @@ public class SpringHibernateTransaction extends HibernateTransaction {
   private final Session session;
   private final TransactionStatus txStatus;
   private final PlatformTransactionManager txManager;
+  private final long startNanos = System.nanoTime();
 
   /**
    * Constructor.
@@ -64,6 +65,8 @@ public class SpringHibernateTransaction extends HibernateTransaction {
       txManager.commit(txStatus);
     } catch (org.springframework.transaction.TransactionException e) {
       throw new TransactionException(e);
+    } finally {
+      recordDuration();
     }
   }
 
@@ -71,8 +74,14 @@ public class SpringHibernateTransaction extends HibernateTransaction {
   public void close() throws IOException {
     if (session.isOpen() && !txStatus.isCompleted()) {
       txManager.rollback(txStatus);
+      recordDuration();
       throw new IOException("Transaction not closed");
     }
   }
 
+  private void recordDuration() {
+    long durationNanos = System.nanoTime() - startNanos;
+    RequestStatistics.current().ifPresent(statistics -> statistics.transactionFinished(durationNanos));
+  }
+
 }
@@ -1,9 +1,13 @@
 package com.faforever.api.data;
 
+import com.faforever.api.config.elide.RequestStatistics;
 import com.faforever.api.security.ElideUser;
 import com.yahoo.elide.Elide;
 import com.yahoo.elide.ElideResponse;
+import com.yahoo.elide.core.dictionary.EntityDictionary;
 import com.yahoo.elide.core.security.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.http.MediaType;
@@ -23,10 +27,12 @@ import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.MultivaluedHashMap;
 import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static com.faforever.api.data.JsonApiMediaType.JSON_API_MEDIA_TYPE;
 import static com.faforever.api.data.JsonApiMediaType.JSON_API_PATCH_MEDIA_TYPE;
@@ -41,10 +47,21 @@ public class DataController {
   public static final String PATH_PREFIX = "/data";
   public static final String API_VERSION = "";
 
+  /** Response header containing the number of entities Hibernate loaded to process the request. */
+  public static final String ROWS_LOADED_HEADER = "X-Rows-Loaded";
+  /** Response header containing the number of SQL statements executed to process the request. */
+  public static final String STATEMENTS_EXECUTED_HEADER = "X-Statements-Executed";
+
   private final Elide elide;
+  private final EntityDictionary entityDictionary;
+  private final QueryCostAdmission queryCostAdmission;
+  private final MeterRegistry meterRegistry;
 
-  public DataController(Elide elide) {
+  public DataController(Elide elide, EntityDictionary entityDictionary, QueryCostAdmission queryCostAdmission, MeterRegistry meterRegistry) {
     this.elide = elide;
+    this.entityDictionary = entityDictionary;
+    this.queryCostAdmission = queryCostAdmission;
+    this.meterRegistry = meterRegistry;
   }
 
   private static User getPrincipal(final Authentication authentication) {
@@ -56,14 +73,18 @@ public class DataController {
   @Cacheable(cacheResolver = "elideCacheResolver", keyGenerator = GetCacheKeyGenerator.NAME)
   public ResponseEntity<String> get(@RequestParam final Map<String, String> allRequestParams,
                                     final HttpServletRequest request,
-                                    final Authentication authentication) {
-    ElideResponse response = elide.get(
+                                    final Authentication authentication,
+                                    final HttpServletResponse servletResponse) {
+    String jsonApiPath = getJsonApiPath(request);
+    Map<String, String> admittedRequestParams = queryCostAdmission.admit(jsonApiPath, allRequestParams);
+
+    ElideResponse response = withRequestStatistics(request, servletResponse, () -> elide.get(
       getBaseUrlEndpoint(),
-      getJsonApiPath(request),
-      new MultivaluedHashMap<>(allRequestParams),
+      jsonApiPath,
+      new MultivaluedHashMap<>(admittedRequestParams),
       getPrincipal(authentication),
       API_VERSION
-    );
+    ));
     return wrapResponse(response);
   }
 
@@ -73,8 +94,9 @@ public class DataController {
   public ResponseEntity<String> post(@RequestParam final Map<String, String> allRequestParams,
                                      @RequestBody final String body,
                                      final HttpServletRequest request,
-                                     final Authentication authentication) {
-    ElideResponse response = elide.post(
+                                     final Authentication authentication,
+                                     final HttpServletResponse servletResponse) {
+    ElideResponse response = withRequestStatistics(request, servletResponse, () -> elide.post(
       getBaseUrlEndpoint(),
       getJsonApiPath(request),
       body,
@@ -82,7 +104,7 @@ public class DataController {
       getPrincipal(authentication),
       API_VERSION,
       UUID.randomUUID()
-    );
+    ));
     return wrapResponse(response);
   }
 
@@ -92,8 +114,9 @@ public class DataController {
   public ResponseEntity<String> patch(@RequestParam final Map<String, String> allRequestParams,
                                       @RequestBody final String body,
                                       final HttpServletRequest request,
-                                      final Authentication authentication) {
-    ElideResponse response = elide.patch(
+                                      final Authentication authentication,
+                                      final HttpServletResponse servletResponse) {
+    ElideResponse response = withRequestStatistics(request, servletResponse, () -> elide.patch(
       getBaseUrlEndpoint(),
       JSON_API_MEDIA_TYPE,
       JSON_API_MEDIA_TYPE,
@@ -103,7 +126,7 @@ public class DataController {
       getPrincipal(authentication),
       API_VERSION,
       UUID.randomUUID()
-    );
+    ));
     return wrapResponse(response);
   }
 
@@ -113,8 +136,9 @@ public class DataController {
   public ResponseEntity<String> extensionPatch(@RequestParam final Map<String, String> allRequestParams,
                                                @RequestBody final String body,
                                                final HttpServletRequest request,
-                                               final Authentication authentication) {
-    ElideResponse response = elide.patch(
+                                               final Authentication authentication,
+                                               final HttpServletResponse servletResponse) {
+    ElideResponse response = withRequestStatistics(request, servletResponse, () -> elide.patch(
       getBaseUrlEndpoint(),
       JSON_API_PATCH_MEDIA_TYPE,
       JSON_API_MEDIA_TYPE,
@@ -124,7 +148,7 @@ public class DataController {
       getPrincipal(authentication),
       API_VERSION,
       UUID.randomUUID()
-    );
+    ));
     return wrapResponse(response);
   }
 
@@ -134,8 +158,9 @@ public class DataController {
   public ResponseEntity<String> delete(@RequestParam final Map<String, String> allRequestParams,
                                        @RequestBody(required = false) final String body,
                                        final HttpServletRequest request,
-                                       final Authentication authentication) {
-    ElideResponse response = elide.delete(
+                                       final Authentication authentication,
+                                       final HttpServletResponse servletResponse) {
+    ElideResponse response = withRequestStatistics(request, servletResponse, () -> elide.delete(
       getBaseUrlEndpoint(),
       getJsonApiPath(request),
       body,
@@ -143,10 +168,34 @@ public class DataController {
       getPrincipal(authentication),
       API_VERSION,
       UUID.randomUUID()
-    );
+    ));
     return wrapResponse(response);
   }
 
+  private ElideResponse withRequestStatistics(HttpServletRequest request, HttpServletResponse servletResponse, Supplier<ElideResponse> elideCall) {
+    RequestStatistics statistics = RequestStatistics.start();
+    try {
+      return elideCall.get();
+    } finally {
+      RequestStatistics.stop();
+      servletResponse.setHeader(ROWS_LOADED_HEADER, String.valueOf(statistics.getEntitiesLoaded()));
+      servletResponse.setHeader(STATEMENTS_EXECUTED_HEADER, String.valueOf(statistics.getStatementsExecuted()));
+      statistics.publish(meterRegistry, Tags.of("type", getRootType(request), "method", request.getMethod()));
+    }
+  }
+
+  /**
+   * Returns the JSON-API type of the requested resource, or "unknown" if there is no such type. Unknown types are not
+   * passed through to keep the number of distinct metric tags bounded.
+   */
+  private String getRootType(HttpServletRequest request) {
+    String jsonApiPath = getJsonApiPath(request);
+    int start = jsonApiPath.startsWith("/") ? 1 : 0;
+    int end = jsonApiPath.indexOf('/', start);
+    String type = end == -1 ? jsonApiPath.substring(start) : jsonApiPath.substring(start, end);
+    return entityDictionary.getEntityClass(type, API_VERSION) == null ? "unknown" : type;
+  }
+
   private ResponseEntity<String> wrapResponse(ElideResponse response) {
     return ResponseEntity.status(response.getResponseCode()).body(response.getBody());
   }
@@ -0,0 +1,174 @@
+package com.faforever.api.data;
+
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.config.FafApiProperties.OverBudgetAction;
+import com.faforever.api.error.ApiException;
+import com.faforever.api.error.ErrorCode;
+import com.yahoo.elide.core.dictionary.EntityDictionary;
+import com.yahoo.elide.core.dictionary.RelationshipType;
+import com.yahoo.elide.core.type.Type;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates the number of rows a JSON-API read request will load, before it is executed, and logs, rejects or
+ * downgrades requests that exceed the configured budget.
+ * <p>
+ * The estimate is {@code rootRows * (1 + sum of the cardinality of each included relationship path)}, where the
+ * cardinality of a path is the product of the cardinality hints of its relationships. For instance, with a page
+ * size of 10000, {@code include=playerStats.player.names} costs {@code 10000 * (1 + 8 + 8*1 + 8*1*3)}.
+ */
+@Component
+@Slf4j
+public class QueryCostAdmission {
+
+  static final String PAGE_SIZE = "page[size]";
+  static final String PAGE_LIMIT = "page[limit]";
+  private static final String INCLUDE = "include";
+
+  private final EntityDictionary entityDictionary;
+  private final FafApiProperties.QueryCost properties;
+  private final MeterRegistry meterRegistry;
+
+  public QueryCostAdmission(EntityDictionary entityDictionary, FafApiProperties fafApiProperties, MeterRegistry meterRegistry) {
+    this.entityDictionary = entityDictionary;
+    this.properties = fafApiProperties.getQueryCost();
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Checks the estimated cost of the specified read request.
+   *
+   * @return the request parameters to execute the request with, which have a reduced page size if the request has
+   * been downgraded
+   * @throws ApiException if the request exceeds the budget and can't be downgraded
+   */
+  public Map<String, String> admit(String jsonApiPath, Map<String, String> requestParams) {
+    if (!properties.isEnabled()) {
+      return requestParams;
+    }
+
+    QueryCost cost = estimate(jsonApiPath, requestParams);
+    if (cost.total() <= properties.getMaxCost()) {
+      return requestParams;
+    }
+
+    if (properties.getOverBudgetAction() == OverBudgetAction.LOG) {
+      log.info("Request '{}' with params {} exceeds the query cost budget (estimated cost: {})", jsonApiPath, requestParams, cost.total());
+      meterRegistry.counter("faf.api.data.queryCost.exceeded", "type", cost.rootType()).increment();
+      return requestParams;
+    }
+
+    int affordablePageSize = (int) Math.min(Integer.MAX_VALUE, properties.getMaxCost() / cost.costPerRootRow());
+    if (properties.getOverBudgetAction() == OverBudgetAction.DOWNGRADE && cost.paginated() && affordablePageSize > 0) {
+      log.debug("Downgrading page size of '{}' from {} to {} (estimated cost: {})", jsonApiPath, cost.rootRows(), affordablePageSize, cost.total());
+      meterRegistry.counter("faf.api.data.queryCost.downgraded", "type", cost.rootType()).increment();
+
+      // Keep the pagination style of the client, Elide doesn't allow to mix them
+      Map<String, String> downgradedParams = new HashMap<>(requestParams);
+      downgradedParams.put(requestParams.containsKey(PAGE_LIMIT) ? PAGE_LIMIT : PAGE_SIZE, String.valueOf(affordablePageSize));
+      return downgradedParams;
+    }
+
+    log.debug("Rejecting '{}' with params {} (estimated cost: {})", jsonApiPath, requestParams, cost.total());
+    meterRegistry.counter("faf.api.data.queryCost.rejected", "type", cost.rootType()).increment();
+    throw ApiException.of(ErrorCode.QUERY_COST_EXCEEDED, cost.total(), properties.getMaxCost());
+  }
+
+  QueryCost estimate(String jsonApiPath, Map<String, String> requestParams) {
+    String[] segments = Arrays.stream(jsonApiPath.split("/"))
+      .filter(segment -> !segment.isEmpty())
+      .toArray(String[]::new);
+
+    if (segments.length == 0) {
+      return new QueryCost("unknown", 0, 1, false);
+    }
+
+    Type<?> type = entityDictionary.getEntityClass(segments[0], DataController.API_VERSION);
+    if (type == null) {
+      return new QueryCost(segments[0], 0, 1, false);
+    }
+    String rootType = segments[0];
+
+    // Path segments alternate between relationship names and IDs: /type/id/relationship/id/...
+    boolean collection = segments.length % 2 == 1;
+    for (int i = 2; i < segments.length; i += 2) {
+      RelationshipType relationshipType = entityDictionary.getRelationshipType(type, segments[i]);
+      if (relationshipType == null || relationshipType == RelationshipType.NONE) {
+        break;
+      }
+      type = entityDictionary.getParameterizedType(type, segments[i]);
+      collection = segments.length == i + 1 && relationshipType.isToMany();
+    }
+
+    long rootRows = collection ? getPageSize(requestParams) : 1;
+    long costPerRootRow = 1 + getIncludeCost(type, requestParams.get(INCLUDE));
+
+    return new QueryCost(rootType, rootRows, costPerRootRow, collection);
+  }
+
+  private long getIncludeCost(Type<?> rootType, String include) {
+    if (include == null || include.isBlank()) {
+      return 0;
+    }
+
+    // Elide loads every prefix of an include path, and shared prefixes only once
+    Set<String> includePaths = new LinkedHashSet<>();
+    for (String path : include.split(",")) {
+      String[] relationships = path.trim().split("\\.");
+      for (int i = 1; i <= relationships.length; i++) {
+        includePaths.add(String.join(".", Arrays.copyOfRange(relationships, 0, i)));
+      }
+    }
+
+    long cost = 0;
+    for (String includePath : includePaths) {
+      cost += getPathCardinality(rootType, includePath.split("\\."));
+    }
+    return cost;
+  }
+
+  private long getPathCardinality(Type<?> rootType, String[] relationships) {
+    long cardinality = 1;
+    Type<?> type = rootType;
+    for (String relationship : relationships) {
+      RelationshipType relationshipType = entityDictionary.getRelationshipType(type, relationship);
+      if (relationshipType == null || relationshipType == RelationshipType.NONE) {
+        // Invalid include paths are rejected by Elide anyway
+        break;
+      }
+      if (relationshipType.isToMany()) {
+        String hintKey = entityDictionary.getJsonAliasFor(type) + "." + relationship;
+        cardinality *= properties.getCardinalityHints().getOrDefault(hintKey, properties.getDefaultToManyCardinality());
+      }
+      type = entityDictionary.getParameterizedType(type, relationship);
+    }
+    return cardinality;
+  }
+
+  private long getPageSize(Map<String, String> requestParams) {
+    String pageSize = requestParams.getOrDefault(PAGE_SIZE, requestParams.get(PAGE_LIMIT));
+    if (pageSize == null) {
+      return properties.getDefaultPageSize();
+    }
+    try {
+      return Math.max(1, Long.parseLong(pageSize.trim()));
+    } catch (NumberFormatException e) {
+      // Elide will report an invalid page size
+      return properties.getDefaultPageSize();
+    }
+  }
+
+  record QueryCost(String rootType, long rootRows, long costPerRootRow, boolean paginated) {
+    long total() {
+      return rootRows * costPerRootRow;
+    }
+  }
+}
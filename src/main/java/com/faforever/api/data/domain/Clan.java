@@ -17,7 +17,6 @@ import org.hibernate.annotations.BatchSize;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -42,7 +41,6 @@ import java.util.Set;
 @NoArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @IsLeaderInClan
-@EntityListeners(ClanEnricherListener.class)
 public class Clan implements DefaultEntity, OwnableEntity {
 
   public static final String TYPE_NAME = "clan";
@@ -87,10 +85,6 @@ public class Clan implements DefaultEntity, OwnableEntity {
   @Column(name = "tag_color")
   private String tagColor;
 
-  @Transient
-  @ComputedAttribute
-  private String websiteUrl;
-
   // Cascading is needed for Create & Delete
   @OneToMany(mappedBy = "clan", cascade = CascadeType.ALL, orphanRemoval = true)
   // Permission is managed by ClanMembership class
@@ -107,4 +101,10 @@ public class Clan implements DefaultEntity, OwnableEntity {
   public Login getEntityOwner() {
     return getLeader();
   }
+
+  @Transient
+  @ComputedAttribute
+  public String getWebsiteUrl() {
+    return ClanEnricherListener.getWebsiteUrl(id);
+  }
 }
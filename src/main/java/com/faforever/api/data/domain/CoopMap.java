@@ -10,7 +10,6 @@ import lombok.Setter;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.Id;
@@ -21,7 +20,6 @@ import static com.faforever.api.data.domain.CoopMap.TYPE_NAME;
 
 @Entity
 @Table(name = "coop_map")
-@EntityListeners(CoopMapEnricher.class)
 @Include(name = TYPE_NAME)
 @Data
 @NoArgsConstructor
@@ -50,22 +48,29 @@ public class CoopMap {
   @Exclude
   private String filename;
 
-  // Set by CoopMapEnhancer
   @Transient
   @ComputedAttribute
-  private String downloadUrl;
+  public String getDownloadUrl() {
+    return CoopMapEnricher.getDownloadUrl(filename);
+  }
 
   @Transient
   @ComputedAttribute
-  private String thumbnailUrlLarge;
+  public String getThumbnailUrlLarge() {
+    return CoopMapEnricher.getThumbnailUrlLarge(filename);
+  }
 
   @Transient
   @ComputedAttribute
-  private String thumbnailUrlSmall;
+  public String getThumbnailUrlSmall() {
+    return CoopMapEnricher.getThumbnailUrlSmall(filename);
+  }
 
   @Transient
   @ComputedAttribute
-  private String folderName;
+  public String getFolderName() {
+    return CoopMapEnricher.getFolderName(filename);
+  }
 
   private enum MissionType {
     FA, AEON, CYBRAN, UEF, CUSTOM
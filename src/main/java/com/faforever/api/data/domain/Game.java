@@ -90,10 +90,6 @@ public class Game {
   @BatchSize(size = 1000)
   private Set<GamePlayerStats> playerStats;
 
-  @Transient
-  @ComputedAttribute
-  private String replayUrl;
-
   @OneToMany(mappedBy = "game")
   @UpdatePermission(expression = Prefab.ALL)
   @BatchSize(size = 1000)
@@ -108,6 +104,12 @@ public class Game {
   @Column(name = "replay_available")
   private Boolean replayAvailable;
 
+  @Transient
+  @ComputedAttribute
+  public String getReplayUrl() {
+    return GameEnricher.getReplayUrl(id);
+  }
+
   /**
    * This ManyToOne relationship leads to a double left outer join through Elide causing an additional full table
    * scan on the matchmaker_queue table. Even though it has only 3 records, it causes MySql 5.7 and MySQL to run
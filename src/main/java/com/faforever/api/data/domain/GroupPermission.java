@@ -1,5 +1,6 @@
 package com.faforever.api.data.domain;
 
+import com.faforever.api.data.listeners.UserGroupChangeListener;
 import com.faforever.api.security.elide.permission.ReadUserGroupCheck;
 import com.yahoo.elide.annotation.Include;
 import com.yahoo.elide.annotation.ReadPermission;
@@ -11,6 +12,7 @@ import org.springframework.security.core.GrantedAuthority;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
@@ -35,6 +37,7 @@ import java.util.Set;
  * For read and write permissions of data personally owned by user see {@link OwnableEntity}
  */
 @Entity
+@EntityListeners(UserGroupChangeListener.class)
 @Table(name = "group_permission")
 @Include(name = "groupPermission")
 @Data
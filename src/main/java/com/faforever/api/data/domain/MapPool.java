@@ -8,6 +8,8 @@ import com.yahoo.elide.annotation.UpdatePermission;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -36,6 +38,8 @@ import java.util.Set;
 @DeletePermission(expression = WriteMatchmakerMapCheck.EXPRESSION)
 public class MapPool implements DefaultEntity {
 
+  public static final String MAP_POOL_ASSIGNMENTS_CACHE_REGION = "mapPool.mapPoolAssignments";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   @Column(name = "id")
@@ -67,5 +71,6 @@ public class MapPool implements DefaultEntity {
   private Set<MapVersion> mapVersions;
 
   @OneToMany(mappedBy = "mapPool", cascade = CascadeType.ALL, orphanRemoval = true)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = MapPool.MAP_POOL_ASSIGNMENTS_CACHE_REGION)
   private Set<MapPoolAssignment> mapPoolAssignments;
 }
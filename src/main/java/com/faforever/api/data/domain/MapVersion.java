@@ -86,10 +86,6 @@ public class MapVersion implements DefaultEntity, OwnableEntity {
   @ToString.Include
   private String filename;
 
-  @Transient
-  @ComputedAttribute
-  private String folderName;
-
   @UpdatePermission(expression = AdminMapCheck.EXPRESSION + " or (" + IsEntityOwner.EXPRESSION + " and " + BooleanChange.TO_FALSE_EXPRESSION + ")")
   @Audit(action = Action.UPDATE, logStatement = "Updated map version `{0}` attribute ranked to: {1}", logExpressions = {"${mapVersion.id}", "${mapVersion.ranked}"})
   @Column(name = "ranked")
@@ -109,18 +105,6 @@ public class MapVersion implements DefaultEntity, OwnableEntity {
   @OneToOne(mappedBy = "mapVersion", fetch = FetchType.EAGER)
   private MapVersionStatistics statistics;
 
-  @Transient
-  @ComputedAttribute
-  private String thumbnailUrlSmall;
-
-  @Transient
-  @ComputedAttribute
-  private String thumbnailUrlLarge;
-
-  @Transient
-  @ComputedAttribute
-  private String downloadUrl;
-
   @Column(name = "games_played")
   @NotNull
   private Integer gamesPlayed;
@@ -138,4 +122,28 @@ public class MapVersion implements DefaultEntity, OwnableEntity {
   public Login getEntityOwner() {
     return map.getEntityOwner();
   }
+
+  @Transient
+  @ComputedAttribute
+  public String getFolderName() {
+    return MapVersionEnricher.getFolderName(filename);
+  }
+
+  @Transient
+  @ComputedAttribute
+  public String getThumbnailUrlSmall() {
+    return MapVersionEnricher.getThumbnailUrlSmall(filename);
+  }
+
+  @Transient
+  @ComputedAttribute
+  public String getThumbnailUrlLarge() {
+    return MapVersionEnricher.getThumbnailUrlLarge(filename);
+  }
+
+  @Transient
+  @ComputedAttribute
+  public String getDownloadUrl() {
+    return MapVersionEnricher.getDownloadUrl(filename);
+  }
 }
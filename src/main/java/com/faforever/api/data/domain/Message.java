@@ -14,7 +14,10 @@ import com.yahoo.elide.annotation.UpdatePermission;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
@@ -24,6 +27,8 @@ import javax.persistence.Id;
 import javax.persistence.Table;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Message.TYPE_NAME)
 @Table(name = "messages")
 @Data
 @NoArgsConstructor
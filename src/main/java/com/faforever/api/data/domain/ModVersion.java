@@ -15,7 +15,6 @@ import lombok.NoArgsConstructor;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
@@ -37,7 +36,6 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-@EntityListeners(ModVersionEnricher.class)
 public class ModVersion implements DefaultEntity, OwnableEntity {
 
   public static final String TYPE_NAME = "modVersion";
@@ -92,14 +90,6 @@ public class ModVersion implements DefaultEntity, OwnableEntity {
   @JoinColumn(name = "mod_id")
   private Mod mod;
 
-  @Transient
-  @ComputedAttribute
-  private String thumbnailUrl;
-
-  @Transient
-  @ComputedAttribute
-  private String downloadUrl;
-
   @OneToMany(mappedBy = "modVersion")
   @UpdatePermission(expression = Prefab.ALL)
   private List<ModVersionReview> reviews;
@@ -113,4 +103,16 @@ public class ModVersion implements DefaultEntity, OwnableEntity {
   public Login getEntityOwner() {
     return mod.getEntityOwner();
   }
+
+  @Transient
+  @ComputedAttribute
+  public String getThumbnailUrl() {
+    return ModVersionEnricher.getThumbnailUrl(filename);
+  }
+
+  @Transient
+  @ComputedAttribute
+  public String getDownloadUrl() {
+    return ModVersionEnricher.getDownloadUrl(filename);
+  }
 }
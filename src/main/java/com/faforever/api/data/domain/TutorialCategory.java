@@ -16,7 +16,10 @@ import com.yahoo.elide.annotation.UpdatePermission;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -31,6 +34,8 @@ import javax.validation.constraints.NotNull;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = TutorialCategory.TYPE_NAME)
 @Table(name = "tutorial_category")
 @Data
 @NoArgsConstructor
@@ -2,6 +2,7 @@ package com.faforever.api.data.domain;
 
 
 import com.faforever.api.data.checks.UserGroupPublicCheck;
+import com.faforever.api.data.listeners.UserGroupChangeListener;
 import com.faforever.api.security.elide.permission.WriteUserGroupCheck;
 import com.yahoo.elide.annotation.CreatePermission;
 import com.yahoo.elide.annotation.Include;
@@ -14,6 +15,7 @@ import lombok.NoArgsConstructor;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
@@ -29,6 +31,7 @@ import java.time.OffsetDateTime;
 import java.util.Set;
 
 @Entity
+@EntityListeners(UserGroupChangeListener.class)
 @Table(name = "user_group")
 @Include(name = "userGroup")
 @UpdatePermission(expression = WriteUserGroupCheck.EXPRESSION)
@@ -18,6 +18,7 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Formula;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -85,6 +86,15 @@ public class VotingChoice implements DefaultEntity {
   @ComputedAttribute
   private Integer numberOfAnswers;
 
+  /**
+   * Counted by the database when the choice is loaded, so that the answers don't need to be loaded. Only exposed as
+   * {@link #numberOfAnswers} if the winner is revealed.
+   */
+  @JsonIgnore
+  @Exclude
+  @Formula("(SELECT COUNT(*) FROM voting_answer a WHERE a.voting_choice_id = id)")
+  private int answerCount;
+
   @Column(name = "ordinal")
   @NotNull
   private Integer ordinal;
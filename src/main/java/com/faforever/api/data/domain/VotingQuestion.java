@@ -17,6 +17,7 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Formula;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -68,7 +69,10 @@ public class VotingQuestion implements DefaultEntity {
   @Column(name = "update_time")
   private OffsetDateTime updateTime;
 
-  @Transient
+  /**
+   * Counted by the database when the question is loaded, so that the answers don't need to be loaded.
+   */
+  @Formula("(SELECT COUNT(*) FROM voting_answer a JOIN voting_choice c ON c.id = a.voting_choice_id WHERE c.voting_question_id = id)")
   @ComputedAttribute
   private Integer numberOfAnswers;
 
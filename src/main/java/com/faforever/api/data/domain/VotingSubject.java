@@ -19,6 +19,7 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Formula;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
@@ -75,7 +76,10 @@ public class VotingSubject implements DefaultEntity {
   @Transient
   private String subject;
 
-  @Transient
+  /**
+   * Counted by the database when the subject is loaded, so that the votes don't need to be loaded.
+   */
+  @Formula("(SELECT COUNT(*) FROM vote v WHERE v.voting_subject_id = id)")
   @ComputedAttribute
   private int numberOfVotes;
 
@@ -1,12 +1,14 @@
 package com.faforever.api.data.listeners;
 
 import com.faforever.api.config.FafApiProperties;
-import com.faforever.api.data.domain.Clan;
+import com.faforever.api.utils.UrlTemplate;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import javax.persistence.PostLoad;
 
+/**
+ * Computes the website URL of clans when it is accessed.
+ */
 @Component
 public class ClanEnricherListener {
 
@@ -17,8 +19,10 @@ public class ClanEnricherListener {
     ClanEnricherListener.fafApiProperties = fafApiProperties;
   }
 
-  @PostLoad
-  public void enrich(Clan clan) {
-    clan.setWebsiteUrl(String.format(fafApiProperties.getClan().getWebsiteUrlFormat(), clan.getId()));
+  public static String getWebsiteUrl(Integer clanId) {
+    if (clanId == null) {
+      return null;
+    }
+    return UrlTemplate.of(fafApiProperties.getClan().getWebsiteUrlFormat()).expand(clanId);
   }
 }
@@ -1,12 +1,14 @@
 package com.faforever.api.data.listeners;
 
 import com.faforever.api.config.FafApiProperties;
-import com.faforever.api.data.domain.CoopMap;
+import com.faforever.api.utils.UrlTemplate;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import javax.persistence.PostLoad;
 
+/**
+ * Computes the attributes of coop maps that are derived from their file name, when they are accessed.
+ */
 @Component
 public class CoopMapEnricher {
 
@@ -17,12 +19,31 @@ public class CoopMapEnricher {
     CoopMapEnricher.fafApiProperties = fafApiProperties;
   }
 
-  @PostLoad
-  public void enhance(CoopMap coopMap) {
-    String filename = coopMap.getFilename();
-    coopMap.setFolderName(filename.substring(filename.indexOf('/') + 1, filename.indexOf(".zip")));
-    coopMap.setDownloadUrl(String.format(fafApiProperties.getMap().getDownloadUrlFormat(), filename.replace("maps/", "")));
-    coopMap.setThumbnailUrlSmall(String.format(fafApiProperties.getMap().getSmallPreviewsUrlFormat(), filename.replace("maps/", "").replace(".zip", ".png")));
-    coopMap.setThumbnailUrlLarge(String.format(fafApiProperties.getMap().getLargePreviewsUrlFormat(), filename.replace("maps/", "").replace(".zip", ".png")));
+  public static String getFolderName(String filename) {
+    if (filename == null) {
+      return null;
+    }
+    return filename.substring(filename.indexOf('/') + 1, filename.indexOf(".zip"));
+  }
+
+  public static String getDownloadUrl(String filename) {
+    if (filename == null) {
+      return null;
+    }
+    return UrlTemplate.of(fafApiProperties.getMap().getDownloadUrlFormat()).expand(filename.replace("maps/", ""));
+  }
+
+  public static String getThumbnailUrlSmall(String filename) {
+    if (filename == null) {
+      return null;
+    }
+    return UrlTemplate.of(fafApiProperties.getMap().getSmallPreviewsUrlFormat()).expand(filename.replace("maps/", "").replace(".zip", ".png"));
+  }
+
+  public static String getThumbnailUrlLarge(String filename) {
+    if (filename == null) {
+      return null;
+    }
+    return UrlTemplate.of(fafApiProperties.getMap().getLargePreviewsUrlFormat()).expand(filename.replace("maps/", "").replace(".zip", ".png"));
   }
 }
@@ -20,7 +20,16 @@ public class GameEnricher {
 
   @PostLoad
   public void enrich(Game game) {
-    game.setReplayUrl(gameService.getReplayDownloadUrl(game.getId()));
     game.setName(StringEscapeUtils.unescapeHtml4(game.getName()));
   }
+
+  /**
+   * Computed when accessed, since games are mostly loaded for their statistics.
+   */
+  public static String getReplayUrl(int gameId) {
+    if (gameId <= 0) {
+      return null;
+    }
+    return gameService.getReplayDownloadUrl(gameId);
+  }
 }
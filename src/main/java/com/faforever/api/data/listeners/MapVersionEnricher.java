@@ -3,15 +3,19 @@ package com.faforever.api.data.listeners;
 import com.faforever.api.config.FafApiProperties;
 import com.faforever.api.data.domain.Map;
 import com.faforever.api.data.domain.MapVersion;
+import com.faforever.api.utils.UrlTemplate;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import javax.persistence.PostLoad;
 import javax.persistence.PostRemove;
 import javax.persistence.PostUpdate;
 
+/**
+ * Computes the attributes of map versions that are derived from their file name. They are only computed when they are
+ * accessed, since most loaded map versions are never serialized or only with a few of their attributes.
+ */
 @Component
 @Slf4j
 public class MapVersionEnricher {
@@ -23,13 +27,32 @@ public class MapVersionEnricher {
     MapVersionEnricher.apiProperties = apiProperties;
   }
 
-  @PostLoad
-  public void enhance(MapVersion mapVersion) {
-    String filename = mapVersion.getFilename();
-    mapVersion.setDownloadUrl(String.format(apiProperties.getMap().getDownloadUrlFormat(), filename.replace("maps/", "")));
-    mapVersion.setThumbnailUrlLarge(String.format(apiProperties.getMap().getLargePreviewsUrlFormat(), filename.replace("maps/", "").replace(".zip", ".png")));
-    mapVersion.setThumbnailUrlSmall(String.format(apiProperties.getMap().getSmallPreviewsUrlFormat(), filename.replace("maps/", "").replace(".zip", ".png")));
-    mapVersion.setFolderName(filename.substring(filename.indexOf('/') + 1, filename.indexOf(".zip")));
+  public static String getDownloadUrl(String filename) {
+    if (filename == null) {
+      return null;
+    }
+    return UrlTemplate.of(apiProperties.getMap().getDownloadUrlFormat()).expand(filename.replace("maps/", ""));
+  }
+
+  public static String getThumbnailUrlLarge(String filename) {
+    if (filename == null) {
+      return null;
+    }
+    return UrlTemplate.of(apiProperties.getMap().getLargePreviewsUrlFormat()).expand(filename.replace("maps/", "").replace(".zip", ".png"));
+  }
+
+  public static String getThumbnailUrlSmall(String filename) {
+    if (filename == null) {
+      return null;
+    }
+    return UrlTemplate.of(apiProperties.getMap().getSmallPreviewsUrlFormat()).expand(filename.replace("maps/", "").replace(".zip", ".png"));
+  }
+
+  public static String getFolderName(String filename) {
+    if (filename == null) {
+      return null;
+    }
+    return filename.substring(filename.indexOf('/') + 1, filename.indexOf(".zip"));
   }
 
   @CacheEvict(allEntries = true, cacheNames = {Map.TYPE_NAME, MapVersion.TYPE_NAME})
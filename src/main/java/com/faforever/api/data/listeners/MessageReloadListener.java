@@ -21,12 +21,20 @@ public class MessageReloadListener {
   }
 
   @PostPersist
-  @PostRemove
   @PostUpdate
-  public void reload(Message message) {
+  public void update(Message message) {
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+      public void afterCommit() {
+        repositoryMessageSource.update(message);
+      }
+    });
+  }
+
+  @PostRemove
+  public void remove(Message message) {
     TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
       public void afterCommit() {
-        repositoryMessageSource.afterPropertiesSet();
+        repositoryMessageSource.remove(message);
       }
     });
   }
@@ -1,14 +1,16 @@
 package com.faforever.api.data.listeners;
 
 import com.faforever.api.config.FafApiProperties;
-import com.faforever.api.data.domain.ModVersion;
+import com.faforever.api.utils.UrlTemplate;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
-import javax.persistence.PostLoad;
 
 import static com.faforever.api.mod.ModService.MOD_PATH_PREFIX;
 
+/**
+ * Computes the attributes of mod versions that are derived from their file name, when they are accessed.
+ */
 @Component
 public class ModVersionEnricher {
 
@@ -19,16 +21,19 @@ public class ModVersionEnricher {
     ModVersionEnricher.apiProperties = apiProperties;
   }
 
-  @PostLoad
-  public void enhance(ModVersion modVersion) {
-    String filename = modVersion.getFilename();
-    modVersion.setThumbnailUrl(String.format(
-        apiProperties.getMod().getPreviewUrlFormat(),
-        filename.replace(MOD_PATH_PREFIX, "").replace(".zip", ".png")
-    ));
-    modVersion.setDownloadUrl(String.format(
-        apiProperties.getMod().getDownloadUrlFormat(),
-        filename.replace(MOD_PATH_PREFIX, "")
-    ));
+  public static String getThumbnailUrl(String filename) {
+    if (filename == null) {
+      return null;
+    }
+    return UrlTemplate.of(apiProperties.getMod().getPreviewUrlFormat())
+      .expand(filename.replace(MOD_PATH_PREFIX, "").replace(".zip", ".png"));
+  }
+
+  public static String getDownloadUrl(String filename) {
+    if (filename == null) {
+      return null;
+    }
+    return UrlTemplate.of(apiProperties.getMod().getDownloadUrlFormat())
+      .expand(filename.replace(MOD_PATH_PREFIX, ""));
   }
 }
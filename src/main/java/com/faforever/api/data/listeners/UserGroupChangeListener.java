@@ -0,0 +1,36 @@
+package com.faforever.api.data.listeners;
+
+import com.faforever.api.security.GroupPermissionResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.inject.Inject;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+@Component
+public class UserGroupChangeListener {
+  private static GroupPermissionResolver groupPermissionResolver;
+
+  @Inject
+  public void init(GroupPermissionResolver groupPermissionResolver) {
+    UserGroupChangeListener.groupPermissionResolver = groupPermissionResolver;
+  }
+
+  @PostPersist
+  @PostRemove
+  @PostUpdate
+  public void userGroupChanged(Object userGroupOrPermission) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      groupPermissionResolver.invalidate();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+      public void afterCommit() {
+        groupPermissionResolver.invalidate();
+      }
+    });
+  }
+}
@@ -1,9 +1,10 @@
 package com.faforever.api.data.listeners;
 
-import com.faforever.api.data.domain.VotingAnswer;
 import com.faforever.api.data.domain.VotingChoice;
 import com.faforever.api.data.domain.VotingQuestion;
 import com.faforever.api.data.domain.VotingSubject;
+import com.faforever.api.voting.VotingAnswerRepository;
+import com.faforever.api.voting.VotingPreference;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import org.springframework.context.support.MessageSourceAccessor;
@@ -14,25 +15,24 @@ import javax.persistence.PostLoad;
 import javax.persistence.PreUpdate;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.OptionalInt;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-
-import static java.util.stream.Collectors.toList;
+import java.util.stream.IntStream;
 
 @Component
 public class VotingSubjectEnricher {
-  private static MessageSourceAccessor messageSourceAccessor;
+  /** Marks a preference for a choice that is not part of the question's choices. */
+  private static final int UNKNOWN_CHOICE = -2;
 
+  private static MessageSourceAccessor messageSourceAccessor;
+  private static VotingAnswerRepository votingAnswerRepository;
 
   @Inject
-  public void init(MessageSourceAccessor messageSourceAccessor) {
+  public void init(MessageSourceAccessor messageSourceAccessor, VotingAnswerRepository votingAnswerRepository) {
     VotingSubjectEnricher.messageSourceAccessor = messageSourceAccessor;
+    VotingSubjectEnricher.votingAnswerRepository = votingAnswerRepository;
   }
 
   @PreUpdate
@@ -46,7 +46,6 @@ public class VotingSubjectEnricher {
 
   @PostLoad
   public void enhance(VotingSubject votingSubject) {
-    votingSubject.setNumberOfVotes(votingSubject.getVotes().size());
     votingSubject.setSubject(messageSourceAccessor.getMessage(votingSubject.getSubjectKey()));
     String descriptionKey = votingSubject.getDescriptionKey();
     if (!Strings.isNullOrEmpty(descriptionKey)) {
@@ -67,73 +66,127 @@ public class VotingSubjectEnricher {
   }
 
   private List<VotingChoice> getWinners(VotingQuestion votingQuestion) {
-    if (!votingQuestion.getAlternativeQuestion()) {
-      OptionalInt max = votingQuestion.getVotingChoices().stream()
-        .mapToInt(value -> value.getVotingAnswers().size()).max();
-      if (max.isPresent()) {
-        return votingQuestion.getVotingChoices().stream()
-          .filter(votingChoice -> votingChoice.getVotingAnswers().size() == max.getAsInt()).collect(toList());
-      }
+    if (votingQuestion.getVotingChoices() == null) {
       return List.of();
     }
+    List<VotingChoice> choices = List.copyOf(votingQuestion.getVotingChoices());
 
-    //All the answers sorted by their choice, but only those that are the 1st choice
-    Map<VotingChoice, List<VotingAnswer>> votersByChoice = votingQuestion.getVotingChoices().stream()
-      .collect(Collectors.toMap(
-        Function.identity(),
-        choice -> new ArrayList<>(choice.getVotingAnswers().stream()
-          .filter(votingAnswer -> votingAnswer.getAlternativeOrdinal() == 0)
-          .collect(toList()))
-      ));
-
-    while (votersByChoice.size() > 1) {
-      OptionalInt min = votersByChoice.values().stream().mapToInt(List::size).min();
-      List<VotingChoice> candidatesToEliminate = votersByChoice.entrySet().stream()
-        .filter(votingChoiceListEntry -> votingChoiceListEntry.getValue().size() == min.getAsInt())
-        .map(Entry::getKey)
-        .collect(toList());
-
-      if (candidatesToEliminate.size() == votersByChoice.size()) {
+    if (!votingQuestion.getAlternativeQuestion()) {
+      int[] tallies = choices.stream()
+        .mapToInt(VotingChoice::getAnswerCount)
+        .toArray();
+      int max = IntStream.of(tallies).max().orElse(0);
+      return IntStream.range(0, choices.size())
+        .filter(choice -> tallies[choice] == max)
+        .mapToObj(choices::get)
+        .toList();
+    }
+
+    Map<Integer, Integer> choiceIndicesById = new HashMap<>();
+    for (int i = 0; i < choices.size(); i++) {
+      choiceIndicesById.put(choices.get(i).getId(), i);
+    }
+    List<int[]> ballots = toBallots(votingAnswerRepository.findPreferencesByQuestionId(votingQuestion.getId()), choiceIndicesById);
+
+    int[] tallies = new int[choices.size()];
+    // The position of the choice on each ballot the ballot currently counts for, or -1 if it is exhausted
+    int[] positions = new int[ballots.size()];
+    for (int[] ballot : ballots) {
+      tallies[ballot[0]]++;
+    }
+
+    boolean[] eliminated = new boolean[choices.size()];
+    int remaining = choices.size();
+    while (remaining > 1) {
+      int min = Integer.MAX_VALUE;
+      for (int choice = 0; choice < choices.size(); choice++) {
+        if (!eliminated[choice]) {
+          min = Math.min(min, tallies[choice]);
+        }
+      }
+
+      List<Integer> candidatesToEliminate = new ArrayList<>();
+      for (int choice = 0; choice < choices.size(); choice++) {
+        if (!eliminated[choice] && tallies[choice] == min) {
+          candidatesToEliminate.add(choice);
+        }
+      }
+      if (candidatesToEliminate.size() == remaining) {
         //We got a problem here, we would eliminate all the candidates if we went on normally
-        return candidatesToEliminate;
+        return candidatesToEliminate.stream().map(choices::get).toList();
       }
 
-      candidatesToEliminate.forEach(candidate -> {
-        List<VotingAnswer> votingAnswersForCandidate = votersByChoice.get(candidate);
-        //Lets distribute the answers of the candidate that is eliminated
-        votingAnswersForCandidate.forEach(votingAnswer -> {
-          moveOnToTheNextAnswer(votersByChoice, votingAnswer);
-        });
+      candidatesToEliminate.forEach(candidate -> eliminated[candidate] = true);
+      remaining -= candidatesToEliminate.size();
 
-        votersByChoice.remove(candidate);
-      });
+      //Lets distribute the ballots of the candidates that are eliminated
+      for (int i = 0; i < ballots.size(); i++) {
+        int[] ballot = ballots.get(i);
+        if (positions[i] < 0 || !eliminated[ballot[positions[i]]]) {
+          continue;
+        }
+        positions[i] = nextPosition(ballot, positions[i], eliminated);
+        if (positions[i] >= 0) {
+          tallies[ballot[positions[i]]]++;
+        }
+      }
     }
-    Optional<Entry<VotingChoice, List<VotingAnswer>>> first = votersByChoice.entrySet().stream().findFirst();
 
-    return first.map(votingChoiceListEntry -> List.of(votingChoiceListEntry.getKey())).orElse(List.of());
+    for (int choice = 0; choice < choices.size(); choice++) {
+      if (!eliminated[choice]) {
+        return List.of(choices.get(choice));
+      }
+    }
+    return List.of();
   }
 
-  private void moveOnToTheNextAnswer(Map<VotingChoice, List<VotingAnswer>> votersByChoice, VotingAnswer votingAnswer) {
-    int newAlternativeOrdinal = votingAnswer.getAlternativeOrdinal() + 1;
-    votingAnswer.getVote().getVotingAnswers().stream()
-      .filter(votingAnswerFilter ->
-        votingAnswerFilter.getVotingChoice() != null &&
-          Objects.equals(votingAnswerFilter.getVotingChoice().getVotingQuestion(), votingAnswer.getVotingChoice().getVotingQuestion())
-          && votingAnswerFilter.getAlternativeOrdinal() == newAlternativeOrdinal)
-      .findFirst()
-      .ifPresent(newVotingAnswer -> {
-        VotingChoice votingChoiceToBeRedistributed = newVotingAnswer.getVotingChoice();
-        List<VotingAnswer> votingAnswersOfNewChoice = votersByChoice.get(votingChoiceToBeRedistributed);
-        if (votingAnswersOfNewChoice == null) {
-          /*
-          We eliminated two choices/candidates at once and this is the second one.
-          Apparently one voter voted the candidate we eliminated before as the next answer.
-          So we need to skip this answer and go straight to the next one.
-           */
-          moveOnToTheNextAnswer(votersByChoice, newVotingAnswer);
-          return;
-        }
-        votingAnswersOfNewChoice.add(newVotingAnswer);
-      });
+  /**
+   * Builds one ballot per vote that has a 1st choice in the question, from preferences ordered by vote and ordinal.
+   * Each ballot contains the choice indices of the vote, ordered by their alternative ordinal, and ends at the first
+   * missing ordinal. Choices that don't belong to the question's choices are marked as {@link #UNKNOWN_CHOICE}, so
+   * that they are skipped like eliminated ones.
+   */
+  private static List<int[]> toBallots(List<VotingPreference> preferences, Map<Integer, Integer> choiceIndicesById) {
+    List<int[]> ballots = new ArrayList<>();
+    int[] ballot = new int[0];
+    int length = 0;
+    Integer voteId = null;
+    for (VotingPreference preference : preferences) {
+      if (voteId == null || preference.voteId() != voteId) {
+        addBallot(ballots, ballot, length);
+        voteId = preference.voteId();
+        ballot = new int[4];
+        length = 0;
+      }
+      // Duplicate ordinals are ignored, a gap ends the ballot
+      if (preference.alternativeOrdinal() != length) {
+        continue;
+      }
+      if (length == ballot.length) {
+        ballot = Arrays.copyOf(ballot, length * 2);
+      }
+      ballot[length++] = choiceIndicesById.getOrDefault(preference.choiceId(), UNKNOWN_CHOICE);
+    }
+    addBallot(ballots, ballot, length);
+    return ballots;
+  }
+
+  private static void addBallot(List<int[]> ballots, int[] ballot, int length) {
+    if (length > 0 && ballot[0] != UNKNOWN_CHOICE) {
+      ballots.add(Arrays.copyOf(ballot, length));
+    }
+  }
+
+  /**
+   * Returns the position of the next choice on the ballot that has not been eliminated, or -1 if there is none.
+   */
+  private static int nextPosition(int[] ballot, int position, boolean[] eliminated) {
+    for (int next = position + 1; next < ballot.length; next++) {
+      int choice = ballot[next];
+      if (choice != UNKNOWN_CHOICE && !eliminated[choice]) {
+        return next;
+      }
+    }
+    return -1;
   }
 }
@@ -0,0 +1,75 @@
+package com.faforever.api.deployment;
+
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.utils.FilePermissionUtil;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import static java.nio.file.Files.createDirectories;
+
+/**
+ * Stores deployed files by their hash and links them into the legacy directory layout, so that identical files of
+ * different versions share the same bytes on disk and an already stored file doesn't have to be written again. Files
+ * are hard linked if possible and symlinked otherwise. The store needs to be on the same file system as the deployed
+ * files since files are moved into it atomically.
+ */
+@Slf4j
+@Component
+public class ContentAddressedFileStore {
+
+  private final FafApiProperties apiProperties;
+
+  public ContentAddressedFileStore(FafApiProperties apiProperties) {
+    this.apiProperties = apiProperties;
+  }
+
+  public boolean isEnabled() {
+    return apiProperties.getDeployment().getContentStoreDirectory() != null;
+  }
+
+  /**
+   * Moves the specified file into the store, unless the store already contains a file with the same hash, and then
+   * atomically replaces the target file with a link to the stored file.
+   *
+   * @param file the complete file to store, which no longer exists afterwards
+   * @param hash the hex encoded hash of the file's content
+   */
+  @SneakyThrows
+  public void store(Path file, String hash, Path target) {
+    Path storedFile = Paths.get(apiProperties.getDeployment().getContentStoreDirectory())
+      .resolve(hash.substring(0, 2))
+      .resolve(hash);
+    createDirectories(storedFile.getParent(), FilePermissionUtil.directoryPermissionFileAttributes());
+
+    if (Files.exists(storedFile)) {
+      log.trace("Content of '{}' is already stored as '{}'", file, storedFile);
+      Files.delete(file);
+    } else {
+      try {
+        Files.move(file, storedFile, StandardCopyOption.ATOMIC_MOVE);
+      } catch (FileAlreadyExistsException e) {
+        Files.delete(file);
+      }
+    }
+
+    Path link = target.resolveSibling(target.getFileName() + ".link");
+    Files.deleteIfExists(link);
+    try {
+      Files.createLink(link, storedFile);
+    } catch (UnsupportedOperationException | FileSystemException e) {
+      log.debug("Could not hard link '{}', creating a symbolic link instead", storedFile, e);
+      Files.createSymbolicLink(link, storedFile.toAbsolutePath());
+    }
+
+    log.trace("Linking '{}' to '{}'", target, storedFile);
+    Files.move(link, target, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
@@ -0,0 +1,84 @@
+package com.faforever.api.deployment;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A deployment of a featured mod that has been submitted to the {@link DeploymentScheduler}, including the time
+ * spent in each phase reported by the deployment.
+ */
+@Getter
+public class DeploymentJob {
+
+  public enum State {
+    QUEUED, RUNNING, SUCCEEDED, FAILED, SUPERSEDED
+  }
+
+  private final long id;
+  private final String modName;
+  private final String description;
+  private final Instant queuedAt = Instant.now();
+  private volatile Instant startedAt;
+  private volatile Instant finishedAt;
+  private volatile State state = State.QUEUED;
+  private volatile String currentPhase;
+
+  @Getter(AccessLevel.NONE)
+  private final Map<String, Duration> phaseDurations = new LinkedHashMap<>();
+  @Getter(AccessLevel.NONE)
+  private Instant currentPhaseStartedAt;
+
+  DeploymentJob(long id, String modName, String description) {
+    this.id = id;
+    this.modName = modName;
+    this.description = description;
+  }
+
+  /**
+   * Ends the current phase, if any, and starts the specified one.
+   */
+  public synchronized void enterPhase(String phase) {
+    Instant now = Instant.now();
+    endCurrentPhase(now);
+    currentPhase = phase;
+    currentPhaseStartedAt = now;
+  }
+
+  /**
+   * Returns the milliseconds spent in each phase, in the order the phases were entered. The current phase is
+   * included with the time it has been running so far.
+   */
+  public synchronized Map<String, Long> getPhaseMillis() {
+    Map<String, Long> result = new LinkedHashMap<>();
+    phaseDurations.forEach((phase, duration) -> result.put(phase, duration.toMillis()));
+    if (currentPhase != null) {
+      result.merge(currentPhase, Duration.between(currentPhaseStartedAt, Instant.now()).toMillis(), Long::sum);
+    }
+    return result;
+  }
+
+  synchronized void start() {
+    startedAt = Instant.now();
+    state = State.RUNNING;
+  }
+
+  synchronized void finish(State finalState) {
+    finishedAt = Instant.now();
+    endCurrentPhase(finishedAt);
+    state = finalState;
+  }
+
+  private void endCurrentPhase(Instant now) {
+    if (currentPhase == null) {
+      return;
+    }
+    phaseDurations.merge(currentPhase, Duration.between(currentPhaseStartedAt, now), Duration::plus);
+    currentPhase = null;
+    currentPhaseStartedAt = null;
+  }
+}
@@ -0,0 +1,163 @@
+package com.faforever.api.deployment;
+
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.deployment.DeploymentJob.State;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs featured mod deployments on a dedicated thread pool. Deployments of the same repository are executed one
+ * after another, since they share the repository clone and the staging files. While a deployment is running, only
+ * the newest deployment of each featured mod is kept in the queue; older ones are superseded without being run.
+ */
+@Component
+@Slf4j
+public class DeploymentScheduler implements DisposableBean {
+
+  private static final int MAX_FINISHED_JOBS = 50;
+
+  private final Executor executor;
+  private final Map<String, RepositoryQueue> queuesByRepositoryUrl = new HashMap<>();
+  private final Deque<DeploymentJob> finishedJobs = new ArrayDeque<>();
+  private long nextJobId = 1;
+
+  @Inject
+  public DeploymentScheduler(FafApiProperties properties) {
+    this(createExecutor(properties.getDeployment().getMaxConcurrentDeployments()));
+  }
+
+  DeploymentScheduler(Executor executor) {
+    this.executor = executor;
+  }
+
+  private static ExecutorService createExecutor(int threads) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    return Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "deployment-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Queues a deployment of the specified featured mod.
+   *
+   * @param repositoryUrl the Git repository the mod is deployed from; deployments of the same repository never run
+   * concurrently
+   * @param work performs the deployment and reports its phases to the passed job
+   * @param onSuperseded called if the deployment is replaced by a newer one of the same mod before it started
+   */
+  public DeploymentJob submit(String repositoryUrl, String modName, String description,
+                              Consumer<DeploymentJob> work, Runnable onSuperseded) {
+    QueuedJob superseded;
+    DeploymentJob job;
+    synchronized (this) {
+      QueuedJob queuedJob = new QueuedJob(new DeploymentJob(nextJobId++, modName, description), work, onSuperseded);
+      job = queuedJob.job();
+      RepositoryQueue queue = queuesByRepositoryUrl.computeIfAbsent(repositoryUrl, url -> new RepositoryQueue());
+
+      if (queue.running == null) {
+        queue.running = job;
+        execute(repositoryUrl, queuedJob);
+        return job;
+      }
+
+      // Re-inserting moves the mod to the end of the queue, behind all mods that have been waiting longer
+      superseded = queue.pendingByModName.remove(modName);
+      queue.pendingByModName.put(modName, queuedJob);
+      if (superseded == null) {
+        return job;
+      }
+      superseded.job().finish(State.SUPERSEDED);
+      addFinished(superseded.job());
+    }
+
+    log.info("Deployment '{}' has been superseded by '{}'", superseded.job().getDescription(), description);
+    try {
+      superseded.onSuperseded().run();
+    } catch (RuntimeException e) {
+      log.warn("Could not notify about superseded deployment '{}'", superseded.job().getDescription(), e);
+    }
+    return job;
+  }
+
+  /**
+   * Returns all running and queued jobs followed by the most recently finished ones, newest first.
+   */
+  public synchronized List<DeploymentJob> getJobs() {
+    List<DeploymentJob> jobs = new ArrayList<>();
+    queuesByRepositoryUrl.values().forEach(queue -> {
+      jobs.add(queue.running);
+      queue.pendingByModName.values().forEach(queuedJob -> jobs.add(queuedJob.job()));
+    });
+    jobs.addAll(finishedJobs);
+    return jobs;
+  }
+
+  private void execute(String repositoryUrl, QueuedJob queuedJob) {
+    executor.execute(() -> {
+      DeploymentJob job = queuedJob.job();
+      job.start();
+      try {
+        queuedJob.work().accept(job);
+        job.finish(State.SUCCEEDED);
+      } catch (Exception e) {
+        log.error("Deployment '{}' failed", job.getDescription(), e);
+        job.finish(State.FAILED);
+      } finally {
+        onFinished(repositoryUrl, job);
+      }
+    });
+  }
+
+  private synchronized void onFinished(String repositoryUrl, DeploymentJob job) {
+    addFinished(job);
+
+    RepositoryQueue queue = queuesByRepositoryUrl.get(repositoryUrl);
+    if (queue.pendingByModName.isEmpty()) {
+      queuesByRepositoryUrl.remove(repositoryUrl);
+      return;
+    }
+    String nextModName = queue.pendingByModName.keySet().iterator().next();
+    QueuedJob next = queue.pendingByModName.remove(nextModName);
+    queue.running = next.job();
+    execute(repositoryUrl, next);
+  }
+
+  private void addFinished(DeploymentJob job) {
+    finishedJobs.addFirst(job);
+    if (finishedJobs.size() > MAX_FINISHED_JOBS) {
+      finishedJobs.removeLast();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    if (executor instanceof ExecutorService executorService) {
+      executorService.shutdownNow();
+    }
+  }
+
+  private record QueuedJob(DeploymentJob job, Consumer<DeploymentJob> work, Runnable onSuperseded) {
+  }
+
+  private static class RepositoryQueue {
+    private DeploymentJob running;
+    private final LinkedHashMap<String, QueuedJob> pendingByModName = new LinkedHashMap<>();
+  }
+}
@@ -0,0 +1,29 @@
+package com.faforever.api.deployment;
+
+import com.faforever.api.security.OAuthScope;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(path = "/deployments")
+public class DeploymentsController {
+
+  private final DeploymentScheduler deploymentScheduler;
+
+  public DeploymentsController(DeploymentScheduler deploymentScheduler) {
+    this.deploymentScheduler = deploymentScheduler;
+  }
+
+  @ApiOperation("Lists running, queued and recently finished featured mod deployments, including their phase timings")
+  @RequestMapping(method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+  @PreAuthorize("#oauth2.hasScope('" + OAuthScope._ADMINISTRATIVE_ACTION + "') and hasRole('ROLE_ADMINISTRATOR')")
+  public List<DeploymentJob> getDeployments() {
+    return deploymentScheduler.getJobs();
+  }
+}
@@ -10,12 +10,12 @@ import org.kohsuke.github.GHDeploymentState;
 import org.kohsuke.github.GHEventPayload.Deployment;
 import org.kohsuke.github.GHEventPayload.Push;
 import org.kohsuke.github.GHRepository;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.context.ApplicationContext;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.transaction.Transactional;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,12 +27,17 @@ public class GitHubDeploymentService {
   private final ApplicationContext applicationContext;
   private final FafApiProperties fafApiProperties;
   private final FeaturedModService featuredModService;
+  private final DeploymentScheduler deploymentScheduler;
+  private final TransactionTemplate transactionTemplate;
 
   public GitHubDeploymentService(ApplicationContext applicationContext, FafApiProperties fafApiProperties,
-                                 FeaturedModService featuredModService) {
+                                 FeaturedModService featuredModService, DeploymentScheduler deploymentScheduler,
+                                 PlatformTransactionManager transactionManager) {
     this.applicationContext = applicationContext;
     this.fafApiProperties = fafApiProperties;
     this.featuredModService = featuredModService;
+    this.deploymentScheduler = deploymentScheduler;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
   }
 
   @SneakyThrows
@@ -58,10 +63,9 @@ public class GitHubDeploymentService {
     log.info("Created deployment: {}", ghDeployment);
   }
 
-  @Async
-  @SneakyThrows
-  @Transactional
-  @CacheEvict(value = FeaturedMod.TYPE_NAME, allEntries = true)
+  /**
+   * Queues the deployment with the {@link DeploymentScheduler}, which runs it in a new transaction.
+   */
   public void deploy(Deployment deployment) {
     GHDeployment ghDeployment = deployment.getDeployment();
     String environment = ghDeployment.getEnvironment();
@@ -73,24 +77,35 @@ public class GitHubDeploymentService {
 
     GHRepository repository = deployment.getRepository();
     long deploymentId = ghDeployment.getId();
+    String modName = ghDeployment.getPayload();
 
-    try {
-      performDeployment(ghDeployment, repository, deploymentId);
-    } catch (Exception e) {
-      log.error("Deployment failed", e);
-      updateDeploymentStatus(deploymentId, repository, GHDeploymentState.FAILURE, e.getMessage());
+    Optional<FeaturedMod> featuredMod = featuredModService.findModByTechnicalName(modName);
+    if (featuredMod.isEmpty()) {
+      log.error("Deployment failed, no such mod: {}", modName);
+      updateDeploymentStatus(deploymentId, repository, GHDeploymentState.FAILURE, "No such mod: " + modName);
+      return;
     }
-  }
 
-  private void performDeployment(GHDeployment ghDeployment, GHRepository repository, long deploymentId) {
-    String modName = ghDeployment.getPayload();
-    FeaturedMod featuredMod = featuredModService.findModByTechnicalName(modName)
-      .orElseThrow(() -> new IllegalArgumentException("No such mod: " + modName));
+    deploymentScheduler.submit(featuredMod.get().getGitUrl(), modName, "GitHub deployment " + deploymentId + " of " + modName,
+      job -> performDeployment(featuredMod.get(), job, repository, deploymentId),
+      () -> updateDeploymentStatus(deploymentId, repository, GHDeploymentState.INACTIVE, "Superseded by a newer deployment"));
+  }
 
-    applicationContext.getBean(LegacyFeaturedModDeploymentTask.class)
-      .setStatusDescriptionListener(statusText -> updateDeploymentStatus(deploymentId, repository, GHDeploymentState.PENDING, statusText))
-      .setFeaturedMod(featuredMod)
-      .run();
+  private void performDeployment(FeaturedMod featuredMod, DeploymentJob job, GHRepository repository, long deploymentId) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> applicationContext.getBean(LegacyFeaturedModDeploymentTask.class)
+        .setStatusDescriptionListener(statusText -> {
+          job.enterPhase(statusText);
+          updateDeploymentStatus(deploymentId, repository, GHDeploymentState.PENDING, statusText);
+        })
+        .setFeaturedMod(featuredMod)
+        .run());
+    } catch (RuntimeException e) {
+      // Checked exceptions thrown by the task are wrapped by the transaction template
+      Throwable cause = e instanceof UndeclaredThrowableException ? e.getCause() : e;
+      updateDeploymentStatus(deploymentId, repository, GHDeploymentState.FAILURE, cause.getMessage());
+      throw e;
+    }
 
     updateDeploymentStatus(deploymentId, repository, GHDeploymentState.SUCCESS, "Successfully deployed");
   }
@@ -9,6 +9,9 @@ import com.faforever.api.featuredmods.FeaturedModService;
 import com.faforever.api.utils.FilePermissionUtil;
 import com.faforever.commons.fa.ForgedAllianceExePatcher;
 import com.faforever.commons.mod.ModReader;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.hash.HashingOutputStream;
 import com.google.common.io.ByteStreams;
 import lombok.Setter;
 import lombok.SneakyThrows;
@@ -16,7 +19,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.io.FilenameUtils;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
@@ -26,9 +31,12 @@ import org.springframework.web.client.RestTemplate;
 import javax.transaction.Transactional;
 import javax.transaction.Transactional.TxType;
 import javax.validation.ValidationException;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -44,9 +52,21 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
 
 import static com.github.nocatch.NoCatch.noCatch;
 import static com.google.common.hash.Hashing.md5;
@@ -69,6 +89,7 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
   private final FeaturedModService featuredModService;
   private final FafApiProperties apiProperties;
   private final RestTemplate restTemplate;
+  private final ContentAddressedFileStore contentAddressedFileStore;
 
   @Setter
   private FeaturedMod featuredMod;
@@ -76,16 +97,19 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
   @Setter
   private Consumer<String> statusDescriptionListener;
 
-  public LegacyFeaturedModDeploymentTask(GitWrapper gitWrapper, FeaturedModService featuredModService, FafApiProperties apiProperties, RestTemplate restTemplate) {
+  public LegacyFeaturedModDeploymentTask(GitWrapper gitWrapper, FeaturedModService featuredModService, FafApiProperties apiProperties,
+                                          RestTemplate restTemplate, ContentAddressedFileStore contentAddressedFileStore) {
     this.gitWrapper = gitWrapper;
     this.featuredModService = featuredModService;
     this.apiProperties = apiProperties;
     this.restTemplate = restTemplate;
+    this.contentAddressedFileStore = contentAddressedFileStore;
   }
 
   @Override
   @SneakyThrows
   @Transactional(TxType.MANDATORY)
+  @CacheEvict(value = FeaturedMod.TYPE_NAME, allEntries = true)
   public void run() {
     Assert.state(featuredMod != null, "Configuration must be set");
     String modName = featuredMod.getTechnicalName();
@@ -103,14 +127,17 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
       modName, repositoryUrl, branch, allowOverride, modFilesExtension);
 
     Path repositoryDirectory = buildRepositoryDirectoryPath(repositoryUrl);
-    checkoutCode(repositoryDirectory, repositoryUrl, branch);
+    String commitId = checkoutCode(repositoryDirectory, repositoryUrl, branch);
 
     short version = readModVersion(repositoryDirectory);
     verifyVersion(version, allowOverride, modName);
 
+    Path lastDeploymentFile = repositoryDirectory.resolveSibling(repositoryDirectory.getFileName() + "." + modName + ".deployment");
+    ReusableFiles reusableFiles = findReusableFiles(repositoryDirectory, commitId, lastDeploymentFile, modName);
+
     Deployment deployment = apiProperties.getDeployment();
     Path targetFolder = Paths.get(deployment.getFeaturedModsTargetDirectory(), String.format(deployment.getFilesDirectoryFormat(), modName));
-    List<StagedFile> files = packageFiles(repositoryDirectory, version, fileIds, targetFolder);
+    List<StagedFile> files = packageFiles(repositoryDirectory, version, fileIds, targetFolder, reusableFiles);
 
     if ("faf".equals(modName)) {
       createPatchedExe(version, fileIds, targetFolder).ifPresent(files::add);
@@ -123,6 +150,7 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
     files.forEach(this::finalizeFile);
 
     updateDatabase(files, version, modName);
+    writeLastDeployment(lastDeploymentFile, new LastDeployment(commitId, version));
     invokeDeploymentWebhook(featuredMod);
 
     log.info("Deployment of '{}' version '{}' was successful", modName, version);
@@ -163,7 +191,7 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
 
     ForgedAllianceExePatcher.patchVersion(tmpFile, version);
 
-    return Optional.of(new StagedFile(fileId, tmpFile, targetFile, clientFileName));
+    return Optional.of(new StagedFile(fileId, tmpFile, targetFile, clientFileName, hash(tmpFile.toFile(), md5()).toString()));
   }
 
   private short readModVersion(Path modPath) {
@@ -185,11 +213,83 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
     }
   }
 
+  /**
+   * Determines which files of the last deployment can be reused because the directory or file they were created from
+   * didn't change since. Since archives are created deterministically, repackaging them would yield the same bytes.
+   */
+  private ReusableFiles findReusableFiles(Path repositoryDirectory, String commitId, Path lastDeploymentFile, String modName) throws IOException {
+    Optional<LastDeployment> lastDeployment = readLastDeployment(lastDeploymentFile);
+    if (lastDeployment.isEmpty()) {
+      return ReusableFiles.NONE;
+    }
+
+    Optional<Set<String>> changedPaths = gitWrapper.getChangedTopLevelPaths(repositoryDirectory, lastDeployment.get().commitId(), commitId);
+    if (changedPaths.isEmpty()) {
+      return ReusableFiles.NONE;
+    }
+
+    Set<String> unchangedPaths;
+    try (Stream<Path> stream = Files.list(repositoryDirectory)) {
+      unchangedPaths = stream
+        .map(path -> path.getFileName().toString())
+        .filter(name -> !changedPaths.get().contains(name))
+        .collect(Collectors.toSet());
+    }
+
+    // Every deployment saves a row for each of its files, so the rows of the last version describe all of them
+    int lastVersion = lastDeployment.get().version();
+    Map<Short, FeaturedModFile> filesById = featuredModService.getFiles(modName, lastVersion).stream()
+      .filter(file -> file.getVersion() == lastVersion)
+      .collect(Collectors.toMap(FeaturedModFile::getFileId, Function.identity()));
+
+    log.debug("Reusing files of version '{}' for unchanged paths: {}", lastVersion, unchangedPaths);
+    return new ReusableFiles(unchangedPaths, filesById);
+  }
+
+  /**
+   * Returns the already deployed file with the specified ID, if it is still available.
+   */
+  private Optional<StagedFile> reuseFile(Map<Short, FeaturedModFile> reusableFiles, short fileId, Path targetFolder, String clientFileName) {
+    FeaturedModFile previousFile = reusableFiles.get(fileId);
+    if (previousFile == null) {
+      return Optional.empty();
+    }
+
+    Path previousTargetFile = targetFolder.resolve(previousFile.getOriginalFileName());
+    if (Files.notExists(previousTargetFile)) {
+      return Optional.empty();
+    }
+
+    log.trace("Reusing '{}'", previousTargetFile);
+    return Optional.of(new StagedFile(fileId, null, previousTargetFile, clientFileName, previousFile.getMd5()));
+  }
+
+  private Optional<LastDeployment> readLastDeployment(Path lastDeploymentFile) throws IOException {
+    if (Files.notExists(lastDeploymentFile)) {
+      return Optional.empty();
+    }
+
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(lastDeploymentFile)) {
+      properties.load(reader);
+    }
+    return Optional.of(new LastDeployment(properties.getProperty("commitId"), Short.parseShort(properties.getProperty("version"))));
+  }
+
+  private void writeLastDeployment(Path lastDeploymentFile, LastDeployment lastDeployment) throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty("commitId", lastDeployment.commitId());
+    properties.setProperty("version", String.valueOf(lastDeployment.version()));
+    try (Writer writer = Files.newBufferedWriter(lastDeploymentFile)) {
+      properties.store(writer, null);
+    }
+  }
+
   private void updateDatabase(List<StagedFile> files, short version, String modName) {
     updateStatus("Updating database");
     List<FeaturedModFile> featuredModFiles = files.stream()
       .map(file -> new FeaturedModFile()
-        .setMd5(noCatch(() -> hash(file.targetFile().toFile(), md5())).toString())
+        .setMd5(file.md5())
         .setFileId(file.fileId())
         .setName(file.targetFile().getFileName().toString())
         .setVersion(version)
@@ -210,35 +310,63 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
    * @return the list of deployed files
    */
   @SneakyThrows
-  @SuppressWarnings("unchecked")
-  private List<StagedFile> packageFiles(Path repositoryDirectory, short version, Map<String, Short> fileIds, Path targetFolder) {
+  private List<StagedFile> packageFiles(Path repositoryDirectory, short version, Map<String, Short> fileIds, Path targetFolder, ReusableFiles reusableFiles) {
     updateStatus("Packaging files");
+    List<Path> paths;
     try (Stream<Path> stream = Files.list(repositoryDirectory)) {
-      return stream
-        .flatMap(path -> {
-          if (Files.isDirectory(path) && !path.getFileName().toString().startsWith(".")) {
-            return packDirectory(path, version, targetFolder, fileIds).stream();
-          } else if (Files.isRegularFile(path)) {
-            return packFile(path, version, targetFolder, fileIds).stream();
-          } else{
-            return Stream.empty();
-          }
-        })
-        .collect(Collectors.toCollection(ArrayList::new));
+      paths = stream.toList();
+    }
+
+    // Directories are packaged in parallel since compressing them is CPU bound
+    ExecutorService executorService = Executors.newFixedThreadPool(apiProperties.getDeployment().getPackagingThreads());
+    try {
+      List<Future<Optional<StagedFile>>> futures = new ArrayList<>();
+      for (Path path : paths) {
+        Map<Short, FeaturedModFile> reusable = reusableFiles.unchangedPaths().contains(path.getFileName().toString())
+          ? reusableFiles.filesById()
+          : Map.of();
+
+        if (Files.isDirectory(path) && !path.getFileName().toString().startsWith(".")) {
+          futures.add(executorService.submit(() -> packDirectory(path, version, targetFolder, fileIds, reusable)));
+        } else if (Files.isRegularFile(path)) {
+          futures.add(executorService.submit(() -> packFile(path, version, targetFolder, fileIds, reusable)));
+        }
+      }
+
+      List<StagedFile> files = new ArrayList<>();
+      for (Future<Optional<StagedFile>> future : futures) {
+        try {
+          future.get().ifPresent(files::add);
+        } catch (ExecutionException e) {
+          throw e.getCause();
+        }
+      }
+      return files;
+    } finally {
+      executorService.shutdownNow();
     }
   }
 
   /**
    * Renames the temporary file to the target file so the file is only available under its final name when it is
-   * complete, and makes the file readable for everyone.
+   * complete, and makes the file readable for everyone. If the content addressed store is enabled, the file is moved
+   * into the store instead and the target file becomes a link to it.
    */
   private StagedFile finalizeFile(StagedFile file) {
+    if (file.tmpFile() == null) {
+      return file;
+    }
     Path source = file.tmpFile();
     Path target = file.targetFile();
 
     log.trace("Setting default file permission of '{}'", source);
     FilePermissionUtil.setDefaultFilePermission(source);
 
+    if (contentAddressedFileStore.isEnabled()) {
+      contentAddressedFileStore.store(source, file.md5(), target);
+      return file;
+    }
+
     log.trace("Renaming '{}' to '{}'", source, target);
     noCatch(() -> Files.move(source, target, StandardCopyOption.ATOMIC_MOVE));
     return file;
@@ -249,7 +377,7 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
    * content of the directory. If no file ID is available, an empty optional is returned.
    */
   @SneakyThrows
-  private Optional<StagedFile> packDirectory(Path directory, Short version, Path targetFolder, Map<String, Short> fileIds) {
+  private Optional<StagedFile> packDirectory(Path directory, Short version, Path targetFolder, Map<String, Short> fileIds, Map<Short, FeaturedModFile> reusableFiles) {
     String directoryName = directory.getFileName().toString();
     Path targetNxtFile = targetFolder.resolve(String.format("%s.%d.%s", directoryName, version, featuredMod.getFileExtension()));
     Path tmpNxtFile = toTmpFile(targetNxtFile);
@@ -262,13 +390,22 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
       return Optional.empty();
     }
 
+    Optional<StagedFile> reusedFile = reuseFile(reusableFiles, fileId, targetFolder, clientFileName);
+    if (reusedFile.isPresent()) {
+      return reusedFile;
+    }
+
     log.trace("Packaging '{}' to '{}'", directory, targetFolder);
 
     createDirectories(targetFolder, FilePermissionUtil.directoryPermissionFileAttributes());
-    try (ZipArchiveOutputStream outputStream = new ZipArchiveOutputStream(tmpNxtFile.toFile())) {
-      zipDirectory(directory, outputStream);
+    Path compressedEntryFile = tmpNxtFile.resolveSibling(tmpNxtFile.getFileName() + ".entry");
+    HashingOutputStream hashingOutputStream = new HashingOutputStream(md5(), new BufferedOutputStream(Files.newOutputStream(tmpNxtFile)));
+    try (ZipArchiveOutputStream outputStream = new ZipArchiveOutputStream(hashingOutputStream)) {
+      zipDirectory(directory, outputStream, compressedEntryFile);
+    } finally {
+      Files.deleteIfExists(compressedEntryFile);
     }
-    return Optional.of(new StagedFile(fileId, tmpNxtFile, targetNxtFile, clientFileName));
+    return Optional.of(new StagedFile(fileId, tmpNxtFile, targetNxtFile, clientFileName, hashingOutputStream.hash().toString()));
   }
 
   /**
@@ -276,7 +413,7 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
    * content of the directory. If no file ID is available, an empty optional is returned.
    */
   @SneakyThrows
-  private Optional<StagedFile> packFile(Path file, Short version, Path targetFolder, Map<String, Short> fileIds) {
+  private Optional<StagedFile> packFile(Path file, Short version, Path targetFolder, Map<String, Short> fileIds, Map<Short, FeaturedModFile> reusableFiles) {
     String fullFileName = file.getFileName().toString();
     String baseName = FilenameUtils.getBaseName(fullFileName);
     String extension = FilenameUtils.getExtension(fullFileName);
@@ -289,22 +426,38 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
       return Optional.empty();
     }
 
+    Optional<StagedFile> reusedFile = reuseFile(reusableFiles, fileId, targetFolder, fullFileName);
+    if (reusedFile.isPresent()) {
+      return reusedFile;
+    }
+
     log.trace("Copying '{}' to '{}'", file, targetFolder);
 
     createDirectories(targetFolder, FilePermissionUtil.directoryPermissionFileAttributes());
-    Files.copy(file, tmpFile, StandardCopyOption.REPLACE_EXISTING);
-    return Optional.of(new StagedFile(fileId, tmpFile, targetFile, fullFileName));
+    HashCode md5;
+    try (HashingInputStream inputStream = new HashingInputStream(md5(), Files.newInputStream(file))) {
+      Files.copy(inputStream, tmpFile, StandardCopyOption.REPLACE_EXISTING);
+      md5 = inputStream.hash();
+    }
+    return Optional.of(new StagedFile(fileId, tmpFile, targetFile, fullFileName, md5.toString()));
   }
 
-  private void checkoutCode(Path repositoryDirectory, String repoUrl, String branch) throws IOException {
+  /**
+   * @return the ID of the checked out commit
+   */
+  private String checkoutCode(Path repositoryDirectory, String repoUrl, String branch) throws IOException {
     if (Files.notExists(repositoryDirectory)) {
+      updateStatus("Cloning repository");
       createDirectories(repositoryDirectory.getParent(), FilePermissionUtil.directoryPermissionFileAttributes());
-      gitWrapper.clone(repoUrl, repositoryDirectory);
+      gitWrapper.clone(repoUrl, repositoryDirectory, branch);
     } else {
-      gitWrapper.fetch(repositoryDirectory);
+      updateStatus("Fetching repository");
+      gitWrapper.fetch(repositoryDirectory, branch);
     }
-    updateStatus("Updating repository");
-    gitWrapper.checkoutRef(repositoryDirectory, "refs/remotes/origin/" + branch);
+    updateStatus("Checking out branch");
+    String ref = "refs/remotes/origin/" + branch;
+    gitWrapper.checkoutRef(repositoryDirectory, ref);
+    return gitWrapper.getCommitId(repositoryDirectory, ref);
   }
 
   private Path buildRepositoryDirectoryPath(String repoUrl) {
@@ -318,18 +471,24 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
 
   /**
    * Since Java's ZIP implementation uses data descriptors, which FA doesn't implement and therefore cant' read, this
-   * implementation uses Apache's commons compress which doesn't use data descriptors as long as the target is a file or
-   * a seekable byte channel.
+   * implementation uses Apache's commons compress. Its output stream only omits data descriptors if it can seek back
+   * to the local file header, or if CRC and sizes of an entry are known up front. The latter is the case here because
+   * every file is compressed into {@code compressedEntryFile} before it's added as a raw entry, which allows the archive
+   * to be written to a plain (hashing) stream. Staging entries on disk rather than in memory keeps the heap usage
+   * independent of the file sizes, even if many directories are packaged concurrently.
    */
-  private void zipDirectory(Path directoryToZip, ZipArchiveOutputStream outputStream) throws IOException {
+  private void zipDirectory(Path directoryToZip, ZipArchiveOutputStream outputStream, Path compressedEntryFile) throws IOException {
     Files.walkFileTree(directoryToZip, new SimpleFileVisitor<>() {
       public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
         String relativized = directoryToZip.getParent().relativize(dir).toString();
         if (!relativized.isEmpty()) {
           ZipArchiveEntry zipArchiveEntry = new ZipArchiveEntry(relativized + "/");
           zipArchiveEntry.setLastModifiedTime(FileTime.from(Instant.EPOCH));
-          outputStream.putArchiveEntry(zipArchiveEntry);
-          outputStream.closeArchiveEntry();
+          zipArchiveEntry.setMethod(ZipEntry.STORED);
+          zipArchiveEntry.setSize(0);
+          zipArchiveEntry.setCompressedSize(0);
+          zipArchiveEntry.setCrc(0);
+          outputStream.addRawArchiveEntry(zipArchiveEntry, InputStream.nullInputStream());
         }
 
         return FileVisitResult.CONTINUE;
@@ -338,16 +497,25 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
       public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
         log.trace("Zipping file {}", file.toAbsolutePath());
         ZipArchiveEntry zipArchiveEntry = new ZipArchiveEntry(
-          file.toFile(),
           directoryToZip.getParent().relativize(file).toString().replace(File.separatorChar, '/'));
         zipArchiveEntry.setLastModifiedTime(FileTime.from(Instant.EPOCH));
 
-        outputStream.putArchiveEntry(zipArchiveEntry);
+        CRC32 crc = new CRC32();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try (InputStream inputStream = new CheckedInputStream(Files.newInputStream(file), crc);
+             DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(
+               new BufferedOutputStream(Files.newOutputStream(compressedEntryFile)), deflater)) {
+          zipArchiveEntry.setSize(ByteStreams.copy(inputStream, deflaterOutputStream));
+        } finally {
+          deflater.end();
+        }
 
-        try (InputStream inputStream = Files.newInputStream(file)) {
-          ByteStreams.copy(inputStream, outputStream);
+        zipArchiveEntry.setMethod(ZipEntry.DEFLATED);
+        zipArchiveEntry.setCompressedSize(Files.size(compressedEntryFile));
+        zipArchiveEntry.setCrc(crc.getValue());
+        try (InputStream compressed = Files.newInputStream(compressedEntryFile)) {
+          outputStream.addRawArchiveEntry(zipArchiveEntry, compressed);
         }
-        outputStream.closeArchiveEntry();
         return FileVisitResult.CONTINUE;
       }
     });
@@ -363,9 +531,10 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
      */
     short fileId,
     /**
-     * The staged file, already in the correct location, that is ready to be renamed.
+     * The staged file, already in the correct location, that is ready to be renamed. {@code null} if an already
+     * deployed file is reused.
      */
-    Path tmpFile,
+    @Nullable Path tmpFile,
     /**
      * The final file name and location.
      */
@@ -373,7 +542,24 @@ public class LegacyFeaturedModDeploymentTask implements Runnable {
     /**
      * Name of the file as the client will know it.
      */
-    String clientFileName
+    String clientFileName,
+    /**
+     * MD5 hash of the staged file, computed while it was written.
+     */
+    String md5
   ) {
   }
+
+  /**
+   * The commit and version of the last successful deployment of a featured mod.
+   */
+  private record LastDeployment(String commitId, short version) {
+  }
+
+  /**
+   * Files of the last deployment that can be reused, by file ID, and the top-level paths they may be reused for.
+   */
+  private record ReusableFiles(Set<String> unchangedPaths, Map<Short, FeaturedModFile> filesById) {
+    static final ReusableFiles NONE = new ReusableFiles(Set.of(), Map.of());
+  }
 }
@@ -2,12 +2,33 @@ package com.faforever.api.deployment.git;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
 
 public interface GitWrapper {
 
-  void clone(String repositoryUri, Path targetDirectory);
+  /**
+   * Clones only the specified branch, without checking it out.
+   */
+  void clone(String repositoryUri, Path targetDirectory, String branch);
 
-  void fetch(Path repoDirectory) throws IOException;
+  /**
+   * Fetches only the specified branch into {@code refs/remotes/origin/<branch>}. Objects that are already available
+   * locally, for instance because another branch of the same repository has been deployed before, are not
+   * transferred again.
+   */
+  void fetch(Path repoDirectory, String branch) throws IOException;
 
   void checkoutRef(Path repoDirectory, String ref);
+
+  /**
+   * Returns the ID of the commit the specified ref points to.
+   */
+  String getCommitId(Path repoDirectory, String ref);
+
+  /**
+   * Returns the names of all top-level files and directories whose content differs between the two commits, or an
+   * empty optional if the old commit is not available.
+   */
+  Optional<Set<String>> getChangedTopLevelPaths(Path repoDirectory, String oldCommitId, String newCommitId);
 }
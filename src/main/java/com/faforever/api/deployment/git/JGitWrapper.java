@@ -1,14 +1,32 @@
 package com.faforever.api.deployment.git;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.errors.IncorrectObjectTypeException;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
 
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import static com.github.nocatch.NoCatch.noCatch;
 import static org.eclipse.jgit.api.Git.cloneRepository;
 import static org.eclipse.jgit.api.Git.open;
 
@@ -17,32 +35,100 @@ import static org.eclipse.jgit.api.Git.open;
 @Slf4j
 public class JGitWrapper implements GitWrapper {
 
-  public void clone(String repositoryUri, Path targetDirectory) {
-    log.debug("Cloning '{}' to '{}'", repositoryUri, targetDirectory);
-    noCatch(() -> cloneRepository()
+  private final MeterRegistry meterRegistry;
+
+  public JGitWrapper(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  @SneakyThrows
+  public void clone(String repositoryUri, Path targetDirectory, String branch) {
+    log.debug("Cloning branch '{}' of '{}' to '{}'", branch, repositoryUri, targetDirectory);
+    timer("clone").recordCallable(() -> {
+      // The branch is checked out explicitly afterwards, and other branches are fetched on demand
+      try (Git git = cloneRepository()
         .setURI(repositoryUri)
         .setDirectory(targetDirectory.toFile())
-        .call());
+        .setBranchesToClone(List.of(Constants.R_HEADS + branch))
+        .setBranch(Constants.R_HEADS + branch)
+        .setNoCheckout(true)
+        .call()) {
+        return git.getRepository().getDirectory();
+      }
+    });
   }
 
   @Override
   @SneakyThrows
-  public void fetch(Path repoDirectory) {
-    log.debug("Fetching remote of '{}'", repoDirectory);
-    try (Git git = open(repoDirectory.toFile())) {
-      git.fetch().call();
-    }
+  public void fetch(Path repoDirectory, String branch) {
+    log.debug("Fetching branch '{}' of '{}'", branch, repoDirectory);
+    timer("fetch").recordCallable(() -> {
+      try (Git git = open(repoDirectory.toFile())) {
+        return git.fetch()
+          .setRefSpecs(new RefSpec("+" + Constants.R_HEADS + branch + ":" + Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + branch))
+          .setTagOpt(TagOpt.NO_TAGS)
+          .call();
+      }
+    });
   }
 
   @Override
   @SneakyThrows
   public void checkoutRef(Path repoDirectory, String ref) {
     log.debug("Checking out '{}' in '{}'", ref, repoDirectory);
-    try (Git git = open(repoDirectory.toFile())) {
-      git.checkout()
+    timer("checkout").recordCallable(() -> {
+      try (Git git = open(repoDirectory.toFile())) {
+        return git.checkout()
           .setForce(true)
           .setName(ref)
           .call();
+      }
+    });
+  }
+
+  @Override
+  @SneakyThrows
+  public String getCommitId(Path repoDirectory, String ref) {
+    try (Git git = open(repoDirectory.toFile())) {
+      ObjectId commitId = git.getRepository().resolve(ref + "^{commit}");
+      Assert.state(commitId != null, "Could not resolve ref: " + ref);
+      return commitId.name();
     }
   }
+
+  @Override
+  @SneakyThrows
+  public Optional<Set<String>> getChangedTopLevelPaths(Path repoDirectory, String oldCommitId, String newCommitId) {
+    log.debug("Diffing '{}' against '{}' in '{}'", newCommitId, oldCommitId, repoDirectory);
+    Timer.Sample sample = Timer.start(meterRegistry);
+    try (Git git = open(repoDirectory.toFile());
+         RevWalk revWalk = new RevWalk(git.getRepository());
+         DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+      RevTree oldTree;
+      try {
+        oldTree = revWalk.parseCommit(ObjectId.fromString(oldCommitId)).getTree();
+      } catch (MissingObjectException | IncorrectObjectTypeException e) {
+        log.debug("Commit '{}' is not available in '{}'", oldCommitId, repoDirectory);
+        return Optional.empty();
+      }
+      RevTree newTree = revWalk.parseCommit(ObjectId.fromString(newCommitId)).getTree();
+
+      diffFormatter.setRepository(git.getRepository());
+      return Optional.of(diffFormatter.scan(oldTree, newTree).stream()
+        .flatMap(diffEntry -> Stream.of(diffEntry.getOldPath(), diffEntry.getNewPath()))
+        .filter(path -> !DiffEntry.DEV_NULL.equals(path))
+        .map(path -> path.split("/", 2)[0])
+        .collect(Collectors.toSet()));
+    } finally {
+      sample.stop(timer("diff"));
+    }
+  }
+
+  private Timer timer(String phase) {
+    return Timer.builder("faf.api.deployment.git")
+      .description("Time spent in Git operations of featured mod deployments")
+      .tag("phase", phase)
+      .register(meterRegistry);
+  }
 }
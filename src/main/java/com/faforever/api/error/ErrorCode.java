@@ -101,7 +101,16 @@ public enum ErrorCode {
   INVALID_FEATURED_MOD(191, "Invalid featured mod name", "The featured mod name ''{0}'' is not allowed in this context."),
   API_KEY_INVALID(192, "Api key is invalid", "The api key is invalid."),
   UNKNOWN_STEAM_ID(193, "Unable to resolve steam id", "The Steam ID ''{0}'' does not match any account."),
-  RECAPTCHA_VALIDATION_FAILED(194, "Recaptcha validation failed", "The response code from the recaptcha did not pass the verification.");
+  RECAPTCHA_VALIDATION_FAILED(194, "Recaptcha validation failed", "The response code from the recaptcha did not pass the verification."),
+  RATE_LIMIT_EXCEEDED(195, "Too many requests", "You have sent too many requests. Please try again later."),
+  QUERY_COST_EXCEEDED(196, "Query too expensive", "The estimated cost of this request ({0, number}) exceeds the allowed maximum of {1, number}. Please reduce the page size or the number of included relationships."),
+  MOD_ZIP_ENTRY_INVALID(197, "Invalid zip entry", "The zip entry ''{0}'' would be extracted outside of the mod folder."),
+  MOD_ZIP_TOO_LARGE(198, "Mod too large", "The uncompressed content of the zip file must not exceed {0, number} bytes."),
+  MOD_ZIP_COMPRESSION_RATIO_TOO_HIGH(199, "Suspicious compression ratio", "The content of the zip file must not be compressed with a ratio of more than {0, number}:1."),
+  MOD_INFO_MISSING(200, "Missing mod_info.lua", "The zip file must contain a file named mod_info.lua."),
+  MAP_UPLOAD_QUEUE_FULL(201, "Too many uploads", "Too many maps are being processed right now. Please try again later."),
+  LUA_SANDBOX_UNAVAILABLE(202, "Too many requests", "Too many Lua files are being parsed right now. Please try again later."),
+  MOD_ZIP_ENTRY_SIZE_INVALID(203, "Invalid zip entry", "The size of the zip entry ''{0}'' is unknown or doesn't match its content.");
 
 
   private final int code;
@@ -14,7 +14,6 @@ import org.springframework.web.multipart.support.MissingServletRequestPartExcept
 
 import javax.validation.ConstraintViolationException;
 import javax.validation.ValidationException;
-import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.concurrent.CompletionException;
 
@@ -67,6 +66,14 @@ class GlobalControllerExceptionHandler {
     return createResponseFromApiException(ex, HttpStatus.NOT_FOUND);
   }
 
+  @ExceptionHandler(ServiceUnavailableApiException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  @ResponseBody
+  public ErrorResponse processServiceUnavailableException(ServiceUnavailableApiException ex) {
+    log.debug("Service unavailable", ex);
+    return createResponseFromApiException(ex, HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
   @ExceptionHandler(ApiException.class)
   @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
   @ResponseBody
@@ -144,17 +151,7 @@ class GlobalControllerExceptionHandler {
 
   private ErrorResponse createResponseFromApiException(ApiException apiException, HttpStatus status) {
     ErrorResponse response = new ErrorResponse();
-    Arrays.stream(apiException.getErrors()).forEach(error -> {
-      ErrorCode errorCode = error.getErrorCode();
-      final Object[] args = error.getArgs();
-      response.addError(new ErrorResult(
-        String.valueOf(status.value()),
-        errorCode.getTitle(),
-        MessageFormat.format(errorCode.getDetail(), args),
-        String.valueOf(errorCode.getCode()),
-        ErrorResult.createMeta(args, null).orElse(null)
-      ));
-    });
+    Arrays.stream(apiException.getErrors()).forEach(error -> response.addError(ErrorResult.of(error, status)));
     return response;
   }
 }
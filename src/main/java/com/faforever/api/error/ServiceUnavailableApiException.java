@@ -0,0 +1,20 @@
+package com.faforever.api.error;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Thrown if a request is valid but can't be processed right now because the server is busy, so that the client may
+ * retry it later.
+ */
+@Getter
+@ToString
+public class ServiceUnavailableApiException extends ApiException {
+  public ServiceUnavailableApiException(Error error) {
+    super(error);
+  }
+
+  public static ServiceUnavailableApiException of(ErrorCode errorCode, Object... args) {
+    return new ServiceUnavailableApiException(new Error(errorCode, args));
+  }
+}
@@ -0,0 +1,55 @@
+package com.faforever.api.event;
+
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.config.FafApiProperties.WriteBehind;
+import com.faforever.api.event.PlayerEventBatchRepository.PlayerEventKey;
+import com.faforever.api.writebehind.WriteBehindBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Write-behind stage in front of {@link EventsService}, see {@link WriteBehind}.
+ */
+@Component
+public class EventIncrementBuffer implements DisposableBean {
+
+  private final EventsService eventsService;
+  /** {@code null} if write-behind is disabled. */
+  private final WriteBehindBuffer<PlayerEventKey> buffer;
+
+  public EventIncrementBuffer(EventsService eventsService, FafApiProperties properties, MeterRegistry meterRegistry) {
+    this.eventsService = eventsService;
+
+    WriteBehind writeBehind = properties.getWriteBehind();
+    buffer = writeBehind.isEnabled()
+      ? new WriteBehindBuffer<>("events", eventsService::applyIncrements, writeBehind.getFlushInterval(), writeBehind.getMaxPendingKeys(),
+        writeBehind.getMaxBufferedKeys(), meterRegistry)
+      : null;
+  }
+
+  /**
+   * Verifies the specified requests and buffers their increments.
+   *
+   * @return {@code false} if write-behind is disabled or the buffer is full, in which case the requests have to be
+   * applied directly
+   */
+  boolean offer(List<EventUpdateRequest> updateRequests) {
+    if (buffer == null || buffer.isFull()) {
+      return false;
+    }
+
+    eventsService.verify(updateRequests);
+    updateRequests.forEach(request -> buffer.add(new PlayerEventKey(request.playerId(), request.eventId()), request.count()));
+    return true;
+  }
+
+  @Override
+  public void destroy() {
+    if (buffer != null) {
+      buffer.close();
+    }
+  }
+}
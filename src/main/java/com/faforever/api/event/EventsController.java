@@ -6,6 +6,8 @@ import com.yahoo.elide.jsonapi.models.Data;
 import com.yahoo.elide.jsonapi.models.JsonApiDocument;
 import com.yahoo.elide.jsonapi.models.Resource;
 import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -14,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.util.List;
 import java.util.Map;
@@ -25,13 +28,22 @@ import java.util.Map;
 public class EventsController {
 
   private final EventsService eventsService;
+  private final EventIncrementBuffer eventIncrementBuffer;
 
   @ApiOperation(value = "Updates the state and progress of one or multiple events.")
+  @ApiResponses(value = {
+    @ApiResponse(code = 200, message = "The updates were applied. Contains the resulting currentCount of each updated event."),
+    @ApiResponse(code = 202, message = "Only if write-behind is enabled: the updates were buffered and will be applied "
+      + "shortly. The data array is empty, so the resulting currentCount is not available.")})
   @PreAuthorize("#oauth2.hasScope('" + OAuthScope._WRITE_EVENTS + "')")
   @RequestMapping(value = "/update", method = RequestMethod.PATCH, produces = JsonApiMediaType.JSON_API_MEDIA_TYPE)
-  public JsonApiDocument update(@RequestBody List<@Valid EventUpdateRequest> updateRequests) {
-    return new JsonApiDocument(new Data<>(updateRequests.stream()
-      .map(request -> eventsService.increment(request.playerId(), request.eventId(), request.count()))
+  public JsonApiDocument update(@RequestBody List<@Valid EventUpdateRequest> updateRequests, HttpServletResponse response) {
+    if (eventIncrementBuffer.offer(updateRequests)) {
+      response.setStatus(HttpServletResponse.SC_ACCEPTED);
+      return new JsonApiDocument(new Data<>(List.of()));
+    }
+
+    return new JsonApiDocument(new Data<>(eventsService.incrementAll(updateRequests).stream()
       .map(this::toResource)
       .toList()));
   }
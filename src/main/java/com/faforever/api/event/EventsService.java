@@ -1,54 +1,84 @@
 package com.faforever.api.event;
 
-import com.faforever.api.data.domain.Event;
-import com.faforever.api.data.domain.PlayerEvent;
 import com.faforever.api.error.ApiException;
 import com.faforever.api.error.Error;
 import com.faforever.api.error.ErrorCode;
+import com.faforever.api.event.PlayerEventBatchRepository.PlayerEventCount;
+import com.faforever.api.event.PlayerEventBatchRepository.PlayerEventKey;
 import com.faforever.api.player.PlayerService;
-import com.google.common.base.MoreObjects;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.function.BiFunction;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class EventsService {
 
   private final EventRepository eventRepository;
   private final PlayerService playerService;
-  private final PlayerEventRepository playerEventRepository;
+  private final PlayerEventBatchRepository playerEventBatchRepository;
 
-  UpdatedEventResponse increment(int playerId, String eventId, int steps) {
-    // ensure player exists or throw API error instead
-    playerService.getById(playerId);
+  /**
+   * Applies all increments in a single transaction. Players are only checked for existence, events are looked up
+   * by ID (which is served by the second-level cache) and all counters are incremented with a single batch of
+   * upserts. Increments of the same counter are summed up before being written.
+   *
+   * @return one response per request, in the order of the requests. If a counter is incremented multiple times,
+   * each response contains the count after the respective increment.
+   */
+  @Transactional
+  public List<UpdatedEventResponse> incrementAll(List<EventUpdateRequest> updateRequests) {
+    if (updateRequests.isEmpty()) {
+      return List.of();
+    }
 
-    Event event = eventRepository.findById(eventId)
-      .orElseThrow(() -> new ApiException(new Error(ErrorCode.ENTITY_NOT_FOUND, eventId)));
+    verify(updateRequests);
 
-    PlayerEvent playerEvent = getOrCreatePlayerEvent(playerId, event);
+    Map<PlayerEventKey, Integer> increments = new LinkedHashMap<>();
+    updateRequests.forEach(request -> increments.merge(new PlayerEventKey(request.playerId(), request.eventId()), request.count(), Integer::sum));
+    playerEventBatchRepository.incrementAll(increments);
 
-    int currentSteps = MoreObjects.firstNonNull(playerEvent.getCurrentCount(), 0);
-    int newCurrentCount = currentSteps + steps;
+    Set<Integer> playerIds = increments.keySet().stream().map(PlayerEventKey::playerId).collect(Collectors.toSet());
+    Set<String> eventIds = increments.keySet().stream().map(PlayerEventKey::eventId).collect(Collectors.toSet());
 
-    playerEvent.setCurrentCount(newCurrentCount);
-    playerEventRepository.save(playerEvent);
+    Map<PlayerEventKey, PlayerEventCount> countsByKey = playerEventBatchRepository.findCounts(playerIds, eventIds).stream()
+      .collect(Collectors.toMap(PlayerEventCount::key, Function.identity()));
 
-    return new UpdatedEventResponse(playerEvent.getId(), eventId, newCurrentCount);
+    // Walk forward from the count before this batch so that every response reflects its own increment
+    Map<PlayerEventKey, Integer> runningCounts = new HashMap<>();
+    List<UpdatedEventResponse> responses = new ArrayList<>(updateRequests.size());
+    for (EventUpdateRequest request : updateRequests) {
+      PlayerEventKey key = new PlayerEventKey(request.playerId(), request.eventId());
+      PlayerEventCount count = countsByKey.get(key);
+      int newCurrentCount = runningCounts.merge(key, count.count() - increments.get(key) + request.count(), (previous, initial) -> previous + request.count());
+      responses.add(new UpdatedEventResponse(count.id(), request.eventId(), newCurrentCount));
+    }
+    return responses;
   }
 
-  private PlayerEvent getOrCreatePlayerEvent(int playerId, Event event) {
-    return playerEventRepository.findOneByEventIdAndPlayerId(event.getId(), playerId)
-      .orElseGet(() ->
-        {
-          log.debug("No event found for event id '{}' and player id '{}'. Creating new event.", event.getId(), playerId);
-          return new PlayerEvent()
-            .setPlayerId(playerId)
-            .setEvent(event);
-        }
-      );
+  /**
+   * Applies already verified increments without reading back the resulting counts.
+   */
+  @Transactional
+  public void applyIncrements(Map<PlayerEventKey, Integer> increments) {
+    playerEventBatchRepository.incrementAll(increments);
+  }
+
+  /**
+   * Ensures that all referenced players and events exist.
+   */
+  void verify(List<EventUpdateRequest> updateRequests) {
+    playerService.verifyPlayersExist(updateRequests.stream().map(EventUpdateRequest::playerId).collect(Collectors.toSet()));
+    updateRequests.stream().map(EventUpdateRequest::eventId).distinct().forEach(eventId -> eventRepository.findById(eventId)
+      .orElseThrow(() -> new ApiException(new Error(ErrorCode.ENTITY_NOT_FOUND, eventId))));
   }
 }
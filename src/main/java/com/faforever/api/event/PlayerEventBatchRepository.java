@@ -0,0 +1,72 @@
+package com.faforever.api.event;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Increments player event counters in a single JDBC batch of upserts, relying on the unique key of
+ * {@code (player_id, event_id)}. Entities loaded in the current persistence context are not updated.
+ */
+@Repository
+public class PlayerEventBatchRepository {
+
+  private static final String UPSERT = "INSERT INTO player_events (player_id, event_id, count) " +
+    "VALUES (:playerId, :eventId, :count) " +
+    "ON DUPLICATE KEY UPDATE count = count + VALUES(count)";
+
+  private static final String SELECT_COUNTS = "SELECT id, player_id, event_id, count FROM player_events " +
+    "WHERE player_id IN (:playerIds) AND event_id IN (:eventIds)";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public PlayerEventBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  // Don't make this package private, see https://jira.spring.io/browse/SPR-15911
+  public void incrementAll(Map<PlayerEventKey, Integer> increments) {
+    if (increments.isEmpty()) {
+      return;
+    }
+
+    jdbcTemplate.batchUpdate(UPSERT, increments.entrySet().stream()
+      .map(entry -> new MapSqlParameterSource()
+        .addValue("playerId", entry.getKey().playerId())
+        .addValue("eventId", entry.getKey().eventId())
+        .addValue("count", entry.getValue()))
+      .toArray(SqlParameterSource[]::new));
+  }
+
+  /**
+   * Returns the counters of all combinations of the specified players and events. The result may contain more
+   * counters than requested.
+   */
+  public List<PlayerEventCount> findCounts(Set<Integer> playerIds, Set<String> eventIds) {
+    if (playerIds.isEmpty() || eventIds.isEmpty()) {
+      return List.of();
+    }
+
+    return jdbcTemplate.query(SELECT_COUNTS,
+      new MapSqlParameterSource()
+        .addValue("playerIds", playerIds)
+        .addValue("eventIds", eventIds),
+      (resultSet, rowNum) -> new PlayerEventCount(
+        resultSet.getInt("id"),
+        new PlayerEventKey(resultSet.getInt("player_id"), resultSet.getString("event_id")),
+        resultSet.getInt("count")
+      ));
+  }
+
+  record PlayerEventKey(int playerId, String eventId) {
+  }
+
+  record PlayerEventCount(int id, PlayerEventKey key, int count) {
+  }
+}
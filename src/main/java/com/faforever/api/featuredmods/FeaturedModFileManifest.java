@@ -0,0 +1,164 @@
+package com.faforever.api.featuredmods;
+
+import com.faforever.api.config.FafApiProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static com.faforever.api.featuredmods.LegacyFeaturedModFileRepository.toTableModName;
+
+/**
+ * Keeps all versions of all files of a featured mod in memory, so that the latest version of each file up to a
+ * specific mod version can be looked up with a binary search instead of a grouping self-join. A manifest is loaded
+ * with a single query on first access and updated whenever a version is saved through {@link #versionSaved(String,
+ * int)}.
+ */
+@Component
+public class FeaturedModFileManifest {
+
+  private final LegacyFeaturedModFileRepository legacyFeaturedModFileRepository;
+  private final LoadingCache<String, Manifest> manifestsByTableModName;
+
+  public FeaturedModFileManifest(LegacyFeaturedModFileRepository legacyFeaturedModFileRepository, FafApiProperties properties) {
+    this.legacyFeaturedModFileRepository = legacyFeaturedModFileRepository;
+    manifestsByTableModName = Caffeine.newBuilder()
+      .expireAfterWrite(properties.getFeaturedMod().getFileManifestTimeToLive())
+      .build(tableModName -> Manifest.of(legacyFeaturedModFileRepository.getAllFiles(tableModName)));
+  }
+
+  /**
+   * Returns the latest version of each file that is not newer than the specified version. The returned instances are
+   * copies and may be modified.
+   *
+   * @param version the mod version, or {@code null} for the latest version
+   */
+  public List<FeaturedModFile> getFiles(String modName, @Nullable Integer version) {
+    return getLatestFiles(modName, version).stream()
+      .map(FeaturedModFileManifest::copy)
+      .toList();
+  }
+
+  /**
+   * Like {@link #getFiles(String, Integer)} but only returns the file with the specified client file name. The
+   * returned instance is a copy and may be modified.
+   */
+  public Optional<FeaturedModFile> getFile(String modName, @Nullable Integer version, String fileName) {
+    return getLatestFiles(modName, version).stream()
+      .filter(file -> fileName.equals(file.getName()))
+      .findFirst()
+      .map(FeaturedModFileManifest::copy);
+  }
+
+  /**
+   * Reloads the files of the specified version, which has just been saved, and merges them into the manifest as soon
+   * as the current transaction has been committed.
+   */
+  public void versionSaved(String modName, int version) {
+    String tableModName = toTableModName(modName);
+    List<FeaturedModFile> files = legacyFeaturedModFileRepository.getFilesOfVersion(tableModName, version);
+
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      merge(tableModName, version, files);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+      public void afterCommit() {
+        merge(tableModName, version, files);
+      }
+    });
+  }
+
+  /**
+   * Returns the cached instances, which must not be modified.
+   */
+  private List<FeaturedModFile> getLatestFiles(String modName, @Nullable Integer version) {
+    return manifestsByTableModName.get(toTableModName(modName)).getLatestFiles(version == null ? Integer.MAX_VALUE : version);
+  }
+
+  private void merge(String tableModName, int version, List<FeaturedModFile> files) {
+    manifestsByTableModName.asMap().computeIfPresent(tableModName, (key, manifest) -> manifest.withVersion(version, files));
+  }
+
+  private static FeaturedModFile copy(FeaturedModFile file) {
+    return new FeaturedModFile()
+      .setId(file.getId())
+      .setGroup(file.getGroup())
+      .setMd5(file.getMd5())
+      .setName(file.getName())
+      .setOriginalFileName(file.getOriginalFileName())
+      .setVersion(file.getVersion())
+      .setUrl(file.getUrl())
+      .setFolderName(file.getFolderName())
+      .setFileId(file.getFileId());
+  }
+
+  /**
+   * The versions of a single file, sorted ascending.
+   */
+  private record FileVersions(int[] versions, FeaturedModFile[] files) {
+
+    static FileVersions of(List<FeaturedModFile> files) {
+      FeaturedModFile[] sortedFiles = files.stream()
+        .sorted(Comparator.comparingInt(FeaturedModFile::getVersion))
+        .toArray(FeaturedModFile[]::new);
+      return new FileVersions(Arrays.stream(sortedFiles).mapToInt(FeaturedModFile::getVersion).toArray(), sortedFiles);
+    }
+
+    @Nullable
+    FeaturedModFile getLatest(int maxVersion) {
+      int index = Arrays.binarySearch(versions, maxVersion);
+      if (index < 0) {
+        // Not found, so the insertion point is the first greater version
+        index = -index - 2;
+      }
+      return index < 0 ? null : files[index];
+    }
+  }
+
+  /**
+   * An immutable snapshot of all files of a mod, keyed by file ID.
+   */
+  private record Manifest(Map<Short, FileVersions> versionsByFileId) {
+
+    static Manifest of(List<FeaturedModFile> files) {
+      return new Manifest(files.stream().collect(Collectors.groupingBy(FeaturedModFile::getFileId, TreeMap::new,
+        Collectors.collectingAndThen(Collectors.toList(), FileVersions::of))));
+    }
+
+    List<FeaturedModFile> getLatestFiles(int maxVersion) {
+      List<FeaturedModFile> result = new ArrayList<>(versionsByFileId.size());
+      for (FileVersions fileVersions : versionsByFileId.values()) {
+        FeaturedModFile file = fileVersions.getLatest(maxVersion);
+        if (file != null) {
+          result.add(file);
+        }
+      }
+      return result;
+    }
+
+    /**
+     * Returns a new manifest in which all files of the specified version are replaced by the specified files, just
+     * like {@link LegacyFeaturedModFileRepository#save(String, short, List)} replaces them in the database.
+     */
+    Manifest withVersion(int version, List<FeaturedModFile> files) {
+      List<FeaturedModFile> allFiles = new ArrayList<>();
+      versionsByFileId.values().forEach(fileVersions -> Arrays.stream(fileVersions.files())
+        .filter(file -> file.getVersion() != version)
+        .forEach(allFiles::add));
+      allFiles.addAll(files);
+      return of(allFiles);
+    }
+  }
+}
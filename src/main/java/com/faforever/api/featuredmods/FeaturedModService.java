@@ -2,7 +2,6 @@ package com.faforever.api.featuredmods;
 
 import com.faforever.api.data.domain.FeaturedMod;
 import org.jetbrains.annotations.Nullable;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,23 +11,25 @@ import java.util.Optional;
 
 @Service
 public class FeaturedModService {
-  public static final String FEATURED_MOD_FILES_CACHE_NAME = "FeaturedModService.featuredModFiles";
-
   private final FeaturedModRepository featuredModRepository;
   private final LegacyFeaturedModFileRepository legacyFeaturedModFileRepository;
+  private final FeaturedModFileManifest featuredModFileManifest;
 
-  public FeaturedModService(FeaturedModRepository featuredModRepository, LegacyFeaturedModFileRepository legacyFeaturedModFileRepository) {
+  public FeaturedModService(FeaturedModRepository featuredModRepository, LegacyFeaturedModFileRepository legacyFeaturedModFileRepository,
+                            FeaturedModFileManifest featuredModFileManifest) {
     this.featuredModRepository = featuredModRepository;
     this.legacyFeaturedModFileRepository = legacyFeaturedModFileRepository;
+    this.featuredModFileManifest = featuredModFileManifest;
   }
 
   public FeaturedModFile getFile(String modName, Integer version, String fileName) {
-    return legacyFeaturedModFileRepository.getFile(modName, version, fileName);
+    return featuredModFileManifest.getFile(modName, version, fileName)
+      .orElseThrow(() -> new IllegalArgumentException(
+        String.format("No file found for modName: %s, version: %d, filename: %s", modName, version, fileName)));
   }
 
-  @Cacheable(FEATURED_MOD_FILES_CACHE_NAME)
   public List<FeaturedModFile> getFiles(String modName, @Nullable Integer version) {
-    return legacyFeaturedModFileRepository.getFiles(modName, version);
+    return featuredModFileManifest.getFiles(modName, version);
   }
 
   public List<FeaturedMod> getFeaturedMods() {
@@ -38,6 +39,7 @@ public class FeaturedModService {
   @Transactional
   public void save(String modName, short version, List<FeaturedModFile> featuredModFiles) {
     legacyFeaturedModFileRepository.save(modName, version, featuredModFiles);
+    featuredModFileManifest.versionSaved(modName, version);
   }
 
   public Map<String, Short> getFileIds(String modName) {
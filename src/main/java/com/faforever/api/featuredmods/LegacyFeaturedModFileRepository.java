@@ -20,22 +20,23 @@ public class LegacyFeaturedModFileRepository implements Repository<FeaturedModFi
     this.entityManager = entityManager;
   }
 
-  public FeaturedModFile getFile(String modName, Integer version, String fileName) {
-    List<FeaturedModFile> files = getFiles(modName, version, fileName);
-    Assert.isTrue(
-      files.size() == 1,
-      String.format("Unexpected result size %d for modName: %s, version: %d, filename: %s", files.size(), modName, version, fileName)
-    );
-    return files.get(0);
+  /**
+   * Returns all versions of all files of the specified mod.
+   */
+  public List<FeaturedModFile> getAllFiles(String modName) {
+    return queryFiles(modName, null);
   }
 
-  public List<FeaturedModFile> getFiles(String modName, Integer version) {
-    return getFiles(modName, version, null);
+  /**
+   * Returns the files that have been saved for exactly the specified version.
+   */
+  public List<FeaturedModFile> getFilesOfVersion(String modName, int version) {
+    return queryFiles(modName, version);
   }
 
   @SuppressWarnings("unchecked")
-  public List<FeaturedModFile> getFiles(String modName, Integer version, String fileName) {
-    String innerModName = "ladder1v1".equals(modName) ? "faf" : modName;
+  private List<FeaturedModFile> queryFiles(String modName, Integer version) {
+    String innerModName = toTableModName(modName);
     verifyModName(innerModName);
 
     // The following joke is sponsored by FAF's patcher mechanism which shouldn't even require a DB.
@@ -50,36 +51,20 @@ public class LegacyFeaturedModFileRepository implements Repository<FeaturedModFi
         "  file.name    AS `fileName`," +
         "  'updates_%1$s_files' AS `folderName` " +
         "FROM updates_%1$s_files file" +
-        "  INNER JOIN" +
-        "  (" +
-        "    SELECT" +
-        "      fileId," +
-        "      MAX(version) AS version" +
-        "    FROM updates_%1$s_files" +
-        "       %2$s" +
-        "    GROUP BY fileId" +
-        "  ) latest" +
-        "    ON file.fileId = latest.fileId" +
-        "       AND file.version = latest.version" +
         "  INNER JOIN updates_%1$s b" +
-        "    ON b.id = file.fileId %3$s ",
+        "    ON b.id = file.fileId %2$s",
       innerModName,
-      (version == null ? "" : "WHERE version <= :version"),
-      (fileName == null ? "" : " AND filename = :filename")
+      (version == null ? "" : "WHERE file.version = :version")
     ), FeaturedModFile.class);
 
     if (version != null) {
       query.setParameter("version", version);
     }
-    if (fileName != null) {
-      query.setParameter("filename", fileName);
-    }
     return (List<FeaturedModFile>) query.getResultList();
   }
 
   public void save(String modName, short version, List<FeaturedModFile> featuredModFiles) {
-    // Please shoot me.
-    String innerModName = "ladder1v1".equals(modName) ? "faf" : modName;
+    String innerModName = toTableModName(modName);
     verifyModName(innerModName);
 
     // Upsert would be preferred, but the tables have no unique constraints and it's not worth fixing them
@@ -104,8 +89,7 @@ public class LegacyFeaturedModFileRepository implements Repository<FeaturedModFi
 
   @SuppressWarnings("unchecked")
   public Map<String, Short> getFileIds(String modName) {
-    // Please shoot me.
-    String innerModName = "ladder1v1".equals(modName) ? "faf" : modName;
+    String innerModName = toTableModName(modName);
     verifyModName(innerModName);
 
     Query query = entityManager.createNativeQuery(String.format("SELECT id, filename FROM updates_%s", innerModName));
@@ -114,6 +98,13 @@ public class LegacyFeaturedModFileRepository implements Repository<FeaturedModFi
       .collect(Collectors.toMap(row -> (String) row[1], row -> (short) row[0]));
   }
 
+  /**
+   * Returns the name of the mod as used in the names of its tables. Please shoot me.
+   */
+  static String toTableModName(String modName) {
+    return "ladder1v1".equals(modName) ? "faf" : modName;
+  }
+
   private void verifyModName(String modName) {
     Assert.isTrue(MOD_NAME_PATTERN.matcher(modName).matches(), "Invalid mod name: " + modName);
   }
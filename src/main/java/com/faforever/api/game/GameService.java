@@ -1,6 +1,7 @@
 package com.faforever.api.game;
 
 import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.utils.UrlTemplate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
@@ -8,25 +9,31 @@ import org.springframework.util.Assert;
 @Service
 @RequiredArgsConstructor
 public class GameService {
+  /**
+   * Divisors to extract the subfolders of a replay, which are the first four digit pairs of its ID padded to ten
+   * digits.
+   */
+  private static final int[] SUBFOLDER_DIVISORS = {100_000_000, 1_000_000, 10_000, 100};
+  private static final String REPLAY_FILE_EXTENSION = ".fafreplay";
+
   private final FafApiProperties properties;
 
+  /**
+   * Returns the download URL of a replay, which is stored in {@code aa/bb/cc/dd/aabbccddee.fafreplay} with leading
+   * zeros removed from each folder, e.g. {@code 0/11/68/99/11689995.fafreplay}. The path is built arithmetically,
+   * since this is called for every game that is loaded.
+   */
   public String getReplayDownloadUrl(int replayId) {
     Assert.state(replayId > 0, "Replay ID must be positive");
 
-    String leadingZeroReplayId = String.format("%010d", replayId);
-
-    StringBuilder sb = new StringBuilder();
-
-    for (int i = 0; i < 4; i++) {
-      String subfolderId = leadingZeroReplayId.substring(i * 2, i * 2 + 2);
-      sb.append(Integer.parseInt(subfolderId));
-      sb.append("/");
+    // Four folders of up to three characters each and a ten digit ID
+    StringBuilder path = new StringBuilder(32);
+    for (int divisor : SUBFOLDER_DIVISORS) {
+      path.append(replayId / divisor % 100).append('/');
     }
+    path.append(replayId).append(REPLAY_FILE_EXTENSION);
 
-    sb.append(replayId);
-    sb.append(".fafreplay");
-
-    return String.format(properties.getReplay().getDownloadUrlFormat(), sb.toString());
+    return UrlTemplate.of(properties.getReplay().getDownloadUrlFormat()).expand(path);
   }
 
 }
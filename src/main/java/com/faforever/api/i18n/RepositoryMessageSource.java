@@ -1,5 +1,6 @@
 package com.faforever.api.i18n;
 
+import com.faforever.api.data.domain.Message;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.support.AbstractResourceBasedMessageSource;
@@ -7,75 +8,179 @@ import org.springframework.stereotype.Component;
 
 import java.text.MessageFormat;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
-
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides the messages stored in the database. All messages are held in a snapshot that is never modified, but
+ * replaced as a whole when messages change, so that lookups don't need any locking. Within the snapshot, the messages
+ * of each locale already include the messages of the fallback locale they don't override.
+ */
 @Component
 @RequiredArgsConstructor
 public class RepositoryMessageSource extends AbstractResourceBasedMessageSource implements InitializingBean {
 
   private static final Locale FALLBACK_LOCALE = Locale.US;
+  private static final String FALLBACK_LOCALE_KEY = localeKey(FALLBACK_LOCALE.getLanguage(), FALLBACK_LOCALE.getCountry());
 
   private final MessageRepository messageRepository;
 
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  @Override
+  protected String resolveCodeWithoutArguments(String code, Locale locale) {
+    return getText(code, locale);
+  }
+
   /**
-   * Language -&gt; Region -&gt; Key -&gt; Value.
+   * The returned message format is shared, but callers synchronize on it while formatting. Formats are cached per
+   * locale that messages are stored for rather than per requested locale, since clients can request arbitrary locales.
    */
-  private Map<String, Map<String, Map<String, String>>> messagesByLanguage;
+  @Override
+  protected MessageFormat resolveCode(String code, Locale locale) {
+    Snapshot currentSnapshot = snapshot;
+    String localeKey = currentSnapshot.resolveLocaleKey(locale);
+    Locale formatLocale = localeKey.equals(FALLBACK_LOCALE_KEY) ? FALLBACK_LOCALE : new Locale(locale.getLanguage(), locale.getCountry());
+    return currentSnapshot.messageFormats
+      .computeIfAbsent(localeKey, l -> new ConcurrentHashMap<>())
+      .computeIfAbsent(code, c -> createMessageFormat(currentSnapshot.getText(c, localeKey), formatLocale));
+  }
 
-  private Map<String, Map<String, Map<String, String>>> loadMessages() {
-    Map<String, Map<String, Map<String, String>>> messagesByLanguage = new HashMap<>();
+  private String getText(String key, Locale locale) {
+    Snapshot currentSnapshot = snapshot;
+    return currentSnapshot.getText(key, currentSnapshot.resolveLocaleKey(locale));
+  }
 
-    messageRepository.findAll().forEach(message -> messagesByLanguage.computeIfAbsent(message.getLanguage(), s -> new HashMap<>())
-        .computeIfAbsent(message.getRegion(), s -> new HashMap<>())
-        .put(message.getKey(), message.getValue()));
+  /**
+   * Applies a created or updated message, without reloading the others.
+   */
+  public synchronized void update(Message message) {
+    snapshot = snapshot.with(message.getId(), new Row(message.getKey(), localeKey(message.getLanguage(), message.getRegion()), message.getValue()));
+  }
 
-    return messagesByLanguage;
+  /**
+   * Removes a deleted message, without reloading the others.
+   */
+  public synchronized void remove(Message message) {
+    snapshot = snapshot.with(message.getId(), null);
   }
 
   @Override
-  protected String resolveCodeWithoutArguments(String code, Locale locale) {
-    return getText(code, locale);
+  public synchronized void afterPropertiesSet() {
+    Map<Integer, Row> rows = new HashMap<>();
+    messageRepository.findAll().forEach(message ->
+      rows.put(message.getId(), new Row(message.getKey(), localeKey(message.getLanguage(), message.getRegion()), message.getValue())));
+    snapshot = Snapshot.of(rows);
   }
 
-  @Override
-  protected MessageFormat resolveCode(String code, Locale locale) {
-    return createMessageFormat(getText(code, locale), locale);
+  private static String localeKey(String language, String region) {
+    return language + "_" + region;
   }
 
-  private String getText(String key, Locale locale) {
-    String language = locale.getLanguage();
-    String region = locale.getCountry();
+  private record Row(String key, String localeKey, String value) {
+  }
 
-    if (!messagesByLanguage.containsKey(language)) {
-      if (Objects.equals(language, FALLBACK_LOCALE.getLanguage())) {
-        return key;
-      }
-      return getText(key, FALLBACK_LOCALE);
+  private static final class Snapshot {
+    private static final Snapshot EMPTY = of(Map.of());
+
+    private final Map<Integer, Row> rowsById;
+    /** Locale key -&gt; Key -&gt; Value, as stored in the database. */
+    private final Map<String, Map<String, String>> storedMessages;
+    /** Locale key -&gt; Key -&gt; Value, including the messages of the fallback locale. */
+    private final Map<String, Map<String, String>> resolvedMessages;
+    private final Map<String, String> fallbackMessages;
+    /** Resolved locale key -&gt; Key -&gt; Format. */
+    private final Map<String, Map<String, MessageFormat>> messageFormats = new ConcurrentHashMap<>();
+
+    private Snapshot(Map<Integer, Row> rowsById, Map<String, Map<String, String>> storedMessages, Map<String, Map<String, String>> resolvedMessages) {
+      this.rowsById = rowsById;
+      this.storedMessages = storedMessages;
+      this.resolvedMessages = resolvedMessages;
+      fallbackMessages = resolvedMessages.getOrDefault(FALLBACK_LOCALE_KEY, Map.of());
     }
 
-    Map<String, Map<String, String>> messagesByRegion = this.messagesByLanguage.get(language);
-    if (!messagesByRegion.containsKey(region)) {
-      if (Objects.equals(region, FALLBACK_LOCALE.getCountry())) {
-        return key;
+    private static Snapshot of(Map<Integer, Row> rowsById) {
+      Map<String, Map<String, String>> storedMessages = new HashMap<>();
+      rowsById.values().forEach(row -> storedMessages.computeIfAbsent(row.localeKey(), k -> new HashMap<>()).put(row.key(), row.value()));
+      return resolve(new HashMap<>(rowsById), storedMessages, storedMessages.keySet());
+    }
+
+    /**
+     * Returns a new snapshot in which the row with the specified ID is replaced, or removed if {@code row} is
+     * {@code null}. Only the messages of the affected locales are resolved again, unless the fallback locale is
+     * affected.
+     */
+    private Snapshot with(Integer id, Row row) {
+      Map<Integer, Row> newRowsById = new HashMap<>(rowsById);
+      Row oldRow = row == null ? newRowsById.remove(id) : newRowsById.put(id, row);
+
+      Map<String, Map<String, String>> newStoredMessages = new HashMap<>(storedMessages);
+      if (oldRow != null) {
+        Map<String, String> messages = new HashMap<>(newStoredMessages.getOrDefault(oldRow.localeKey(), Map.of()));
+        messages.remove(oldRow.key());
+        newStoredMessages.put(oldRow.localeKey(), messages);
+      }
+      if (row != null) {
+        Map<String, String> messages = new HashMap<>(newStoredMessages.getOrDefault(row.localeKey(), Map.of()));
+        messages.put(row.key(), row.value());
+        newStoredMessages.put(row.localeKey(), messages);
+      }
+      newStoredMessages.values().removeIf(Map::isEmpty);
+
+      Set<String> affectedLocaleKeys = new HashSet<>();
+      if (oldRow != null) {
+        affectedLocaleKeys.add(oldRow.localeKey());
       }
-      return getText(key, FALLBACK_LOCALE);
+      if (row != null) {
+        affectedLocaleKeys.add(row.localeKey());
+      }
+      if (affectedLocaleKeys.contains(FALLBACK_LOCALE_KEY)) {
+        return resolve(newRowsById, newStoredMessages, newStoredMessages.keySet());
+      }
+
+      return resolve(newRowsById, newStoredMessages, affectedLocaleKeys, new HashMap<>(resolvedMessages));
+    }
+
+    private static Snapshot resolve(Map<Integer, Row> rowsById, Map<String, Map<String, String>> storedMessages, Set<String> localeKeys) {
+      return resolve(rowsById, storedMessages, localeKeys, new HashMap<>());
     }
 
-    Map<String, String> messagesByKey = messagesByRegion.get(region);
-    if (!messagesByKey.containsKey(key)) {
-      if (Objects.equals(language, FALLBACK_LOCALE.getLanguage()) && Objects.equals(region, FALLBACK_LOCALE.getCountry())) {
-        return key;
+    private static Snapshot resolve(Map<Integer, Row> rowsById, Map<String, Map<String, String>> storedMessages,
+                                    Set<String> localeKeys, Map<String, Map<String, String>> resolvedMessages) {
+      Map<String, String> fallbackMessages = storedMessages.getOrDefault(FALLBACK_LOCALE_KEY, Map.of());
+      for (String localeKey : localeKeys) {
+        Map<String, String> messages = storedMessages.get(localeKey);
+        if (messages == null) {
+          resolvedMessages.remove(localeKey);
+          continue;
+        }
+        Map<String, String> resolved = new HashMap<>(fallbackMessages);
+        resolved.putAll(messages);
+        resolvedMessages.put(localeKey, resolved);
       }
-      return getText(key, FALLBACK_LOCALE);
+      return new Snapshot(rowsById, storedMessages, resolvedMessages);
     }
 
-    return messagesByRegion.get(region).get(key);
-  }
+    /**
+     * Returns the key of the locale whose messages are used for the specified locale, which is the fallback locale if
+     * there are no messages for the specified one.
+     */
+    private String resolveLocaleKey(Locale locale) {
+      String localeKey = localeKey(locale.getLanguage(), locale.getCountry());
+      return resolvedMessages.containsKey(localeKey) ? localeKey : FALLBACK_LOCALE_KEY;
+    }
 
-  @Override
-  public void afterPropertiesSet() {
-    messagesByLanguage = loadMessages();
+    /**
+     * Returns the message for the specified resolved locale key. If there is no such message, the key itself is
+     * returned.
+     */
+    private String getText(String key, String resolvedLocaleKey) {
+      Map<String, String> messages = resolvedMessages.getOrDefault(resolvedLocaleKey, fallbackMessages);
+      return Objects.requireNonNullElse(messages.get(key), key);
+    }
   }
 }
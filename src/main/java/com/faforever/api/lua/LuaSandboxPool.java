@@ -0,0 +1,387 @@
+package com.faforever.api.lua;
+
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.error.ErrorCode;
+import com.faforever.api.error.ServiceUnavailableApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LoadState;
+import org.luaj.vm2.Lua;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Prototype;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.compiler.LuaC;
+import org.luaj.vm2.lib.DebugLib;
+import org.luaj.vm2.lib.PackageLib;
+import org.luaj.vm2.lib.StringLib;
+import org.luaj.vm2.lib.TableLib;
+import org.luaj.vm2.lib.VarArgFunction;
+import org.luaj.vm2.lib.jse.JseBaseLib;
+import org.luaj.vm2.lib.jse.JseMathLib;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Evaluates untrusted Lua files, like the scenario files of maps, in a sandbox. Setting up the Lua globals and
+ * libraries is expensive compared to evaluating such a file, so a fixed number of sandboxes is created up front and
+ * reused. If all of them are busy, an evaluation waits for a limited time and is rejected afterwards.
+ * <p>
+ * Each file is evaluated in its own environment, which falls back to a read-only view of the shared globals. Variables
+ * set by the file therefore never leak into the next evaluation. The shared globals only contain side effect free
+ * functions and are not reachable through {@code _G}, and libraries can't be modified. Errors can't be caught by the
+ * file itself.
+ * <p>
+ * Before every instruction, the evaluation is aborted if it executed too many instructions or allocated too many bytes
+ * on its thread. Since a single instruction may allocate a lot at once, library functions that create strings much
+ * longer than their arguments check the budget up front, and files that concatenate many values in one expression are
+ * rejected. The heap used by one evaluation is therefore bounded by a small multiple of the allocation budget.
+ */
+@Component
+@Slf4j
+public class LuaSandboxPool {
+
+  /**
+   * Functions of the game engine that are used in the files of maps and mods.
+   */
+  private static final String ENGINE_FUNCTIONS = """
+    function STRING(value) return value end
+    function FLOAT(value) return value end
+    function BOOLEAN(value) return value end
+    function GROUP(value) return value end
+    function VECTOR3(x, y, z) return {x, y, z} end
+    function RECTANGLE(x0, y0, x1, y1) return {x0, y0, x1, y1} end
+    """;
+
+  /**
+   * Globals that give access to the file system, to the shared globals, to metatables or to the instruction hook, or
+   * that catch errors like the one raised if the instruction limit is exceeded. The package library is only loaded
+   * because the other libraries register themselves in it.
+   */
+  private static final String[] UNSAFE_GLOBALS = {
+    "_G", "collectgarbage", "debug", "dofile", "getmetatable", "load", "loadfile", "loadstring", "package", "pcall",
+    "print", "rawequal", "rawget", "rawlen", "rawset", "require", "setmetatable", "xpcall",
+  };
+  private static final String[] LIBRARIES = {"math", "string", "table"};
+
+  /**
+   * The maximum number of values concatenated by a single instruction, like {@code a .. b .. c}. Since all of them may
+   * be the same string, the result of such an instruction may be this many times larger than the allocation budget.
+   */
+  private static final int MAX_CONCATENATED_VALUES = 16;
+  /**
+   * An upper bound for the padding and digits that {@code string.format} adds for a single value.
+   */
+  private static final int MAX_FORMATTED_VALUE_LENGTH = 512;
+
+  private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private final FafApiProperties.Lua properties;
+  private final BlockingQueue<Sandbox> idleSandboxes;
+  private final Timer evaluationTimer;
+  private final Timer waitTimer;
+  private final Counter rejectionCounter;
+
+  public LuaSandboxPool(FafApiProperties fafApiProperties, MeterRegistry meterRegistry) {
+    properties = fafApiProperties.getLua();
+    if (!THREAD_MX_BEAN.isThreadAllocatedMemorySupported()) {
+      throw new IllegalStateException("The JVM can't measure allocated memory per thread, which the Lua sandbox requires");
+    }
+    THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+
+    idleSandboxes = new ArrayBlockingQueue<>(properties.getSandboxes());
+    for (int i = 0; i < properties.getSandboxes(); i++) {
+      idleSandboxes.add(new Sandbox());
+    }
+
+    evaluationTimer = Timer.builder("faf.api.lua.evaluation")
+      .description("Time spent evaluating uploaded Lua files")
+      .register(meterRegistry);
+    waitTimer = Timer.builder("faf.api.lua.sandbox.wait")
+      .description("Time spent waiting for a free Lua sandbox")
+      .register(meterRegistry);
+    rejectionCounter = Counter.builder("faf.api.lua.sandbox.rejected")
+      .description("Number of Lua evaluations rejected because no sandbox became free in time")
+      .register(meterRegistry);
+    Gauge.builder("faf.api.lua.sandbox.busy", idleSandboxes, queue -> properties.getSandboxes() - queue.size())
+      .description("Number of Lua sandboxes currently evaluating a file")
+      .register(meterRegistry);
+  }
+
+  /**
+   * Evaluates the specified Lua code and returns the variables it sets.
+   *
+   * @throws LuaError if the code is too large, can't be compiled, fails, executes too many instructions or allocates
+   * too much memory
+   * @throws ServiceUnavailableApiException if no sandbox became free in time
+   */
+  public LuaTable evaluate(byte[] luaCode, String chunkName) {
+    if (luaCode.length > properties.getMaxCodeSize()) {
+      throw new LuaError(chunkName + " is larger than " + properties.getMaxCodeSize() + " bytes");
+    }
+
+    Sandbox sandbox = acquire();
+    boolean reusable = false;
+    try {
+      LuaTable result = evaluationTimer.record(() -> sandbox.evaluate(luaCode, chunkName, properties));
+      reusable = true;
+      return result;
+    } catch (LuaError e) {
+      reusable = !sandbox.budget.isExceeded();
+      throw e;
+    } catch (StackOverflowError e) {
+      throw new LuaError("Stack overflow in " + chunkName);
+    } finally {
+      // The interpreter state of an aborted evaluation can't be trusted, so the sandbox is replaced
+      idleSandboxes.add(reusable ? sandbox : new Sandbox());
+    }
+  }
+
+  private Sandbox acquire() {
+    Sandbox sandbox = idleSandboxes.poll();
+    if (sandbox != null) {
+      return sandbox;
+    }
+
+    log.debug("All Lua sandboxes are busy, waiting for one to become free");
+    long start = System.nanoTime();
+    try {
+      sandbox = idleSandboxes.poll(properties.getSandboxTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    if (sandbox == null) {
+      rejectionCounter.increment();
+      throw ServiceUnavailableApiException.of(ErrorCode.LUA_SANDBOX_UNAVAILABLE);
+    }
+    return sandbox;
+  }
+
+  private static final class Sandbox {
+    private final Globals globals;
+    /** The view of the globals that evaluated files get, so that they can't modify the globals. */
+    private final LuaTable readOnlyGlobals;
+    private final LuaValue setHook;
+    private final EvaluationBudget budget = new EvaluationBudget();
+
+    private Sandbox() {
+      globals = new Globals();
+      globals.load(new JseBaseLib());
+      globals.load(new PackageLib());
+      globals.load(new TableLib());
+      globals.load(new StringLib());
+      globals.load(new JseMathLib());
+      globals.load(new DebugLib());
+      LoadState.install(globals);
+      LuaC.install(globals);
+
+      setHook = globals.get("debug").get("sethook");
+      // The string metatable refers to the same table, so this also applies to calls like ("x"):rep(n)
+      LuaValue string = globals.get("string");
+      budget.guard(string, "rep", LuaSandboxPool::maxRepLength);
+      budget.guard(string, "format", LuaSandboxPool::maxFormatLength);
+      budget.guard(string, "gsub", LuaSandboxPool::maxGsubLength);
+      budget.guard(globals.get("table"), "concat", LuaSandboxPool::maxConcatLength);
+      globals.load(ENGINE_FUNCTIONS, "engine").call();
+      for (String name : UNSAFE_GLOBALS) {
+        globals.set(name, LuaValue.NIL);
+      }
+      for (String name : LIBRARIES) {
+        globals.set(name, readOnly(globals.get(name)));
+      }
+      readOnlyGlobals = readOnly(globals);
+    }
+
+    private LuaTable evaluate(byte[] luaCode, String chunkName, FafApiProperties.Lua properties) {
+      LuaTable environment = new LuaTable();
+      environment.setmetatable(metatable(readOnlyGlobals, null));
+      LuaValue chunk;
+      try {
+        Prototype prototype = globals.loadPrototype(new ByteArrayInputStream(luaCode), chunkName, "t");
+        checkConcatenations(prototype, chunkName);
+        chunk = globals.loader.load(prototype, chunkName, environment);
+      } catch (IOException e) {
+        throw new LuaError("Could not load " + chunkName + ": " + e.getMessage());
+      }
+
+      budget.reset(properties.getMaxInstructions(), properties.getMaxAllocatedBytes());
+      setHook.call(budget, LuaValue.EMPTYSTRING, LuaValue.ONE);
+      try {
+        chunk.call();
+      } finally {
+        setHook.call();
+      }
+      return environment;
+    }
+  }
+
+  private static void checkConcatenations(Prototype prototype, String chunkName) {
+    for (int instruction : prototype.code) {
+      if (Lua.GET_OPCODE(instruction) == Lua.OP_CONCAT
+        && Lua.GETARG_C(instruction) - Lua.GETARG_B(instruction) + 1 > MAX_CONCATENATED_VALUES) {
+        throw new LuaError(chunkName + " concatenates more than " + MAX_CONCATENATED_VALUES + " values in one expression");
+      }
+    }
+    for (Prototype function : prototype.p) {
+      checkConcatenations(function, chunkName);
+    }
+  }
+
+  /**
+   * The instruction hook of a sandbox, which is called before every instruction. Calling it with a larger interval
+   * would allow a loop like {@code s = s .. s} to double a string several times between two checks.
+   */
+  private static final class EvaluationBudget extends VarArgFunction {
+    private int remainingInstructions;
+    /** The number of bytes allocated by the evaluating thread at which the evaluation is aborted. */
+    private long allocationLimit;
+    private boolean exceeded;
+
+    private void reset(int maxInstructions, long maxAllocatedBytes) {
+      remainingInstructions = maxInstructions;
+      allocationLimit = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() + maxAllocatedBytes;
+      exceeded = false;
+    }
+
+    /**
+     * Replaces the specified library function by one that checks the budget before creating a string of up to the
+     * specified length.
+     */
+    private void guard(LuaValue library, String name, ToLongFunction<Varargs> maxResultLength) {
+      LuaValue function = library.get(name);
+      library.set(name, new VarArgFunction() {
+        @Override
+        public Varargs invoke(Varargs args) {
+          if (maxResultLength.applyAsLong(args) > remainingBytes()) {
+            abort("Memory limit exceeded by " + name);
+          }
+          return function.invoke(args);
+        }
+      });
+    }
+
+    // Overridden instead of invoke() so that the hook doesn't allocate an argument list for each instruction
+    @Override
+    public LuaValue call(LuaValue event, LuaValue line) {
+      if (--remainingInstructions < 0) {
+        abort("Instruction limit exceeded");
+      }
+      if (remainingBytes() < 0) {
+        abort("Memory limit exceeded");
+      }
+      return LuaValue.NONE;
+    }
+
+    @Override
+    public Varargs invoke(Varargs args) {
+      return call(args.arg1(), args.arg(2));
+    }
+
+    private long remainingBytes() {
+      return allocationLimit - THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    private void abort(String message) {
+      exceeded = true;
+      throw new LuaError(message);
+    }
+
+    private boolean isExceeded() {
+      return exceeded;
+    }
+  }
+
+  private static long maxRepLength(Varargs args) {
+    long count = Math.max(args.checkint(2), 0);
+    return args.checkstring(1).length() * count + args.optstring(3, LuaValue.EMPTYSTRING).length() * Math.max(count - 1, 0);
+  }
+
+  private static long maxFormatLength(Varargs args) {
+    // %q escapes a character with up to four characters
+    long length = args.checkstring(1).length();
+    for (int i = 2; i <= args.narg(); i++) {
+      length += 4L * stringLength(args.arg(i)) + MAX_FORMATTED_VALUE_LENGTH;
+    }
+    return length;
+  }
+
+  private static long maxGsubLength(Varargs args) {
+    long length = args.checkstring(1).length();
+    long matches = Math.min(length + 1, Math.max(args.optint(4, Integer.MAX_VALUE), 0));
+    LuaValue replacement = args.arg(3);
+    long replacementLength;
+    if (replacement.istable()) {
+      replacementLength = 0;
+      Varargs entry = replacement.next(LuaValue.NIL);
+      while (!entry.arg1().isnil()) {
+        replacementLength = Math.max(replacementLength, stringLength(entry.arg(2)));
+        entry = replacement.next(entry.arg1());
+      }
+    } else if (replacement.isfunction()) {
+      // The function is evaluated by the sandbox, which checks the budget in between the replacements
+      replacementLength = 0;
+    } else {
+      // Each character of the replacement may be a capture like %0, which is at most as long as the string
+      replacementLength = stringLength(replacement) * Math.max(length, 1);
+    }
+    return length + matches * replacementLength;
+  }
+
+  private static long maxConcatLength(Varargs args) {
+    LuaTable table = args.checktable(1);
+    long separatorLength = args.optstring(2, LuaValue.EMPTYSTRING).length();
+    long first = args.optint(3, 1);
+    long last = args.isnoneornil(4) ? table.length() : args.checkint(4);
+    long length = 0;
+    for (long i = first; i <= last; i++) {
+      LuaValue value = table.get((int) i);
+      if (!value.isstring()) {
+        // table.concat fails on such a value
+        break;
+      }
+      length += stringLength(value) + (i > first ? separatorLength : 0);
+    }
+    return length;
+  }
+
+  private static long stringLength(LuaValue value) {
+    // Other values, like numbers, are short when converted to a string
+    return value.type() == LuaValue.TSTRING ? value.length() : value.tojstring().length();
+  }
+
+  private static LuaTable readOnly(LuaValue table) {
+    LuaTable proxy = new LuaTable();
+    proxy.setmetatable(metatable(table, new VarArgFunction() {
+      @Override
+      public Varargs invoke(Varargs args) {
+        throw new LuaError("Attempt to modify a read-only table");
+      }
+    }));
+    return proxy;
+  }
+
+  private static LuaTable metatable(LuaValue index, LuaValue newIndex) {
+    LuaTable metatable = new LuaTable();
+    metatable.set(LuaValue.INDEX, index);
+    if (newIndex != null) {
+      metatable.set(LuaValue.NEWINDEX, newIndex);
+    }
+    metatable.set(LuaValue.METATABLE, LuaValue.FALSE);
+    return metatable;
+  }
+}
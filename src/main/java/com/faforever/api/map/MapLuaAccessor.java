@@ -1,12 +1,17 @@
 package com.faforever.api.map;
 
+import com.faforever.api.lua.LuaSandboxPool;
 import com.faforever.commons.lua.LuaAccessor;
+import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaValue;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.regex.Pattern;
 
 public class MapLuaAccessor {
   private static final String ROOT_ELEMENT = "ScenarioInfo";
@@ -22,55 +27,86 @@ public class MapLuaAccessor {
   private static final String CONFIGURATION_STANDARD_TEAMS_NAME = "name";
   private static final String CONFIGURATION_STANDARD_TEAMS_ARMIES = "armies";
   private static final String ADAPTIVE_MAP = "AdaptiveMap";
+  private static final String MAPS_FOLDER = "/maps/";
+  private static final Pattern VERSION_SUFFIX_PATTERN = Pattern.compile("\\.v\\d{4}", Pattern.CASE_INSENSITIVE);
+  private static final int VERSION_SUFFIX_LENGTH = ".v0000".length();
 
-  private final LuaAccessor luaAccessor;
+  private final LuaValue root;
 
-  private MapLuaAccessor(LuaAccessor luaAccessor) {
-    this.luaAccessor = luaAccessor;
+  private MapLuaAccessor(LuaValue root) {
+    if (root.isnil()) {
+      throw new LuaError(ROOT_ELEMENT + " is not defined");
+    }
+    this.root = root;
   }
 
-  public static MapLuaAccessor of(Path scenarioLuaPath) throws IOException {
-    return new MapLuaAccessor(LuaAccessor.of(scenarioLuaPath, ROOT_ELEMENT));
+  public static MapLuaAccessor of(Path scenarioLuaPath, LuaSandboxPool luaSandboxPool) throws IOException {
+    return new MapLuaAccessor(luaSandboxPool.evaluate(Files.readAllBytes(scenarioLuaPath), scenarioLuaPath.getFileName().toString())
+      .get(ROOT_ELEMENT));
   }
 
-  public static MapLuaAccessor of(String scenarioLuaCode) throws IOException {
-    return new MapLuaAccessor(LuaAccessor.of(scenarioLuaCode, ROOT_ELEMENT));
+  public static MapLuaAccessor of(String scenarioLuaCode, LuaSandboxPool luaSandboxPool) {
+    return new MapLuaAccessor(luaSandboxPool.evaluate(scenarioLuaCode.getBytes(StandardCharsets.UTF_8), "scenario.lua")
+      .get(ROOT_ELEMENT));
   }
 
   public Optional<String> getName() {
-    return luaAccessor.readVariableString(NAME);
+    return readVariableString(NAME);
   }
 
   public Optional<String> getDescription() {
-    return luaAccessor.readVariableString(DESCRIPTION);
+    return readVariableString(DESCRIPTION);
   }
 
   public Optional<String> getType() {
-    return luaAccessor.readVariableString(TYPE);
+    return readVariableString(TYPE);
   }
 
   public Optional<LuaValue> getSize() {
-    return luaAccessor.readVariable(SIZE);
+    return readVariable(SIZE);
   }
 
   public OptionalInt getMapVersion() {
-    return luaAccessor.readVariableInt(MAP_VERSION);
+    return readVariableInt(MAP_VERSION);
   }
 
   public OptionalInt getNoRushRadius() {
-    return luaAccessor.readVariableInt(NO_RUSH_RADIUS);
+    return readVariableInt(NO_RUSH_RADIUS);
   }
 
   public Optional<Boolean> isAdaptive() {
-    return luaAccessor.readVariableBool(ADAPTIVE_MAP);
+    return readVariable(ADAPTIVE_MAP)
+      .filter(LuaValue::isboolean)
+      .map(LuaValue::toboolean);
   }
 
-  public boolean hasVariableMatchingIgnoreCase(String regex, String... names) {
-    return luaAccessor.hasVariableMatchingIgnoreCase(regex, names);
+  /**
+   * Checks whether the specified variable contains the path of a file in the map folder, like
+   * {@code /maps/folder.v0001/file}. The version suffix of the folder is optional, and case is ignored like by the game.
+   * This is called several times for each keystroke in the scenario validator of the website, so the path is compared
+   * without building a regular expression for it.
+   */
+  public boolean hasMapFilePath(String variableName, String folderNameWithoutVersion, String fileName) {
+    return readVariableString(variableName)
+      .filter(path -> isMapFilePath(path, folderNameWithoutVersion, fileName))
+      .isPresent();
+  }
+
+  static boolean isMapFilePath(String path, String folderNameWithoutVersion, String fileName) {
+    int folderEnd = MAPS_FOLDER.length() + folderNameWithoutVersion.length();
+    int fileStart = path.length() - fileName.length();
+    int versionLength = fileStart - 1 - folderEnd;
+
+    return (versionLength == 0
+      || versionLength == VERSION_SUFFIX_LENGTH && VERSION_SUFFIX_PATTERN.matcher(path).region(folderEnd, folderEnd + versionLength).matches())
+      && path.regionMatches(true, 0, MAPS_FOLDER, 0, MAPS_FOLDER.length())
+      && path.regionMatches(true, MAPS_FOLDER.length(), folderNameWithoutVersion, 0, folderNameWithoutVersion.length())
+      && path.charAt(fileStart - 1) == '/'
+      && path.regionMatches(true, fileStart, fileName, 0, fileName.length());
   }
 
   public Optional<LuaValue> getFirstTeam() {
-    Optional<LuaValue> configurationStandardTeamsOptional = luaAccessor.readVariable(
+    Optional<LuaValue> configurationStandardTeamsOptional = readVariable(
       CONFIGURATIONS, CONFIGURATION_STANDARD, CONFIGURATION_STANDARD_TEAMS);
 
     return configurationStandardTeamsOptional
@@ -86,6 +122,30 @@ public class MapLuaAccessor {
       .orElse(true);
   }
 
+  private Optional<LuaValue> readVariable(String... names) {
+    LuaValue value = root;
+    for (String name : names) {
+      if (!value.istable()) {
+        return Optional.empty();
+      }
+      value = value.get(name);
+    }
+    return value.isnil() ? Optional.empty() : Optional.of(value);
+  }
+
+  private Optional<String> readVariableString(String... names) {
+    return readVariable(names)
+      .filter(LuaValue::isstring)
+      .map(LuaValue::tojstring);
+  }
+
+  private OptionalInt readVariableInt(String... names) {
+    return readVariable(names)
+      .filter(LuaValue::isnumber)
+      .map(value -> OptionalInt.of(value.toint()))
+      .orElseGet(OptionalInt::empty);
+  }
+
   public String getName$() {
     return getName().get();
   }
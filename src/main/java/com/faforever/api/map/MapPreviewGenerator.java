@@ -0,0 +1,130 @@
+package com.faforever.api.map;
+
+import com.faforever.api.utils.FilePermissionUtil;
+import com.faforever.commons.map.PreviewGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the small and the large preview of a map. The map is only decoded and rendered once, in the large size;
+ * the small preview is derived from it by downscaling. Both images are then encoded concurrently, the large one on a
+ * small shared pool so that concurrent uploads can't spawn an unbounded number of threads.
+ */
+@Component
+@Slf4j
+public class MapPreviewGenerator implements DisposableBean {
+
+  private static final int ENCODING_THREADS = 2;
+
+  private final ExecutorService encodingExecutor;
+  private final MeterRegistry meterRegistry;
+
+  public MapPreviewGenerator(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    AtomicInteger threadNumber = new AtomicInteger();
+    encodingExecutor = Executors.newFixedThreadPool(ENCODING_THREADS, runnable -> {
+      Thread thread = new Thread(runnable, "map-preview-encoder-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Renders the map in the specified folder and writes its previews as PNG files.
+   */
+  @SneakyThrows
+  public void generatePreviews(Path mapFolder, Path smallPreviewFile, int smallSize, Path largePreviewFile, int largeSize) {
+    log.debug("Generating previews of map '{}'", mapFolder);
+    BufferedImage largePreview = timer("render").recordCallable(() -> PreviewGenerator.generatePreview(mapFolder, largeSize, largeSize));
+
+    CompletableFuture<Void> largeEncoding = CompletableFuture.runAsync(() -> write(largePreview, largePreviewFile), encodingExecutor);
+    BufferedImage smallPreview = timer("downscale").record(() -> downscale(largePreview, smallSize));
+    write(smallPreview, smallPreviewFile);
+
+    try {
+      largeEncoding.join();
+    } catch (CompletionException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Scales the image down so that its longer side fits the specified size, keeping its aspect ratio. This is done in
+   * steps of at most half its size, each using bilinear interpolation, which is considerably faster than area averaging
+   * but looks just as smooth. Images that are not larger than the specified size are returned as they are.
+   */
+  static BufferedImage downscale(BufferedImage image, int size) {
+    double targetScale = Math.min(1, (double) size / Math.max(image.getWidth(), image.getHeight()));
+    BufferedImage result = image;
+    double scale = 1;
+    while (scale > targetScale) {
+      scale = Math.max(scale / 2, targetScale);
+      int width = Math.max((int) Math.round(image.getWidth() * scale), 1);
+      int height = Math.max((int) Math.round(image.getHeight() * scale), 1);
+
+      BufferedImage scaled = new BufferedImage(width, height,
+        image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+      Graphics2D graphics = scaled.createGraphics();
+      try {
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(result, 0, 0, width, height, null);
+      } finally {
+        graphics.dispose();
+      }
+      result = scaled;
+    }
+    return result;
+  }
+
+  private void write(BufferedImage image, Path target) {
+    timer("encode").record(() -> {
+      try {
+        if (target.getNameCount() > 0) {
+          Files.createDirectories(target.getParent(), FilePermissionUtil.directoryPermissionFileAttributes());
+        }
+        // Unlike writing to a file directly, this neither uses a temporary cache file nor unbuffered random access
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(target));
+             ImageOutputStream imageOutputStream = new MemoryCacheImageOutputStream(outputStream)) {
+          ImageIO.write(image, "png", imageOutputStream);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  private Timer timer(String stage) {
+    return Timer.builder("faf.api.map.preview")
+      .description("Time spent generating map previews")
+      .tag("stage", stage)
+      .register(meterRegistry);
+  }
+
+  @Override
+  public void destroy() {
+    encodingExecutor.shutdown();
+  }
+}
@@ -10,12 +10,11 @@ import com.faforever.api.data.domain.Player;
 import com.faforever.api.error.ApiException;
 import com.faforever.api.error.Error;
 import com.faforever.api.error.ErrorCode;
+import com.faforever.api.lua.LuaSandboxPool;
 import com.faforever.api.map.MapNameValidationResponse.FileNames;
 import com.faforever.api.utils.FilePermissionUtil;
 import com.faforever.api.utils.NameUtil;
 import com.faforever.commons.io.Unzipper;
-import com.faforever.commons.io.Zipper;
-import com.faforever.commons.map.PreviewGenerator;
 import com.google.common.annotations.VisibleForTesting;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -28,20 +27,22 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
 import org.springframework.util.FileSystemUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.HttpClientErrorException;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -83,6 +84,9 @@ public class MapService {
   private final FafApiProperties fafApiProperties;
   private final MapRepository mapRepository;
   private final ContentService contentService;
+  private final MapPreviewGenerator mapPreviewGenerator;
+  private final PlatformTransactionManager transactionManager;
+  private final LuaSandboxPool luaSandboxPool;
 
   public MapNameValidationResponse requestMapNameValidation(String mapName) {
     Assert.notNull(mapName, "The map name is mandatory.");
@@ -145,28 +149,36 @@ public class MapService {
   @VisibleForTesting
   void validateScenarioLua(String scenarioLua) {
     try {
-      MapLuaAccessor mapLua = MapLuaAccessor.of(scenarioLua);
+      MapLuaAccessor mapLua = MapLuaAccessor.of(scenarioLua, luaSandboxPool);
       MapNameBuilder mapNameBuilder = new MapNameBuilder(mapLua.getName()
         .orElseThrow(() -> ApiException.of(ErrorCode.MAP_NAME_MISSING)));
       validateScenarioLua(mapLua, mapNameBuilder);
-    } catch (IOException | LuaError e) {
+    } catch (LuaError e) {
       throw ApiException.of(ErrorCode.PARSING_LUA_FILE_FAILED, e.getMessage());
     }
   }
 
-  @Transactional
+  /**
+   * Validates and stores an uploaded map. Since this takes a while for large maps, a database transaction is only
+   * opened to validate the metadata before the files are processed, and for the final write. All files are created
+   * in a temporary folder and only moved to their final locations within the final transaction, so that a concurrent
+   * upload of the same map version can't overwrite them.
+   *
+   * @param uploadedZip the uploaded zip file, which is read but neither modified nor deleted. Its entries are copied
+   * into the final zip file without recompressing them.
+   */
   @SneakyThrows
   @CacheEvict(value = {Map.TYPE_NAME, MapVersion.TYPE_NAME}, allEntries = true)
-  public void uploadMap(InputStream mapDataInputStream, String mapFilename, Player author, boolean isRanked) {
+  public void uploadMap(Path uploadedZip, String mapFilename, Player author, boolean isRanked) {
     Assert.notNull(author, "'author' must not be null");
-    Assert.isTrue(mapDataInputStream.available() > 0, "'mapData' must not be empty");
+    Assert.isTrue(Files.size(uploadedZip) > 0, "'uploadedZip' must not be empty");
 
     checkAuthorVaultBan(author);
 
     Path rootTempFolder = contentService.createTempDir();
 
-    try (mapDataInputStream) {
-      Path unzippedFileFolder = unzipToTemporaryDirectory(mapDataInputStream, rootTempFolder);
+    try {
+      Path unzippedFileFolder = unzipToTemporaryDirectory(uploadedZip, rootTempFolder);
       Path mapFolder = validateMapFolderStructure(unzippedFileFolder);
       validateRequiredFiles(mapFolder, MANDATORY_FILES);
 
@@ -182,24 +194,35 @@ public class MapService {
 
       validateScenarioLua(mapLua, mapNameBuilder);
 
-      Optional<Map> existingMapOptional = validateMapMetadata(mapLua, mapNameBuilder, author);
-
-      updateHibernateMapEntities(mapLua, existingMapOptional, author, isRanked, mapNameBuilder);
+      TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+      transactionTemplate.executeWithoutResult(status -> validateMapMetadata(mapLua, mapNameBuilder, author));
 
       Path mapFolderAfterRenaming = unzippedFileFolder.resolveSibling(
         mapNameBuilder.buildFolderName(mapLua.getMapVersion$()));
       Files.move(mapFolder, mapFolderAfterRenaming);
-
-      updateLuaFiles(mapFolder, mapFolderAfterRenaming);
-      generatePreview(mapFolderAfterRenaming);
-
-      zipMapData(mapFolderAfterRenaming, mapNameBuilder.buildFinalZipPath(mapLua.getMapVersion$()));
+      String previewFilename = mapFolderAfterRenaming.getFileName() + ".png";
+      Path smallPreview = rootTempFolder.resolve("previews").resolve("small").resolve(previewFilename);
+      Path largePreview = rootTempFolder.resolve("previews").resolve("large").resolve(previewFilename);
+      generatePreview(mapFolderAfterRenaming, smallPreview, largePreview);
+
+      Path zipFile = rootTempFolder.resolve(mapNameBuilder.buildFinalZipName(mapLua.getMapVersion$()));
+      new MapZipTransformer(MAP_CHARSET, mapFolder.getFileName().toString(), mapFolderAfterRenaming.getFileName().toString())
+        .transform(uploadedZip, zipFile);
+
+      // Another upload of the same map may have finished in the meantime, so the metadata is validated again
+      transactionTemplate.executeWithoutResult(status -> {
+        Optional<Map> existingMapOptional = validateMapMetadata(mapLua, mapNameBuilder, author);
+        updateHibernateMapEntities(mapLua, existingMapOptional, author, isRanked, mapNameBuilder);
+        moveToTargetDirectory(zipFile, mapNameBuilder.buildFinalZipPath(mapLua.getMapVersion$()));
+        movePreviewToTargetDirectory(smallPreview, fafApiProperties.getMap().getDirectoryPreviewPathSmall().resolve(previewFilename));
+        movePreviewToTargetDirectory(largePreview, fafApiProperties.getMap().getDirectoryPreviewPathLarge().resolve(previewFilename));
+      });
     } finally {
       FileSystemUtils.deleteRecursively(rootTempFolder);
     }
   }
 
-  private void checkAuthorVaultBan(Player author) {
+  void checkAuthorVaultBan(Player author) {
     author.getActiveBanOf(BanLevel.VAULT)
       .ifPresent((banInfo) -> {
         String message = banInfo.getDuration() == BanDurationType.PERMANENT ?
@@ -210,12 +233,12 @@ public class MapService {
       });
   }
 
-  private Path unzipToTemporaryDirectory(InputStream mapDataInputStream, Path rootTempFolder)
+  private Path unzipToTemporaryDirectory(Path uploadedZip, Path rootTempFolder)
     throws IOException, ArchiveException {
     Path unzippedDirectory = Files.createDirectories(rootTempFolder.resolve("unzipped-content"));
-    log.debug("Unzipping uploaded file ''{}'' to: {}", mapDataInputStream, unzippedDirectory);
+    log.debug("Unzipping uploaded file ''{}'' to: {}", uploadedZip, unzippedDirectory);
 
-    Unzipper.from(mapDataInputStream)
+    Unzipper.from(uploadedZip)
       .zipBombByteCountThreshold(5_000_000)
       .zipBombProtectionFactor(200)
       .to(unzippedDirectory)
@@ -271,7 +294,7 @@ public class MapService {
         .filter(myFile -> myFile.toString().endsWith(FILE_ENDING_SCENARIO))
         .findFirst()
         .orElseThrow(() -> ApiException.of(ErrorCode.MAP_SCENARIO_LUA_MISSING));
-      return MapLuaAccessor.of(scenarioLuaPath);
+      return MapLuaAccessor.of(scenarioLuaPath, luaSandboxPool);
     } catch (LuaError e) {
       throw ApiException.of(ErrorCode.PARSING_LUA_FILE_FAILED, e.getMessage());
     }
@@ -315,10 +338,7 @@ public class MapService {
     String mapFileName = mapNameBuilder.buildFileName(fileEnding);
     String mapFolderNameWithoutVersion = mapNameBuilder.buildFolderNameWithoutVersion();
 
-    String regex = format("\\/maps\\/{0}(\\.v\\d{4})?\\/{1}",
-      mapFolderNameWithoutVersion, mapFileName);
-
-    if (!mapLua.hasVariableMatchingIgnoreCase(regex, variableName)) {
+    if (!mapLua.hasMapFilePath(variableName, mapFolderNameWithoutVersion, mapFileName)) {
       return Optional.of(new Error(ErrorCode.MAP_SCRIPT_LINE_MISSING,
         format("{0} = ''/maps/{1}/{2}''", variableName, mapFolderNameWithoutVersion, mapFileName)));
     }
@@ -394,50 +414,51 @@ public class MapService {
     return map;
   }
 
-  private void updateLuaFiles(Path oldFolderPath, Path newFolderPath) throws IOException {
-    String oldNameFolder = "/maps/" + oldFolderPath.getFileName();
-    String newNameFolder = "/maps/" + newFolderPath.getFileName();
-    try (Stream<Path> mapFileStream = Files.list(newFolderPath)) {
-      mapFileStream
-        .filter(path -> path.toString().toLowerCase().endsWith(".lua"))
-        .forEach(path -> noCatch(() -> {
-          List<String> lines = Files.readAllLines(path, MAP_CHARSET).stream()
-            .map(line -> line.replaceAll("(?i)" + oldNameFolder, newNameFolder))
-            .toList();
-          Files.write(path, lines, MAP_CHARSET);
-        }));
-    }
-  }
-
-  private void generatePreview(Path newMapFolder) throws IOException {
-    String previewFilename = newMapFolder.getFileName() + ".png";
-    generateImage(
-      fafApiProperties.getMap().getDirectoryPreviewPathSmall().resolve(previewFilename),
-      newMapFolder,
-      fafApiProperties.getMap().getPreviewSizeSmall());
-
-    generateImage(
-      fafApiProperties.getMap().getDirectoryPreviewPathLarge().resolve(previewFilename),
-      newMapFolder,
-      fafApiProperties.getMap().getPreviewSizeLarge());
+  private void generatePreview(Path newMapFolder, Path smallPreview, Path largePreview) {
+    mapPreviewGenerator.generatePreviews(newMapFolder,
+      smallPreview, fafApiProperties.getMap().getPreviewSizeSmall(),
+      largePreview, fafApiProperties.getMap().getPreviewSizeLarge());
   }
 
-  private void zipMapData(Path newMapFolder, Path finalZipPath) throws IOException, ArchiveException {
+  /**
+   * Moves the zip file to its final location. This is done last within the transaction that stores the map, so that
+   * the transaction is rolled back if the file already exists.
+   */
+  @SneakyThrows
+  private void moveToTargetDirectory(Path zipFile, Path finalZipPath) {
     Files.createDirectories(finalZipPath.getParent(), FilePermissionUtil.directoryPermissionFileAttributes());
-    Zipper
-      .of(newMapFolder)
-      .to(finalZipPath)
-      .zip();
+    try {
+      Files.move(zipFile, finalZipPath);
+    } catch (FileAlreadyExistsException e) {
+      throw ApiException.of(ErrorCode.MAP_NAME_CONFLICT, finalZipPath.getFileName().toString());
+    }
     // TODO if possible, this should be done using umask instead
     FilePermissionUtil.setDefaultFilePermission(finalZipPath);
+    deleteOnRollback(finalZipPath);
+  }
+
+  /**
+   * Moves a preview to its final location. This is done after the zip file has been moved, which fails if the same
+   * map version has been stored concurrently, so that the previews of the stored map are never overwritten.
+   */
+  @SneakyThrows
+  private void movePreviewToTargetDirectory(Path preview, Path finalPreviewPath) {
+    Files.createDirectories(finalPreviewPath.getParent(), FilePermissionUtil.directoryPermissionFileAttributes());
+    Files.move(preview, finalPreviewPath, StandardCopyOption.REPLACE_EXISTING);
+    deleteOnRollback(finalPreviewPath);
   }
 
-  private void generateImage(Path target, Path baseDir, int size) throws IOException {
-    BufferedImage image = PreviewGenerator.generatePreview(baseDir, size, size);
-    if (target.getNameCount() > 0) {
-      Files.createDirectories(target.getParent(), FilePermissionUtil.directoryPermissionFileAttributes());
+  private void deleteOnRollback(Path file) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        public void afterCompletion(int status) {
+          if (status != STATUS_COMMITTED) {
+            log.debug("Deleting '{}' since the map could not be stored", file);
+            noCatch(() -> Files.deleteIfExists(file));
+          }
+        }
+      });
     }
-    ImageIO.write(image, "png", target.toFile());
   }
 
   static class ScenarioMapInfo {
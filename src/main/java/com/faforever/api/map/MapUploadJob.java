@@ -0,0 +1,52 @@
+package com.faforever.api.map;
+
+import com.faforever.api.error.ErrorResult;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * An uploaded map that is processed in the background by the {@link MapUploadJobService}.
+ */
+@Getter
+public class MapUploadJob {
+
+  public enum State {
+    QUEUED, PROCESSING, SUCCEEDED, FAILED
+  }
+
+  private final String id;
+  @JsonIgnore
+  private final int playerId;
+  private final String fileName;
+  private final Instant submittedAt = Instant.now();
+  private volatile Instant startedAt;
+  private volatile Instant finishedAt;
+  private volatile State state = State.QUEUED;
+  /** Why the upload failed, in the same format as errors of a synchronous request. */
+  private volatile List<ErrorResult> errors = List.of();
+
+  MapUploadJob(String id, int playerId, String fileName) {
+    this.id = id;
+    this.playerId = playerId;
+    this.fileName = fileName;
+  }
+
+  void start() {
+    startedAt = Instant.now();
+    state = State.PROCESSING;
+  }
+
+  void succeed() {
+    finishedAt = Instant.now();
+    state = State.SUCCEEDED;
+  }
+
+  void fail(List<ErrorResult> errors) {
+    this.errors = errors;
+    finishedAt = Instant.now();
+    state = State.FAILED;
+  }
+}
@@ -0,0 +1,134 @@
+package com.faforever.api.map;
+
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.content.ContentService;
+import com.faforever.api.data.domain.Player;
+import com.faforever.api.error.ApiException;
+import com.faforever.api.error.Error;
+import com.faforever.api.error.ErrorCode;
+import com.faforever.api.error.ErrorResult;
+import com.faforever.api.error.NotFoundApiException;
+import com.faforever.api.error.ServiceUnavailableApiException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes uploaded maps on a bounded pool of worker threads, so that neither a request thread nor a database
+ * connection is held while a map is unzipped, validated, rendered and zipped again. Uploads are rejected if too many
+ * are waiting already.
+ * <p>
+ * Jobs are only known to the instance that they have been submitted to, which is fine as long as the API runs on a
+ * single node. Before running multiple instances, jobs need to be stored in a shared store, or clients need to be
+ * routed to the instance that accepted their upload.
+ */
+@Service
+@Slf4j
+public class MapUploadJobService implements DisposableBean {
+
+  private final MapService mapService;
+  private final ContentService contentService;
+  private final ThreadPoolExecutor executor;
+  /** Jobs of this instance only, see the class documentation. */
+  private final Cache<String, MapUploadJob> jobsById;
+
+  public MapUploadJobService(MapService mapService, ContentService contentService, FafApiProperties properties) {
+    this.mapService = mapService;
+    this.contentService = contentService;
+
+    FafApiProperties.Map mapProperties = properties.getMap();
+    AtomicInteger threadNumber = new AtomicInteger();
+    executor = new ThreadPoolExecutor(mapProperties.getUploadWorkers(), mapProperties.getUploadWorkers(),
+      0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(mapProperties.getUploadQueueCapacity()),
+      runnable -> {
+        Thread thread = new Thread(runnable, "map-upload-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    jobsById = Caffeine.newBuilder()
+      .expireAfterWrite(mapProperties.getUploadJobRetention())
+      .build();
+  }
+
+  /**
+   * Copies the uploaded file, since it is deleted as soon as the request has been completed, and queues it for
+   * processing.
+   *
+   * @param author the uploading player, whose bans must have been loaded already
+   */
+  public MapUploadJob submit(MultipartFile file, Player author, boolean isRanked) throws IOException {
+    Path tempDirectory = contentService.createTempDir();
+    Path uploadedFile = tempDirectory.resolve("upload.zip");
+    file.transferTo(uploadedFile);
+
+    MapUploadJob job = new MapUploadJob(UUID.randomUUID().toString(), author.getId(), file.getOriginalFilename());
+    jobsById.put(job.getId(), job);
+    try {
+      executor.execute(() -> process(job, uploadedFile, tempDirectory, author, isRanked));
+    } catch (RejectedExecutionException e) {
+      jobsById.invalidate(job.getId());
+      FileSystemUtils.deleteRecursively(tempDirectory.toFile());
+      throw ServiceUnavailableApiException.of(ErrorCode.MAP_UPLOAD_QUEUE_FULL);
+    }
+
+    log.debug("Queued upload of map '{}' by player '{}' as job '{}'", job.getFileName(), author, job.getId());
+    return job;
+  }
+
+  /**
+   * Returns the upload job with the specified ID, if it has been submitted by the specified player.
+   */
+  public MapUploadJob getJob(String jobId, Player player) {
+    return Optional.ofNullable(jobsById.getIfPresent(jobId))
+      .filter(job -> job.getPlayerId() == player.getId())
+      .orElseThrow(() -> new NotFoundApiException(new Error(ErrorCode.ENTITY_NOT_FOUND, jobId)));
+  }
+
+  private void process(MapUploadJob job, Path uploadedFile, Path tempDirectory, Player author, boolean isRanked) {
+    job.start();
+    try {
+      mapService.uploadMap(uploadedFile, job.getFileName(), author, isRanked);
+      job.succeed();
+    } catch (ApiException e) {
+      log.debug("Upload of map '{}' is invalid", job.getFileName(), e);
+      HttpStatus status = e instanceof ServiceUnavailableApiException ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.UNPROCESSABLE_ENTITY;
+      job.fail(Arrays.stream(e.getErrors())
+        .map(error -> ErrorResult.of(error, status))
+        .toList());
+    } catch (Exception e) {
+      // The details are only logged, since they may reveal internals like file paths
+      log.warn("Upload of map '{}' failed in job '{}'", job.getFileName(), job.getId(), e);
+      job.fail(List.of(new ErrorResult(
+        String.valueOf(HttpStatus.INTERNAL_SERVER_ERROR.value()),
+        HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase(),
+        "The map could not be processed due to an internal error."
+      )));
+    } finally {
+      FileSystemUtils.deleteRecursively(tempDirectory.toFile());
+      // Restarts the retention period
+      jobsById.put(job.getId(), job);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,104 @@
+package com.faforever.api.map;
+
+import com.faforever.api.error.ApiException;
+import com.faforever.api.error.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Copies an uploaded map zip file to a new one in which the map folder is renamed. All entries are copied without
+ * decompressing them, except for the Lua files in the map folder, in which references to the old folder are
+ * replaced.
+ */
+@Slf4j
+final class MapZipTransformer {
+
+  private final Charset charset;
+  private final String oldFolderName;
+  private final String newFolderName;
+  private final Pattern oldFolderReferencePattern;
+  private final String newFolderReference;
+
+  MapZipTransformer(Charset charset, String oldFolderName, String newFolderName) {
+    this.charset = charset;
+    this.oldFolderName = oldFolderName;
+    this.newFolderName = newFolderName;
+    oldFolderReferencePattern = Pattern.compile(Pattern.quote("/maps/" + oldFolderName), Pattern.CASE_INSENSITIVE);
+    newFolderReference = Matcher.quoteReplacement("/maps/" + newFolderName);
+  }
+
+  void transform(Path sourceZip, Path targetZip) throws IOException {
+    log.debug("Copying '{}' to '{}', renaming folder '{}' to '{}'", sourceZip, targetZip, oldFolderName, newFolderName);
+    try (ZipFile zipFile = new ZipFile(sourceZip.toFile());
+         ZipArchiveOutputStream outputStream = new ZipArchiveOutputStream(targetZip.toFile())) {
+      Enumeration<ZipArchiveEntry> entries = zipFile.getEntriesInPhysicalOrder();
+      while (entries.hasMoreElements()) {
+        ZipArchiveEntry entry = entries.nextElement();
+        String newName = rename(entry.getName());
+
+        if (isLuaFileInMapFolder(entry)) {
+          ZipArchiveEntry newEntry = new ZipArchiveEntry(newName);
+          newEntry.setTime(entry.getTime());
+          outputStream.putArchiveEntry(newEntry);
+          try (InputStream inputStream = zipFile.getInputStream(entry)) {
+            outputStream.write(rewriteLua(inputStream.readAllBytes()));
+          }
+          outputStream.closeArchiveEntry();
+        } else {
+          outputStream.addRawArchiveEntry(copyEntry(entry, newName), zipFile.getRawInputStream(entry));
+        }
+      }
+    }
+  }
+
+  private String rename(String entryName) {
+    if (entryName.equals(oldFolderName + "/")) {
+      return newFolderName + "/";
+    }
+    if (!entryName.startsWith(oldFolderName + "/")) {
+      // Validated before, since the extracted zip file must only contain the map folder
+      throw ApiException.of(ErrorCode.MAP_INVALID_ZIP);
+    }
+    return newFolderName + entryName.substring(oldFolderName.length());
+  }
+
+  /**
+   * Only Lua files directly inside the map folder reference the folder.
+   */
+  private boolean isLuaFileInMapFolder(ZipArchiveEntry entry) {
+    String name = entry.getName();
+    return !entry.isDirectory()
+      && name.indexOf('/') == name.lastIndexOf('/')
+      && name.toLowerCase(Locale.ROOT).endsWith(".lua");
+  }
+
+  private byte[] rewriteLua(byte[] content) {
+    return oldFolderReferencePattern.matcher(new String(content, charset))
+      .replaceAll(newFolderReference)
+      .getBytes(charset);
+  }
+
+  private static ZipArchiveEntry copyEntry(ZipArchiveEntry entry, String newName) {
+    ZipArchiveEntry newEntry = new ZipArchiveEntry(newName);
+    newEntry.setMethod(entry.getMethod());
+    newEntry.setCrc(entry.getCrc());
+    newEntry.setSize(entry.getSize());
+    newEntry.setCompressedSize(entry.getCompressedSize());
+    newEntry.setTime(entry.getTime());
+    if (entry.getPlatform() == ZipArchiveEntry.PLATFORM_UNIX) {
+      newEntry.setUnixMode(entry.getUnixMode());
+    }
+    return newEntry;
+  }
+}
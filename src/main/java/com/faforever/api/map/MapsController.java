@@ -15,15 +15,20 @@ import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.ModelAndView;
 
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Map;
 
@@ -38,6 +43,7 @@ public class MapsController {
   private final FafApiProperties fafApiProperties;
   private final ObjectMapper objectMapper;
   private final PlayerService playerService;
+  private final MapUploadJobService mapUploadJobService;
 
 
   @RequestMapping(path = "/validate", method = RequestMethod.GET, produces = APPLICATION_JSON_UTF8_VALUE)
@@ -62,7 +68,8 @@ public class MapsController {
   @ApiOperation("Validate scenario.lua")
   @ApiResponses(value = {
     @ApiResponse(code = 200, message = "Valid without further information"),
-    @ApiResponse(code = 422, message = "A list of errors in the scenario.lua")})
+    @ApiResponse(code = 422, message = "A list of errors in the scenario.lua"),
+    @ApiResponse(code = 503, message = "Too many Lua files are being parsed right now")})
   @RequestMapping(
     path = "/validateScenarioLua",
     method = RequestMethod.POST,
@@ -72,16 +79,20 @@ public class MapsController {
     mapService.validateScenarioLua(scenarioLua);
   }
 
-  @ApiOperation("Upload a map")
+  @ApiOperation("Upload a map. The map is processed in the background; the returned job can be polled from the location header.")
   @ApiResponses(value = {
-    @ApiResponse(code = 200, message = "Success"),
+    @ApiResponse(code = 202, message = "Accepted"),
     @ApiResponse(code = 401, message = "Unauthorized"),
-    @ApiResponse(code = 500, message = "Failure")})
+    @ApiResponse(code = 422, message = "Invalid upload"),
+    @ApiResponse(code = 500, message = "Failure"),
+    @ApiResponse(code = 503, message = "Too many uploads in progress")})
   @RequestMapping(path = "/upload", method = RequestMethod.POST, produces = APPLICATION_JSON_UTF8_VALUE)
+  @ResponseStatus(HttpStatus.ACCEPTED)
   @PreAuthorize("#oauth2.hasScope('" + OAuthScope._UPLOAD_MAP + "')")
-  public void uploadMap(@RequestParam("file") MultipartFile file,
-                        @RequestParam("metadata") String jsonString,
-                        Authentication authentication) throws IOException {
+  public MapUploadJob uploadMap(@RequestParam("file") MultipartFile file,
+                                @RequestParam("metadata") String jsonString,
+                                Authentication authentication,
+                                HttpServletResponse response) throws IOException {
     if (file == null) {
       throw new ApiException(new Error(ErrorCode.UPLOAD_FILE_MISSING));
     }
@@ -101,6 +112,21 @@ public class MapsController {
     }
 
     Player player = playerService.getPlayer(authentication);
-    mapService.uploadMap(file.getInputStream(), file.getOriginalFilename(), player, ranked);
+    // Besides failing early, this loads the player's bans, which are checked again by the background job
+    mapService.checkAuthorVaultBan(player);
+
+    MapUploadJob job = mapUploadJobService.submit(file, player, ranked);
+    response.setHeader(HttpHeaders.LOCATION, "/maps/upload/" + job.getId());
+    return job;
+  }
+
+  @ApiOperation("Get the state of a map upload")
+  @ApiResponses(value = {
+    @ApiResponse(code = 200, message = "Success"),
+    @ApiResponse(code = 404, message = "No such upload, or it has been submitted by another player")})
+  @RequestMapping(path = "/upload/{jobId}", method = RequestMethod.GET, produces = APPLICATION_JSON_UTF8_VALUE)
+  @PreAuthorize("#oauth2.hasScope('" + OAuthScope._UPLOAD_MAP + "')")
+  public MapUploadJob getUploadJob(@PathVariable("jobId") String jobId, Authentication authentication) {
+    return mapUploadJobService.getJob(jobId, playerService.getPlayer(authentication));
   }
 }
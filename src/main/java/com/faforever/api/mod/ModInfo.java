@@ -0,0 +1,27 @@
+package com.faforever.api.mod;
+
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+
+/**
+ * The content of a mod's {@code mod_info.lua} that is relevant for uploading it. Missing values are {@code null}.
+ */
+record ModInfo(String name, String uid, String version, String description, String author, String icon, boolean uiOnly) {
+
+  static ModInfo of(LuaTable variables) {
+    return new ModInfo(
+      readString(variables, "name"),
+      readString(variables, "uid"),
+      readString(variables, "version"),
+      readString(variables, "description"),
+      readString(variables, "author"),
+      readString(variables, "icon"),
+      variables.get("ui_only").toboolean()
+    );
+  }
+
+  private static String readString(LuaTable variables, String name) {
+    LuaValue value = variables.get(name);
+    return value.isstring() ? value.tojstring() : null;
+  }
+}
@@ -10,15 +10,14 @@ import com.faforever.api.data.domain.Player;
 import com.faforever.api.error.ApiException;
 import com.faforever.api.error.Error;
 import com.faforever.api.error.ErrorCode;
+import com.faforever.api.lua.LuaSandboxPool;
 import com.faforever.api.utils.FilePermissionUtil;
 import com.faforever.api.utils.NameUtil;
-import com.faforever.commons.io.Unzipper;
-import com.faforever.commons.mod.ModReader;
 import com.google.common.primitives.Ints;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
+import org.luaj.vm2.LuaError;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
@@ -28,18 +27,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.HttpClientErrorException;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.List;
 import java.util.Optional;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 import static java.text.MessageFormat.format;
 
@@ -53,6 +46,7 @@ public class ModService {
   private final FafApiProperties properties;
   private final ModRepository modRepository;
   private final ModVersionRepository modVersionRepository;
+  private final LuaSandboxPool luaSandboxPool;
 
   @SneakyThrows
   @Transactional
@@ -62,42 +56,44 @@ public class ModService {
 
     log.debug("Player '{}' uploaded a mod", uploader);
 
-    validateZipFileSafety(uploadedFile);
+    ModInfo modInfo;
+    Optional<Path> thumbnailPath;
+    String zipFileName;
+    Path targetPath;
+    try (ModZipFile modZipFile = ModZipFile.open(uploadedFile, properties.getMod())) {
+      modInfo = readModInfo(modZipFile);
+      validateModInfo(modInfo);
 
-    ModReader modReader = new ModReader();
-    com.faforever.commons.mod.Mod modInfo = modReader.readZip(uploadedFile);
-    validateModInfo(modInfo);
-    validateModStructure(uploadedFile);
+      log.debug("Mod uploaded by user '{}' is valid: {}", uploader, modInfo);
 
-    log.debug("Mod uploaded by user '{}' is valid: {}", uploader, modInfo);
+      String displayName = modInfo.name().trim();
+      short version = (short) Integer.parseInt(modInfo.version());
 
-    String displayName = modInfo.getName().trim();
-    short version = (short) Integer.parseInt(modInfo.getVersion().toString());
+      if (!canUploadMod(displayName, uploader)) {
+        Mod mod = modRepository.findOneByDisplayName(displayName)
+          .orElseThrow(() -> new IllegalStateException("Mod could not be found"));
+        throw new ApiException(new Error(ErrorCode.MOD_NOT_ORIGINAL_AUTHOR, mod.getAuthor(), displayName));
+      }
 
-    if (!canUploadMod(displayName, uploader)) {
-      Mod mod = modRepository.findOneByDisplayName(displayName)
-        .orElseThrow(() -> new IllegalStateException("Mod could not be found"));
-      throw new ApiException(new Error(ErrorCode.MOD_NOT_ORIGINAL_AUTHOR, mod.getAuthor(), displayName));
-    }
+      if (modExists(displayName, version)) {
+        throw new ApiException(new Error(ErrorCode.MOD_VERSION_EXISTS, displayName, version));
+      }
 
-    if (modExists(displayName, version)) {
-      throw new ApiException(new Error(ErrorCode.MOD_VERSION_EXISTS, displayName, version));
-    }
+      String uuid = modInfo.uid();
+      if (modUidExists(uuid)) {
+        throw new ApiException(new Error(ErrorCode.MOD_UID_EXISTS, uuid));
+      }
 
-    String uuid = modInfo.getUid();
-    if (modUidExists(uuid)) {
-      throw new ApiException(new Error(ErrorCode.MOD_UID_EXISTS, uuid));
-    }
+      zipFileName = generateZipFileName(displayName, version);
+      targetPath = properties.getMod().getTargetDirectory().resolve(zipFileName);
+      if (Files.exists(targetPath)) {
+        throw new ApiException(new Error(ErrorCode.MOD_NAME_CONFLICT, zipFileName));
+      }
 
-    String zipFileName = generateZipFileName(displayName, version);
-    Path targetPath = properties.getMod().getTargetDirectory().resolve(zipFileName);
-    if (Files.exists(targetPath)) {
-      throw new ApiException(new Error(ErrorCode.MOD_NAME_CONFLICT, zipFileName));
+      thumbnailPath = extractThumbnail(modZipFile, version, displayName, modInfo.icon());
     }
 
-    Optional<Path> thumbnailPath = extractThumbnail(uploadedFile, version, displayName, modInfo.getIcon());
-
-    log.debug("Moving uploaded mod '{}' to: {}", modInfo.getName(), targetPath);
+    log.debug("Moving uploaded mod '{}' to: {}", modInfo.name(), targetPath);
     Files.createDirectories(targetPath.getParent(), FilePermissionUtil.directoryPermissionFileAttributes());
     Files.move(uploadedFile, targetPath);
     FilePermissionUtil.setDefaultFilePermission(targetPath);
@@ -114,44 +110,6 @@ public class ModService {
     }
   }
 
-  /**
-   * Make sure that the zip file does not contain a zip bomb or zip slip attacks
-   */
-  @SneakyThrows
-  private void validateZipFileSafety(Path uploadedFile) {
-    log.debug("Validating file safety of uploaded file {}", uploadedFile);
-    Path tempDirectory = Files.createTempDirectory("validate_zip");
-
-    try {
-      // Unzipping directory already invokes the checks we want to perform
-      Unzipper.from(uploadedFile)
-        .to(tempDirectory)
-        .unzip();
-
-    } finally {
-      log.debug("Delete unzipped files in folder {}", tempDirectory);
-      FileUtils.deleteDirectory(tempDirectory.toFile());
-    }
-  }
-
-  /**
-   * Ensure that all files of the zip are inside at least one root folder. Otherwise the mods will overwrite each other
-   * on client side.
-   */
-  @SneakyThrows
-  private void validateModStructure(Path uploadedFile) {
-    try (ZipFile zipFile = new ZipFile(uploadedFile.toFile())) {
-      Enumeration<? extends ZipEntry> entries = zipFile.entries();
-      while (entries.hasMoreElements()) {
-        ZipEntry zipEntry = entries.nextElement();
-
-        if (!zipEntry.isDirectory() && !zipEntry.getName().contains("/")) {
-          throw new ApiException(new Error(ErrorCode.MOD_STRUCTURE_INVALID));
-        }
-      }
-    }
-  }
-
   private boolean modExists(String displayName, short version) {
     ModVersion probe = new ModVersion()
       .setVersion(version)
@@ -181,9 +139,17 @@ public class ModService {
     return !modRepository.existsByDisplayNameAndUploaderIsNot(displayName, uploader);
   }
 
-  private void validateModInfo(com.faforever.commons.mod.Mod modInfo) {
+  private ModInfo readModInfo(ModZipFile modZipFile) throws IOException {
+    try {
+      return modZipFile.readModInfo(luaSandboxPool);
+    } catch (LuaError e) {
+      throw ApiException.of(ErrorCode.PARSING_LUA_FILE_FAILED, e.getMessage());
+    }
+  }
+
+  private void validateModInfo(ModInfo modInfo) {
     List<Error> errors = new ArrayList<>();
-    String name = modInfo.getName();
+    String name = modInfo.name();
     if (name == null) {
       errors.add(new Error(ErrorCode.MOD_NAME_MISSING));
     } else {
@@ -194,19 +160,18 @@ public class ModService {
         errors.add(new Error(ErrorCode.MOD_NAME_INVALID));
       }
     }
-    if (modInfo.getUid() == null) {
+    if (modInfo.uid() == null) {
       errors.add(new Error(ErrorCode.MOD_UID_MISSING));
     }
-    if (modInfo.getVersion() == null) {
+    if (modInfo.version() == null) {
       errors.add(new Error(ErrorCode.MOD_VERSION_MISSING));
+    } else if (Ints.tryParse(modInfo.version()) == null) {
+      errors.add(new Error(ErrorCode.MOD_VERSION_NOT_A_NUMBER, modInfo.version()));
     }
-    if (Ints.tryParse(modInfo.getVersion().toString()) == null) {
-      errors.add(new Error(ErrorCode.MOD_VERSION_NOT_A_NUMBER, modInfo.getVersion().toString()));
-    }
-    if (modInfo.getDescription() == null) {
+    if (modInfo.description() == null) {
       errors.add(new Error(ErrorCode.MOD_DESCRIPTION_MISSING));
     }
-    if (modInfo.getAuthor() == null) {
+    if (modInfo.author() == null) {
       errors.add(new Error(ErrorCode.MOD_AUTHOR_MISSING));
     }
 
@@ -215,29 +180,20 @@ public class ModService {
     }
   }
 
-  @SneakyThrows
-  private Optional<Path> extractThumbnail(Path modZipFile, short version, String displayName, String icon) {
+  private Optional<Path> extractThumbnail(ModZipFile modZipFile, short version, String displayName, String icon) throws IOException {
     if (icon == null) {
       return Optional.empty();
     }
 
-    try (ZipFile zipFile = new ZipFile(modZipFile.toFile(), ZipFile.OPEN_READ)) {
-      ZipEntry entry = zipFile.getEntry(icon.replace("/mods/", ""));
-      if (entry == null) {
-        return Optional.empty();
-      }
-
-      String thumbnailFileName = generateThumbnailFileName(displayName, version);
-      Path targetPath = properties.getMod().getThumbnailTargetDirectory().resolve(thumbnailFileName);
+    String thumbnailFileName = generateThumbnailFileName(displayName, version);
+    Path targetPath = properties.getMod().getThumbnailTargetDirectory().resolve(thumbnailFileName);
 
-      log.debug("Extracting thumbnail of mod '{}' to: {}", displayName, targetPath);
-      Files.createDirectories(targetPath.getParent(), FilePermissionUtil.directoryPermissionFileAttributes());
-      try (InputStream inputStream = new BufferedInputStream(zipFile.getInputStream(entry))) {
-        Files.copy(inputStream, targetPath, StandardCopyOption.REPLACE_EXISTING);
-      }
-
-      return Optional.of(targetPath);
+    log.debug("Extracting thumbnail of mod '{}' to: {}", displayName, targetPath);
+    Files.createDirectories(targetPath.getParent(), FilePermissionUtil.directoryPermissionFileAttributes());
+    if (!modZipFile.extractEntry(icon.replace("/mods/", ""), targetPath)) {
+      return Optional.empty();
     }
+    return Optional.of(targetPath);
   }
 
   private String generateThumbnailFileName(String name, short version) {
@@ -252,19 +208,19 @@ public class ModService {
     return String.format("%s.v%04d", NameUtil.normalizeFileName(displayName), version);
   }
 
-  private void store(com.faforever.commons.mod.Mod modInfo, Optional<Path> thumbnailPath, Player uploader, String zipFileName) {
+  private void store(ModInfo modInfo, Optional<Path> thumbnailPath, Player uploader, String zipFileName) {
     ModVersion modVersion = new ModVersion()
-      .setUid(modInfo.getUid())
-      .setType(modInfo.isUiOnly() ? ModType.UI : ModType.SIM)
-      .setDescription(modInfo.getDescription())
-      .setVersion((short) Integer.parseInt(modInfo.getVersion().toString()))
+      .setUid(modInfo.uid())
+      .setType(modInfo.uiOnly() ? ModType.UI : ModType.SIM)
+      .setDescription(modInfo.description())
+      .setVersion((short) Integer.parseInt(modInfo.version()))
       .setFilename(MOD_PATH_PREFIX + zipFileName)
       .setIcon(thumbnailPath.map(path -> path.getFileName().toString()).orElse(null));
 
-    Mod mod = modRepository.findOneByDisplayName(modInfo.getName())
+    Mod mod = modRepository.findOneByDisplayName(modInfo.name())
       .orElse(new Mod()
-        .setAuthor(modInfo.getAuthor())
-        .setDisplayName(modInfo.getName())
+        .setAuthor(modInfo.author())
+        .setDisplayName(modInfo.name())
         .setVersions(new ArrayList<>())
         .setUploader(uploader))
         .setRecommended(false);
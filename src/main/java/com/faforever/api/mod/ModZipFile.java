@@ -0,0 +1,165 @@
+package com.faforever.api.mod;
+
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.error.ApiException;
+import com.faforever.api.error.Error;
+import com.faforever.api.error.ErrorCode;
+import com.faforever.api.lua.LuaSandboxPool;
+import com.google.common.io.ByteStreams;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * An uploaded mod zip file. All entries are validated in a single pass when the file is opened. Since the sizes in the
+ * central directory are controlled by the uploader, each file is decompressed without being written anywhere, and the
+ * bytes are counted until the allowed size is exceeded. Only {@code mod_info.lua} and the thumbnail are decompressed
+ * again later on.
+ */
+@Slf4j
+class ModZipFile implements Closeable {
+
+  private static final String MOD_INFO_FILE_NAME = "mod_info.lua";
+  private static final Path EXTRACTION_ROOT = Paths.get("mod");
+  private static final Pattern WINDOWS_DRIVE_PATTERN = Pattern.compile("^[A-Za-z]:.*");
+
+  private final ZipFile zipFile;
+  private final ZipEntry modInfoEntry;
+
+  private ModZipFile(ZipFile zipFile, ZipEntry modInfoEntry) {
+    this.zipFile = zipFile;
+    this.modInfoEntry = modInfoEntry;
+  }
+
+  /**
+   * Opens and validates the specified zip file.
+   *
+   * @throws ApiException if an entry would be extracted outside of the target folder (zip slip), the content is too
+   * large or suspiciously well compressed (zip bomb), the size of a file is unknown or doesn't match its content, a
+   * file is not inside a folder or there is no mod_info.lua
+   */
+  static ModZipFile open(Path path, FafApiProperties.Mod properties) throws IOException {
+    log.debug("Validating uploaded mod file {}", path);
+    ZipFile zipFile = new ZipFile(path.toFile());
+    try {
+      return new ModZipFile(zipFile, validateEntries(zipFile, Files.size(path), properties));
+    } catch (RuntimeException | IOException e) {
+      zipFile.close();
+      throw e;
+    }
+  }
+
+  private static ZipEntry validateEntries(ZipFile zipFile, long fileSize, FafApiProperties.Mod properties) throws IOException {
+    ZipEntry modInfoEntry = null;
+    long maxTotalSize = Math.min(properties.getMaxUncompressedSize(), fileSize * properties.getMaxCompressionRatio());
+    long totalSize = 0;
+
+    Enumeration<? extends ZipEntry> entries = zipFile.entries();
+    while (entries.hasMoreElements()) {
+      ZipEntry zipEntry = entries.nextElement();
+      String name = zipEntry.getName();
+
+      if (!isInsideExtractionRoot(name)) {
+        throw new ApiException(new Error(ErrorCode.MOD_ZIP_ENTRY_INVALID, name));
+      }
+      if (zipEntry.isDirectory()) {
+        continue;
+      }
+      // Ensure that all files are inside at least one root folder. Otherwise the mods will overwrite each other on
+      // client side.
+      if (!name.contains("/")) {
+        throw new ApiException(new Error(ErrorCode.MOD_STRUCTURE_INVALID));
+      }
+
+      if (zipEntry.getSize() < 0) {
+        throw new ApiException(new Error(ErrorCode.MOD_ZIP_ENTRY_SIZE_INVALID, name));
+      }
+      long size = inflatedSize(zipFile, zipEntry, maxTotalSize - totalSize + 1);
+      totalSize += size;
+      if (totalSize > maxTotalSize) {
+        throw totalSize > properties.getMaxUncompressedSize()
+          ? new ApiException(new Error(ErrorCode.MOD_ZIP_TOO_LARGE, properties.getMaxUncompressedSize()))
+          : new ApiException(new Error(ErrorCode.MOD_ZIP_COMPRESSION_RATIO_TOO_HIGH, properties.getMaxCompressionRatio()));
+      }
+      // Entries are decompressed again up to their declared size later on
+      if (size != zipEntry.getSize()) {
+        throw new ApiException(new Error(ErrorCode.MOD_ZIP_ENTRY_SIZE_INVALID, name));
+      }
+      if (modInfoEntry == null && name.endsWith("/" + MOD_INFO_FILE_NAME)) {
+        modInfoEntry = zipEntry;
+      }
+    }
+
+    if (modInfoEntry == null) {
+      throw new ApiException(new Error(ErrorCode.MOD_INFO_MISSING));
+    }
+    return modInfoEntry;
+  }
+
+  /**
+   * Returns the number of bytes the specified entry decompresses to, but stops counting after {@code limit} bytes.
+   */
+  private static long inflatedSize(ZipFile zipFile, ZipEntry zipEntry, long limit) throws IOException {
+    try (InputStream inputStream = zipFile.getInputStream(zipEntry)) {
+      return ByteStreams.exhaust(ByteStreams.limit(inputStream, limit));
+    }
+  }
+
+  private static boolean isInsideExtractionRoot(String name) {
+    // Clients may run on Windows, where backslashes and drive letters are interpreted as well
+    String normalizedName = name.replace('\\', '/');
+    if (normalizedName.startsWith("/") || WINDOWS_DRIVE_PATTERN.matcher(normalizedName).matches()) {
+      return false;
+    }
+    return EXTRACTION_ROOT.resolve(normalizedName).normalize().startsWith(EXTRACTION_ROOT);
+  }
+
+  /**
+   * Evaluates the mod_info.lua in a sandbox.
+   */
+  ModInfo readModInfo(LuaSandboxPool luaSandboxPool) throws IOException {
+    try (InputStream inputStream = openEntry(modInfoEntry)) {
+      return ModInfo.of(luaSandboxPool.evaluate(inputStream.readAllBytes(), MOD_INFO_FILE_NAME));
+    }
+  }
+
+  /**
+   * Copies the entry with the specified name to the target file.
+   *
+   * @return {@code false} if there is no such entry
+   */
+  boolean extractEntry(String name, Path targetFile) throws IOException {
+    ZipEntry zipEntry = zipFile.getEntry(name);
+    if (zipEntry == null || zipEntry.isDirectory()) {
+      return false;
+    }
+    copyEntry(zipEntry, targetFile);
+    return true;
+  }
+
+  private void copyEntry(ZipEntry zipEntry, Path targetFile) throws IOException {
+    try (InputStream inputStream = openEntry(zipEntry)) {
+      Files.copy(inputStream, targetFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private InputStream openEntry(ZipEntry zipEntry) throws IOException {
+    return ByteStreams.limit(new BufferedInputStream(zipFile.getInputStream(zipEntry)), zipEntry.getSize());
+  }
+
+  @Override
+  public void close() throws IOException {
+    zipFile.close();
+  }
+}
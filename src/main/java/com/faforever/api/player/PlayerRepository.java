@@ -2,9 +2,17 @@ package com.faforever.api.player;
 
 import com.faforever.api.data.domain.Player;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Set;
+
 @Repository
 public interface PlayerRepository extends JpaRepository<Player, Integer> {
   Player findOneByLogin(String login);
+
+  @Query("select player.id from Player player where player.id in :ids")
+  Set<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
 }
@@ -9,6 +9,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
 import static com.faforever.api.error.ErrorCode.TOKEN_INVALID;
 
 @Service
@@ -31,4 +35,19 @@ public class PlayerService {
     return playerRepository.findById(playerId)
       .orElseThrow(() -> new ApiException(new Error(ErrorCode.ENTITY_NOT_FOUND, playerId)));
   }
+
+  /**
+   * Ensures that all specified players exist without loading them.
+   */
+  public void verifyPlayersExist(Collection<Integer> playerIds) {
+    if (playerIds.isEmpty()) {
+      return;
+    }
+
+    Set<Integer> missingIds = new HashSet<>(playerIds);
+    missingIds.removeAll(playerRepository.findExistingIds(playerIds));
+    if (!missingIds.isEmpty()) {
+      throw new ApiException(new Error(ErrorCode.ENTITY_NOT_FOUND, missingIds.iterator().next()));
+    }
+  }
 }
@@ -0,0 +1,165 @@
+package com.faforever.api.ratelimit;
+
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.config.FafApiProperties.RateLimitRoute;
+import com.faforever.api.error.ErrorCode;
+import com.faforever.api.error.ErrorResponse;
+import com.faforever.api.error.ErrorResult;
+import com.faforever.api.security.FafUserDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the request rate of expensive endpoints per user (or per remote address for anonymous requests). Each
+ * configured {@link RateLimitRoute} has its own set of {@link TokenBucket token buckets}, which are kept in a
+ * size-bounded cache and evicted after being idle for a while.
+ * <p>
+ * This filter runs after Spring Security so that authenticated requests can be limited by user ID. Anonymous requests
+ * are limited by {@link HttpServletRequest#getRemoteAddr()}, which the server resolves from the headers of trusted
+ * proxies only. Headers like {@code X-Forwarded-For} can't be used directly, since a client could send a different
+ * value with each request to get a fresh bucket every time.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  private static final String PAGE_SIZE_PARAMETER = "page[size]";
+
+  private final FafApiProperties.RateLimit properties;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+  private final List<LimitedRoute> limitedRoutes;
+  private final AntPathMatcher pathMatcher = new AntPathMatcher();
+  private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+  public RateLimitFilter(FafApiProperties fafApiProperties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+    this.properties = fafApiProperties.getRateLimit();
+    this.objectMapper = objectMapper;
+    this.meterRegistry = meterRegistry;
+    this.limitedRoutes = properties.getRoutes().stream()
+      .map(this::createLimitedRoute)
+      .toList();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !properties.isEnabled();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+    LimitedRoute limitedRoute = findLimitedRoute(request);
+    if (limitedRoute == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    String key = getClientKey(request);
+    long waitNanos = limitedRoute.buckets.get(key).tryConsume(System.nanoTime());
+    if (waitNanos == 0) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    log.debug("Rate limit exceeded for client '{}' on route '{} {}'", key, limitedRoute.route.getMethod(), limitedRoute.route.getPathPattern());
+    meterRegistry.counter("faf.api.rateLimit.rejected", "route", limitedRoute.route.getPathPattern()).increment();
+    writeTooManyRequests(response, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+  }
+
+  private LimitedRoute findLimitedRoute(HttpServletRequest request) {
+    String path = urlPathHelper.getPathWithinApplication(request);
+    for (LimitedRoute limitedRoute : limitedRoutes) {
+      if (limitedRoute.matches(request, path)) {
+        return limitedRoute;
+      }
+    }
+    return null;
+  }
+
+  private String getClientKey(HttpServletRequest request) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.getPrincipal() instanceof FafUserDetails fafUserDetails) {
+      return "user:" + fafUserDetails.getId();
+    }
+    return "address:" + request.getRemoteAddr();
+  }
+
+  private void writeTooManyRequests(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+    ErrorCode errorCode = ErrorCode.RATE_LIMIT_EXCEEDED;
+    ErrorResponse errorResponse = new ErrorResponse().addError(new ErrorResult(
+      String.valueOf(HttpStatus.TOO_MANY_REQUESTS.value()),
+      errorCode.getTitle(),
+      errorCode.getDetail(),
+      errorCode.codeAsString(),
+      null
+    ));
+
+    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(response.getOutputStream(), errorResponse);
+  }
+
+  private LimitedRoute createLimitedRoute(RateLimitRoute route) {
+    LoadingCache<String, TokenBucket> buckets = Caffeine.newBuilder()
+      .maximumSize(properties.getMaxBucketsPerRoute())
+      .expireAfterAccess(properties.getBucketIdleTimeout())
+      .build(key -> new TokenBucket(route.getCapacity(), route.getRefillPeriod(), System.nanoTime()));
+    return new LimitedRoute(route, buckets);
+  }
+
+  private class LimitedRoute {
+    private final RateLimitRoute route;
+    private final LoadingCache<String, TokenBucket> buckets;
+
+    private LimitedRoute(RateLimitRoute route, LoadingCache<String, TokenBucket> buckets) {
+      this.route = route;
+      this.buckets = buckets;
+    }
+
+    private boolean matches(HttpServletRequest request, String path) {
+      if (route.getMethod() != null && !route.getMethod().equalsIgnoreCase(request.getMethod())) {
+        return false;
+      }
+      if (!pathMatcher.match(route.getPathPattern(), path)) {
+        return false;
+      }
+      return route.getMinPageSize() <= 0 || getPageSize(request) >= route.getMinPageSize();
+    }
+
+    private int getPageSize(HttpServletRequest request) {
+      String pageSize = request.getParameter(PAGE_SIZE_PARAMETER);
+      if (pageSize == null) {
+        return 0;
+      }
+      try {
+        return Integer.parseInt(pageSize.trim());
+      } catch (NumberFormatException e) {
+        return 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package com.faforever.api.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket, implemented as a generic cell rate algorithm. Instead of storing the number of available
+ * tokens and the last refill time, only the "theoretical arrival time" of the next request is stored in a single
+ * {@link AtomicLong}, which allows to consume a token with one compare-and-set.
+ */
+class TokenBucket {
+
+  /** Nanoseconds it takes to refill one token. */
+  private final long emissionIntervalNanos;
+  /** Nanoseconds by which the theoretical arrival time may be ahead of now, i.e. the burst capacity. */
+  private final long burstToleranceNanos;
+  private final AtomicLong theoreticalArrivalTime;
+
+  TokenBucket(int capacity, Duration refillPeriod, long nowNanos) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive, was: " + capacity);
+    }
+    this.emissionIntervalNanos = Math.max(1, refillPeriod.toNanos() / capacity);
+    this.burstToleranceNanos = emissionIntervalNanos * capacity;
+    this.theoreticalArrivalTime = new AtomicLong(nowNanos);
+  }
+
+  /**
+   * Tries to consume a token.
+   *
+   * @return {@code 0} if a token has been consumed, otherwise the number of nanoseconds until the next token is
+   * available.
+   */
+  long tryConsume(long nowNanos) {
+    while (true) {
+      long current = theoreticalArrivalTime.get();
+      long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+      long aheadBy = next - nowNanos;
+      if (aheadBy > burstToleranceNanos) {
+        return aheadBy - burstToleranceNanos;
+      }
+      if (theoreticalArrivalTime.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+}
@@ -14,7 +14,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Adapter between Spring's {@link UserDetailsService} and FAF's {@code login} table.
@@ -25,6 +24,7 @@ import java.util.stream.Collectors;
 public class FafUserDetailsService implements UserDetailsService {
 
   private final UserRepository userRepository;
+  private final GroupPermissionResolver groupPermissionResolver;
 
   @Override
   public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
@@ -52,8 +52,6 @@ public class FafUserDetailsService implements UserDetailsService {
   }
 
   private Collection<GrantedAuthority> getPermissionRoles(User user) {
-    return user.getUserGroups().stream()
-      .flatMap(userGroup -> userGroup.getPermissions().stream())
-      .collect(Collectors.toSet());
+    return Set.copyOf(groupPermissionResolver.getPermissions(user.getUserGroups()));
   }
 }
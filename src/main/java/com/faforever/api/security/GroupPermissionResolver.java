@@ -0,0 +1,94 @@
+package com.faforever.api.security;
+
+import com.faforever.api.data.domain.GroupPermission;
+import com.faforever.api.data.domain.UserGroup;
+import com.faforever.api.user.UserGroupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Resolves the effective permissions of user groups. A group inherits all permissions of its parent groups, so
+ * members of a child group are granted the permissions of every ancestor as well.
+ * <p>
+ * The transitive closure of the group tree is computed once and kept until {@link #invalidate()} is called, which
+ * happens whenever a group or a permission changes. A closure that was computed while it was invalidated may be based
+ * on outdated groups, so it is not kept.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GroupPermissionResolver {
+
+  private final UserGroupRepository userGroupRepository;
+
+  private final AtomicReference<Closure> closure = new AtomicReference<>(new Closure(0, null));
+
+  public Set<GroupPermission> getPermissions(Collection<UserGroup> userGroups) {
+    Map<Integer, Set<GroupPermission>> permissionsByGroupId = getPermissionsByGroupId();
+
+    Set<GroupPermission> permissions = new HashSet<>();
+    for (UserGroup userGroup : userGroups) {
+      permissions.addAll(permissionsByGroupId.getOrDefault(userGroup.getId(), Set.of()));
+    }
+    return permissions;
+  }
+
+  public void invalidate() {
+    log.debug("Invalidating group permission closure");
+    closure.updateAndGet(current -> new Closure(current.generation() + 1, null));
+  }
+
+  private Map<Integer, Set<GroupPermission>> getPermissionsByGroupId() {
+    Closure current = closure.get();
+    if (current.permissionsByGroupId() != null) {
+      return current.permissionsByGroupId();
+    }
+
+    Map<Integer, Set<GroupPermission>> permissionsByGroupId = computeClosure(userGroupRepository.findAllWithPermissions());
+    // Fails if the closure was invalidated in the meantime, so that the next call computes it again
+    closure.compareAndSet(current, new Closure(current.generation(), permissionsByGroupId));
+    return permissionsByGroupId;
+  }
+
+  static Map<Integer, Set<GroupPermission>> computeClosure(Collection<UserGroup> userGroups) {
+    Map<Integer, Integer> parentIdByGroupId = new HashMap<>();
+    Map<Integer, Set<GroupPermission>> ownPermissionsByGroupId = new HashMap<>();
+    for (UserGroup userGroup : userGroups) {
+      if (userGroup.getParent() != null) {
+        parentIdByGroupId.put(userGroup.getId(), userGroup.getParent().getId());
+      }
+      ownPermissionsByGroupId.put(userGroup.getId(),
+        userGroup.getPermissions() == null ? Set.of() : Set.copyOf(userGroup.getPermissions()));
+    }
+
+    Map<Integer, Set<GroupPermission>> closure = new HashMap<>();
+    for (Integer groupId : ownPermissionsByGroupId.keySet()) {
+      Set<GroupPermission> permissions = new HashSet<>();
+      Set<Integer> visited = new HashSet<>();
+      Integer currentId = groupId;
+      // The visited set protects against accidental cycles in the group tree
+      while (currentId != null && visited.add(currentId)) {
+        permissions.addAll(ownPermissionsByGroupId.getOrDefault(currentId, Set.of()));
+        currentId = parentIdByGroupId.get(currentId);
+      }
+      closure.put(groupId, Set.copyOf(permissions));
+    }
+    return Map.copyOf(closure);
+  }
+
+  /**
+   * @param generation incremented by each invalidation
+   * @param permissionsByGroupId group ID -&gt; effective permissions, including the ones inherited from parent groups.
+   * {@code null} if it needs to be (re)computed.
+   */
+  private record Closure(long generation, Map<Integer, Set<GroupPermission>> permissionsByGroupId) {
+  }
+}
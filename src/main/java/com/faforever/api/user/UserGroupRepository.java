@@ -0,0 +1,15 @@
+package com.faforever.api.user;
+
+import com.faforever.api.data.domain.UserGroup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserGroupRepository extends JpaRepository<UserGroup, Integer> {
+
+  @Query("select distinct userGroup from UserGroup userGroup left join fetch userGroup.permissions")
+  List<UserGroup> findAllWithPermissions();
+}
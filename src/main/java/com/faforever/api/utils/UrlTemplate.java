@@ -0,0 +1,65 @@
+package com.faforever.api.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A URL format with a single {@code %s} placeholder, like the ones configured in {@code FafApiProperties}. The format
+ * is only parsed once, so expanding it is a plain concatenation instead of a {@link String#format(String, Object...)}.
+ * Formats with other conversions are passed to {@code String.format} as they are.
+ */
+public final class UrlTemplate {
+
+  private static final Map<String, UrlTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+  private final String format;
+  private final String prefix;
+  private final String suffix;
+  private final boolean compiled;
+
+  private UrlTemplate(String format) {
+    this.format = format;
+
+    List<String> literals = new ArrayList<>();
+    StringBuilder literal = new StringBuilder();
+    boolean supported = true;
+    for (int i = 0; i < format.length(); i++) {
+      char c = format.charAt(i);
+      if (c != '%') {
+        literal.append(c);
+        continue;
+      }
+      char conversion = i + 1 < format.length() ? format.charAt(++i) : 0;
+      if (conversion == '%') {
+        literal.append('%');
+      } else if (conversion == 's') {
+        literals.add(literal.toString());
+        literal.setLength(0);
+      } else {
+        supported = false;
+        break;
+      }
+    }
+    literals.add(literal.toString());
+
+    compiled = supported && literals.size() == 2;
+    prefix = compiled ? literals.get(0) : null;
+    suffix = compiled ? literals.get(1) : null;
+  }
+
+  /**
+   * Returns the template for the specified format. Templates are cached, since there is only a handful of formats.
+   */
+  public static UrlTemplate of(String format) {
+    return TEMPLATES.computeIfAbsent(format, UrlTemplate::new);
+  }
+
+  public String expand(Object value) {
+    if (!compiled) {
+      return String.format(format, value);
+    }
+    return prefix + value + suffix;
+  }
+}
@@ -4,6 +4,8 @@ import com.faforever.api.data.domain.Player;
 import com.faforever.api.data.domain.Vote;
 import com.faforever.api.data.domain.VotingSubject;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 import java.util.Set;
@@ -12,4 +14,7 @@ public interface VoteRepository extends JpaRepository<Vote, Integer> {
   Optional<Vote> findByPlayerAndVotingSubjectId(Player player, int votingSubjectId);
 
   Set<Vote> findByVotingSubject(VotingSubject votingSubject);
+
+  @Query("select vote.votingSubject.id from Vote vote where vote.player = :player")
+  Set<Integer> findVotingSubjectIdsByPlayer(@Param("player") Player player);
 }
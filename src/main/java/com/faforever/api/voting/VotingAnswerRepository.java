@@ -2,6 +2,23 @@ package com.faforever.api.voting;
 
 import com.faforever.api.data.domain.VotingAnswer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.util.List;
 
 public interface VotingAnswerRepository extends JpaRepository<VotingAnswer, Integer> {
+
+  /**
+   * Returns the ranked answers to the specified question, ordered by vote and rank, so that the ballots of all votes
+   * are read with a single query. Since this is used while the question is being flushed, it must not flush itself.
+   */
+  @Query("select new com.faforever.api.voting.VotingPreference(answer.vote.id, answer.votingChoice.id, answer.alternativeOrdinal)" +
+    " from VotingAnswer answer" +
+    " where answer.votingChoice.votingQuestion.id = :questionId and answer.alternativeOrdinal is not null" +
+    " order by answer.vote.id, answer.alternativeOrdinal")
+  @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.FLUSH_MODE, value = "COMMIT"))
+  List<VotingPreference> findPreferencesByQuestionId(@Param("questionId") int questionId);
 }
@@ -0,0 +1,10 @@
+package com.faforever.api.voting;
+
+/**
+ * The preference of a vote for a choice of an alternative question, see
+ * {@link VotingAnswerRepository#findPreferencesByQuestionId(int)}.
+ *
+ * @param alternativeOrdinal the rank of the choice on the ballot, starting with {@code 0} for the first choice
+ */
+public record VotingPreference(int voteId, int choiceId, int alternativeOrdinal) {
+}
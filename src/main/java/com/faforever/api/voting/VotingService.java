@@ -10,11 +10,14 @@ import com.faforever.api.error.ApiException;
 import com.faforever.api.error.Error;
 import com.faforever.api.error.ErrorCode;
 import com.faforever.api.game.GamePlayerStatsRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
 import javax.transaction.Transactional;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -26,10 +29,16 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class VotingService {
   public static final int ACCOUNT_AGE_YEARS_VOTE_QUALIFIED = 3;
+  private static final Duration VALID_GAMES_COUNT_CACHE_DURATION = Duration.ofMinutes(1);
   private final VoteRepository voteRepository;
   private final VotingSubjectRepository votingSubjectRepository;
   private final GamePlayerStatsRepository gamePlayerStatsRepository;
   private final VotingChoiceRepository votingChoiceRepository;
+  /** Player ID -&gt; number of valid games, which is expensive to count for active players. */
+  private final Cache<Integer, Integer> validGamesCount = Caffeine.newBuilder()
+    .expireAfterWrite(VALID_GAMES_COUNT_CACHE_DURATION)
+    .maximumSize(10_000)
+    .build();
 
   @Transactional
   public void saveVote(Vote vote, Player player) {
@@ -101,18 +110,33 @@ public class VotingService {
       errors.add(new Error(ErrorCode.VOTE_ALREADY_ENDED, subject.getEndOfVoteTime()));
     }
 
-    boolean accountQualifiedBySteamAndAge = player.getSteamId() != null && OffsetDateTime.now().minusYears(ACCOUNT_AGE_YEARS_VOTE_QUALIFIED).isAfter(player.getCreateTime());
-
-    if (!accountQualifiedBySteamAndAge && gamesPlayed < subject.getMinGamesToVote()) {
+    if (!isQualifiedBySteamAndAge(player) && gamesPlayed < subject.getMinGamesToVote()) {
       errors.add(new Error(ErrorCode.NOT_ENOUGH_GAMES, gamesPlayed, subject.getMinGamesToVote()));
     }
     return errors;
   }
 
+  /**
+   * Returns the open subjects the player has not voted on yet and has played enough games for. Unlike
+   * {@link #saveVote(Vote, Player)}, this uses the briefly cached number of games, since the client asks for it
+   * repeatedly.
+   */
   List<VotingSubject> votingSubjectsAbleToVote(Player player) {
-    List<VotingSubject> all = votingSubjectRepository.findAll();
-    return all.stream()
-      .filter(votingSubject -> ableToVote(player, votingSubject.getId()).isEmpty())
+    Set<Integer> votedSubjectIds = voteRepository.findVotingSubjectIdsByPlayer(player);
+    boolean qualifiedBySteamAndAge = isQualifiedBySteamAndAge(player);
+
+    return votingSubjectRepository.findOpenAt(OffsetDateTime.now()).stream()
+      .filter(votingSubject -> !votedSubjectIds.contains(votingSubject.getId()))
+      .filter(votingSubject -> qualifiedBySteamAndAge || votingSubject.getMinGamesToVote() == 0
+        || getValidGamesCount(player) >= votingSubject.getMinGamesToVote())
       .toList();
   }
+
+  private int getValidGamesCount(Player player) {
+    return validGamesCount.get(player.getId(), playerId -> gamePlayerStatsRepository.countByPlayerAndGameValidity(player, Validity.VALID));
+  }
+
+  private boolean isQualifiedBySteamAndAge(Player player) {
+    return player.getSteamId() != null && OffsetDateTime.now().minusYears(ACCOUNT_AGE_YEARS_VOTE_QUALIFIED).isAfter(player.getCreateTime());
+  }
 }
@@ -2,6 +2,13 @@ package com.faforever.api.voting;
 
 import com.faforever.api.data.domain.VotingSubject;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
 
 public interface VotingSubjectRepository extends JpaRepository<VotingSubject, Integer> {
+  @Query("select subject from VotingSubject subject where subject.beginOfVoteTime <= :time and subject.endOfVoteTime >= :time")
+  List<VotingSubject> findOpenAt(@Param("time") OffsetDateTime time);
 }
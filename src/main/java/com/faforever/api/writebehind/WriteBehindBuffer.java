@@ -0,0 +1,149 @@
+package com.faforever.api.writebehind;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Sums up integer increments per key and hands them to a flusher in batches, either periodically or as soon as
+ * too many keys are pending. Increments are only kept in memory: {@link #close()} flushes everything that is
+ * pending, but increments are lost if the application terminates without closing the buffer. If a flush fails,
+ * its increments are written key by key and the increments of keys that still fail are logged and dropped, so that
+ * a single invalid counter can't block all others. Once the hard limit of pending keys is reached, the buffer
+ * reports itself as {@link #isFull() full} and callers are expected to write synchronously instead.
+ *
+ * @param <K> the key of a counter, must implement {@code equals} and {@code hashCode}
+ */
+@Slf4j
+public class WriteBehindBuffer<K> implements AutoCloseable {
+
+  private final ConcurrentHashMap<K, Integer> pending = new ConcurrentHashMap<>();
+  private final Object flushLock = new Object();
+  private final AtomicBoolean earlyFlushScheduled = new AtomicBoolean();
+  private final String name;
+  private final Consumer<Map<K, Integer>> flusher;
+  private final int maxPendingKeys;
+  private final int maxBufferedKeys;
+  private final ScheduledExecutorService executor;
+  private final Timer flushTimer;
+  private final Counter droppedCounter;
+
+  /**
+   * @param maxPendingKeys the number of pending keys from which on a flush is triggered early
+   * @param maxBufferedKeys the number of pending keys from which on the buffer is {@link #isFull() full}
+   */
+  public WriteBehindBuffer(String name, Consumer<Map<K, Integer>> flusher, Duration flushInterval, int maxPendingKeys, int maxBufferedKeys, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.flusher = flusher;
+    this.maxPendingKeys = maxPendingKeys;
+    this.maxBufferedKeys = maxBufferedKeys;
+
+    Tags tags = Tags.of("buffer", name);
+    meterRegistry.gaugeMapSize("faf.api.writeBehind.pending", tags, pending);
+    flushTimer = Timer.builder("faf.api.writeBehind.flush")
+      .description("Time it takes to write the pending increments of a write-behind buffer")
+      .tags(tags)
+      .register(meterRegistry);
+    droppedCounter = Counter.builder("faf.api.writeBehind.dropped")
+      .description("Number of increments that were dropped because they could not be written")
+      .tags(tags)
+      .register(meterRegistry);
+
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "write-behind-" + name);
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleWithFixedDelay(this::flushSafely, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Whether so many keys are pending that no more increments should be added. This is not enforced by
+   * {@link #add(Object, int)}, so that concurrent callers may exceed the limit slightly.
+   */
+  public boolean isFull() {
+    return pending.size() >= maxBufferedKeys;
+  }
+
+  public void add(K key, int increment) {
+    pending.merge(key, increment, Integer::sum);
+
+    if (pending.size() >= maxPendingKeys && earlyFlushScheduled.compareAndSet(false, true)) {
+      executor.execute(() -> {
+        earlyFlushScheduled.set(false);
+        flushSafely();
+      });
+    }
+  }
+
+  /**
+   * Writes all pending increments synchronously. Increments that can't be written are dropped.
+   */
+  public void flush() {
+    synchronized (flushLock) {
+      Map<K, Integer> batch = new HashMap<>();
+      // Removing key by key keeps increments that are added concurrently, they are simply part of the next batch
+      pending.keySet().forEach(key -> {
+        Integer increment = pending.remove(key);
+        if (increment != null) {
+          batch.put(key, increment);
+        }
+      });
+      if (batch.isEmpty()) {
+        return;
+      }
+
+      try {
+        flushTimer.record(() -> flusher.accept(batch));
+      } catch (RuntimeException e) {
+        log.warn("Flushing write-behind buffer '{}' failed, writing {} counters one by one", name, batch.size(), e);
+        batch.forEach(this::flushSingle);
+      }
+    }
+  }
+
+  private void flushSingle(K key, int increment) {
+    try {
+      flusher.accept(Map.of(key, increment));
+    } catch (RuntimeException e) {
+      log.error("Dropping increment of {} for '{}' of write-behind buffer '{}'", increment, key, name, e);
+      droppedCounter.increment(increment);
+    }
+  }
+
+  private void flushSafely() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      log.warn("Flushing write-behind buffer '{}' failed, {} counters are pending", name, pending.size(), e);
+    }
+  }
+
+  /**
+   * Stops the periodic flushing and writes all pending increments.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+        log.warn("Write-behind buffer '{}' did not stop in time", name);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+}
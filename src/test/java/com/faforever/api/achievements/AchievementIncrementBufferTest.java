@@ -0,0 +1,89 @@
+package com.faforever.api.achievements;
+
+import com.faforever.api.achievements.AchievementUpdateRequest.Operation;
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.config.FafApiProperties.WriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class AchievementIncrementBufferTest {
+
+  private static final int PLAYER_ID = 1;
+
+  @Mock
+  private AchievementService achievementService;
+
+  private AchievementIncrementBuffer instance;
+
+  private void createInstance(boolean enabled) {
+    FafApiProperties properties = new FafApiProperties();
+    WriteBehind writeBehind = properties.getWriteBehind();
+    writeBehind.setEnabled(enabled);
+    writeBehind.setFlushInterval(Duration.ofHours(1));
+    writeBehind.setMaxBufferedKeys(2);
+    instance = new AchievementIncrementBuffer(achievementService, properties, new SimpleMeterRegistry());
+  }
+
+  @AfterEach
+  public void tearDown() {
+    instance.destroy();
+  }
+
+  @Test
+  public void incrementsAreBufferedAndSummedUp() {
+    createInstance(true);
+
+    assertThat(instance.offer(List.of(increment("111", 2))), is(true));
+    assertThat(instance.offer(List.of(increment("111", 3))), is(true));
+    verify(achievementService).verifyAll(List.of(increment("111", 2)));
+    verify(achievementService).verifyAll(List.of(increment("111", 3)));
+
+    instance.destroy();
+
+    verify(achievementService).updateAll(List.of(increment("111", 5)));
+  }
+
+  @Test
+  public void otherOperationsFlushPendingIncrements() {
+    createInstance(true);
+    instance.offer(List.of(increment("111", 2)));
+
+    assertThat(instance.offer(List.of(new AchievementUpdateRequest(PLAYER_ID, "222", Operation.UNLOCK, 0))), is(false));
+
+    verify(achievementService).updateAll(List.of(increment("111", 2)));
+  }
+
+  @Test
+  public void incrementsAreNotBufferedIfBufferIsFull() {
+    createInstance(true);
+    instance.offer(List.of(increment("111", 1), increment("222", 1)));
+
+    assertThat(instance.offer(List.of(increment("333", 1))), is(false));
+  }
+
+  @Test
+  public void nothingIsBufferedIfDisabled() {
+    createInstance(false);
+
+    assertThat(instance.offer(List.of(increment("111", 1))), is(false));
+
+    verifyNoInteractions(achievementService);
+  }
+
+  private AchievementUpdateRequest increment(String achievementId, int steps) {
+    return new AchievementUpdateRequest(PLAYER_ID, achievementId, Operation.INCREMENT, steps);
+  }
+}
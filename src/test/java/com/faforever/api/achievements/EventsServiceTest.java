@@ -1,12 +1,13 @@
 package com.faforever.api.achievements;
 
+import com.faforever.api.achievements.AchievementUpdateRequest.Operation;
+import com.faforever.api.achievements.PlayerAchievementBatchRepository.PlayerAchievementState;
 import com.faforever.api.data.domain.Achievement;
 import com.faforever.api.data.domain.AchievementState;
 import com.faforever.api.data.domain.AchievementType;
 import com.faforever.api.data.domain.PlayerAchievement;
 import com.faforever.api.error.ApiException;
 import com.faforever.api.error.ErrorCode;
-import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,18 +15,23 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 import static com.faforever.api.data.domain.AchievementState.REVEALED;
 import static com.faforever.api.data.domain.AchievementState.UNLOCKED;
 import static com.faforever.api.error.ApiExceptionMatcher.hasErrorCode;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +44,8 @@ public class EventsServiceTest {
   private AchievementRepository achievementRepository;
   @Mock
   private PlayerAchievementRepository playerAchievementRepository;
+  @Mock
+  private PlayerAchievementBatchRepository playerAchievementBatchRepository;
 
   private static PlayerAchievement createPlayerAchievement(Integer currentSteps, AchievementState state) {
     PlayerAchievement playerAchievement = new PlayerAchievement();
@@ -48,7 +56,7 @@ public class EventsServiceTest {
 
   @BeforeEach
   public void setUp() throws Exception {
-    instance = new AchievementService(achievementRepository, playerAchievementRepository);
+    instance = new AchievementService(achievementRepository, playerAchievementRepository, playerAchievementBatchRepository);
   }
 
   /**
@@ -57,29 +65,39 @@ public class EventsServiceTest {
   @Test
   public void incrementFirstTime() throws Exception {
     mockAchievement("111", AchievementType.INCREMENTAL, 10);
-    when(playerAchievementRepository.findOneByAchievementIdAndPlayerId("111", PLAYER_ID))
-      .thenReturn(Optional.empty());
+    mockPlayerAchievement(null);
 
-    instance.increment(PLAYER_ID, "111", 3);
+    update(Operation.INCREMENT, 3);
 
-    PlayerAchievement playerAchievement = captureSaveEvent();
+    assertThat(captureUpsert(), contains(new PlayerAchievementState(PLAYER_ID, "111", 3, REVEALED)));
+  }
 
-    assertThat(playerAchievement.getCurrentSteps(), is(3));
-    assertThat(playerAchievement.getState(), is(REVEALED));
+  private Achievement mockAchievement(String achievementId, AchievementType type, Integer totalSteps) {
+    Achievement achievement = createAchievement(achievementId, type, totalSteps);
+    when(achievementRepository.findAllById(Set.of(achievementId))).thenReturn(List.of(achievement));
+    return achievement;
   }
 
-  private void mockAchievement(String achievementId, AchievementType type, Integer totalSteps) {
-    Achievement achievement = new Achievement();
-    achievement.setId(achievementId);
-    achievement.setType(type);
-    achievement.setTotalSteps(totalSteps);
+  private void mockPlayerAchievement(PlayerAchievement playerAchievement) {
+    when(playerAchievementRepository.findAllByPlayerIdInAndAchievementIdIn(Set.of(PLAYER_ID), Set.of("111")))
+      .thenReturn(playerAchievement == null ? List.of() : List.of(playerAchievement));
+  }
 
-    when(achievementRepository.findById(achievementId)).thenReturn(Optional.of(achievement));
+  private PlayerAchievement createExistingPlayerAchievement(Achievement achievement, Integer currentSteps, AchievementState state) {
+    PlayerAchievement playerAchievement = createPlayerAchievement(currentSteps, state);
+    playerAchievement.setPlayerId(PLAYER_ID);
+    playerAchievement.setAchievement(achievement);
+    return playerAchievement;
+  }
+
+  private UpdatedAchievementResponse update(Operation operation, int steps) {
+    return instance.updateAll(List.of(new AchievementUpdateRequest(PLAYER_ID, "111", operation, steps))).get(0);
   }
 
-  private PlayerAchievement captureSaveEvent() {
-    ArgumentCaptor<PlayerAchievement> captor = ArgumentCaptor.forClass(PlayerAchievement.class);
-    verify(playerAchievementRepository).save(captor.capture());
+  @SuppressWarnings("unchecked")
+  private Collection<PlayerAchievementState> captureUpsert() {
+    ArgumentCaptor<Collection<PlayerAchievementState>> captor = ArgumentCaptor.forClass(Collection.class);
+    verify(playerAchievementBatchRepository).upsertAll(captor.capture());
     return captor.getValue();
   }
 
@@ -88,16 +106,12 @@ public class EventsServiceTest {
    */
   @Test
   public void incrementExisting() throws Exception {
-    mockAchievement("111", AchievementType.INCREMENTAL, 10);
-    when(playerAchievementRepository.findOneByAchievementIdAndPlayerId("111", PLAYER_ID))
-      .thenReturn(Optional.of(createPlayerAchievement(4, REVEALED)));
-
-    instance.increment(PLAYER_ID, "111", 3);
+    Achievement achievement = mockAchievement("111", AchievementType.INCREMENTAL, 10);
+    mockPlayerAchievement(createExistingPlayerAchievement(achievement, 4, REVEALED));
 
-    PlayerAchievement playerAchievement = captureSaveEvent();
+    update(Operation.INCREMENT, 3);
 
-    assertThat(playerAchievement.getCurrentSteps(), is(7));
-    assertThat(playerAchievement.getState(), is(REVEALED));
+    assertThat(captureUpsert(), contains(new PlayerAchievementState(PLAYER_ID, "111", 7, REVEALED)));
   }
 
   /**
@@ -107,10 +121,10 @@ public class EventsServiceTest {
   public void incrementNonIncremental() throws Exception {
     mockAchievement("111", AchievementType.STANDARD, null);
 
-    ApiException result = assertThrows(ApiException.class, () -> instance.increment(PLAYER_ID, "111", 3));
+    ApiException result = assertThrows(ApiException.class, () -> update(Operation.INCREMENT, 3));
     assertThat(result, hasErrorCode(ErrorCode.ACHIEVEMENT_NOT_INCREMENTAL));
 
-    verify(playerAchievementRepository, never()).findOneByAchievementIdAndPlayerId(any(), anyInt());
+    verify(playerAchievementRepository, never()).findAllByPlayerIdInAndAchievementIdIn(any(), any());
   }
 
   /**
@@ -119,15 +133,11 @@ public class EventsServiceTest {
   @Test
   public void setStepsAtLeastFirstTime() throws Exception {
     mockAchievement("111", AchievementType.INCREMENTAL, 10);
-    when(playerAchievementRepository.findOneByAchievementIdAndPlayerId("111", PLAYER_ID))
-      .thenReturn(Optional.empty());
-
-    instance.setStepsAtLeast(PLAYER_ID, "111", 4);
+    mockPlayerAchievement(null);
 
-    PlayerAchievement playerAchievement = captureSaveEvent();
+    update(Operation.SET_STEPS_AT_LEAST, 4);
 
-    assertThat(playerAchievement.getCurrentSteps(), is(4));
-    assertThat(playerAchievement.getState(), is(REVEALED));
+    assertThat(captureUpsert(), contains(new PlayerAchievementState(PLAYER_ID, "111", 4, REVEALED)));
   }
 
   /**
@@ -135,16 +145,13 @@ public class EventsServiceTest {
    */
   @Test
   public void setStepsAtLeastExistingLessSteps() throws Exception {
-    mockAchievement("111", AchievementType.INCREMENTAL, 10);
-    when(playerAchievementRepository.findOneByAchievementIdAndPlayerId("111", PLAYER_ID))
-      .thenReturn(Optional.of(createPlayerAchievement(5, REVEALED)));
-
-    instance.setStepsAtLeast(PLAYER_ID, "111", 4);
+    Achievement achievement = mockAchievement("111", AchievementType.INCREMENTAL, 10);
+    mockPlayerAchievement(createExistingPlayerAchievement(achievement, 5, REVEALED));
 
-    PlayerAchievement playerAchievement = captureSaveEvent();
+    UpdatedAchievementResponse response = update(Operation.SET_STEPS_AT_LEAST, 4);
 
-    assertThat(playerAchievement.getCurrentSteps(), is(5));
-    assertThat(playerAchievement.getState(), is(REVEALED));
+    assertThat(response, is(new UpdatedAchievementResponse("111", false, REVEALED, 5)));
+    assertThat(captureUpsert(), is(empty()));
   }
 
   /**
@@ -152,16 +159,12 @@ public class EventsServiceTest {
    */
   @Test
   public void setStepsAtLeastExistingMoreSteps() throws Exception {
-    mockAchievement("111", AchievementType.INCREMENTAL, 10);
-    when(playerAchievementRepository.findOneByAchievementIdAndPlayerId("111", PLAYER_ID))
-      .thenReturn(Optional.of(createPlayerAchievement(5, REVEALED)));
+    Achievement achievement = mockAchievement("111", AchievementType.INCREMENTAL, 10);
+    mockPlayerAchievement(createExistingPlayerAchievement(achievement, 5, REVEALED));
 
-    instance.setStepsAtLeast(PLAYER_ID, "111", 6);
+    update(Operation.SET_STEPS_AT_LEAST, 6);
 
-    PlayerAchievement playerAchievement = captureSaveEvent();
-
-    assertThat(playerAchievement.getCurrentSteps(), is(6));
-    assertThat(playerAchievement.getState(), is(REVEALED));
+    assertThat(captureUpsert(), contains(new PlayerAchievementState(PLAYER_ID, "111", 6, REVEALED)));
   }
 
   /**
@@ -170,15 +173,11 @@ public class EventsServiceTest {
   @Test
   public void unlockFirstTime() throws Exception {
     mockAchievement("111", AchievementType.STANDARD, null);
-    when(playerAchievementRepository.findOneByAchievementIdAndPlayerId("111", PLAYER_ID))
-      .thenReturn(Optional.empty());
-
-    instance.unlock(PLAYER_ID, "111");
+    mockPlayerAchievement(null);
 
-    PlayerAchievement playerAchievement = captureSaveEvent();
+    update(Operation.UNLOCK, 0);
 
-    assertThat(playerAchievement.getCurrentSteps(), is(CoreMatchers.nullValue()));
-    assertThat(playerAchievement.getState(), is(UNLOCKED));
+    assertThat(captureUpsert(), contains(new PlayerAchievementState(PLAYER_ID, "111", null, UNLOCKED)));
   }
 
   /**
@@ -186,13 +185,13 @@ public class EventsServiceTest {
    */
   @Test
   public void unlockSecondTime() throws Exception {
-    mockAchievement("111", AchievementType.STANDARD, null);
-    when(playerAchievementRepository.findOneByAchievementIdAndPlayerId("111", PLAYER_ID))
-      .thenReturn(Optional.of(createPlayerAchievement(null, UNLOCKED)));
+    Achievement achievement = mockAchievement("111", AchievementType.STANDARD, null);
+    mockPlayerAchievement(createExistingPlayerAchievement(achievement, null, UNLOCKED));
 
-    instance.unlock(PLAYER_ID, "111");
+    UpdatedAchievementResponse response = update(Operation.UNLOCK, 0);
 
-    verify(playerAchievementRepository, never()).save(any(PlayerAchievement.class));
+    assertThat(response, is(new UpdatedAchievementResponse("111", false, UNLOCKED)));
+    assertThat(captureUpsert(), is(empty()));
   }
 
   /**
@@ -202,9 +201,93 @@ public class EventsServiceTest {
   public void unlockIncremental() throws Exception {
     mockAchievement("111", AchievementType.INCREMENTAL, 1);
 
-    ApiException result = assertThrows(ApiException.class, () -> instance.unlock(PLAYER_ID, "111"));
+    ApiException result = assertThrows(ApiException.class, () -> update(Operation.UNLOCK, 0));
     assertThat(result, hasErrorCode(ErrorCode.ACHIEVEMENT_NOT_STANDARD));
 
-    verify(playerAchievementRepository, never()).findOneByAchievementIdAndPlayerId(any(), anyInt());
+    verify(playerAchievementRepository, never()).findAllByPlayerIdInAndAchievementIdIn(any(), any());
+  }
+
+  /**
+   * Tests whether multiple updates of the same player achievement within a batch are applied in order and written
+   * with a single upsert.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void updateAllAppliesUpdatesInOrder() {
+    Achievement incremental = createAchievement("111", AchievementType.INCREMENTAL, 10);
+    Achievement standard = createAchievement("222", AchievementType.STANDARD, null);
+    when(achievementRepository.findAllById(any())).thenReturn(List.of(incremental, standard));
+
+    PlayerAchievement existing = createPlayerAchievement(4, REVEALED);
+    existing.setPlayerId(PLAYER_ID);
+    existing.setAchievement(incremental);
+    when(playerAchievementRepository.findAllByPlayerIdInAndAchievementIdIn(any(), any())).thenReturn(List.of(existing));
+
+    List<UpdatedAchievementResponse> responses = instance.updateAll(List.of(
+      new AchievementUpdateRequest(PLAYER_ID, "111", Operation.INCREMENT, 3),
+      new AchievementUpdateRequest(PLAYER_ID, "111", Operation.INCREMENT, 5),
+      new AchievementUpdateRequest(PLAYER_ID, "222", Operation.UNLOCK, 0),
+      new AchievementUpdateRequest(PLAYER_ID, "222", Operation.UNLOCK, 0)
+    ));
+
+    assertThat(responses.get(0), is(new UpdatedAchievementResponse("111", false, REVEALED, 7)));
+    assertThat(responses.get(1), is(new UpdatedAchievementResponse("111", true, UNLOCKED, 10)));
+    assertThat(responses.get(2), is(new UpdatedAchievementResponse("222", true, UNLOCKED)));
+    assertThat(responses.get(3), is(new UpdatedAchievementResponse("222", false, UNLOCKED)));
+
+    ArgumentCaptor<Collection<PlayerAchievementState>> captor = ArgumentCaptor.forClass(Collection.class);
+    verify(playerAchievementBatchRepository).upsertAll(captor.capture());
+    assertThat(captor.getValue(), containsInAnyOrder(
+      new PlayerAchievementState(PLAYER_ID, "111", 10, UNLOCKED),
+      new PlayerAchievementState(PLAYER_ID, "222", null, UNLOCKED)
+    ));
+  }
+
+  /**
+   * Tests whether a batch is rejected as a whole if one of its updates is invalid.
+   */
+  @Test
+  public void updateAllRejectsInvalidBatch() {
+    Achievement incremental = createAchievement("111", AchievementType.INCREMENTAL, 10);
+    when(achievementRepository.findAllById(any())).thenReturn(List.of(incremental));
+
+    ApiException result = assertThrows(ApiException.class, () -> instance.updateAll(List.of(
+      new AchievementUpdateRequest(PLAYER_ID, "111", Operation.INCREMENT, 3),
+      new AchievementUpdateRequest(PLAYER_ID, "111", Operation.UNLOCK, 0)
+    )));
+    assertThat(result, hasErrorCode(ErrorCode.ACHIEVEMENT_NOT_STANDARD));
+
+    verify(playerAchievementRepository, never()).findAllByPlayerIdInAndAchievementIdIn(any(), any());
+    verify(playerAchievementBatchRepository, never()).upsertAll(any());
+  }
+
+  /**
+   * Tests whether an empty batch doesn't query the database, since an empty {@code IN ()} is invalid SQL.
+   */
+  @Test
+  public void updateAllEmptyBatch() {
+    assertThat(instance.updateAll(List.of()), is(empty()));
+
+    verifyNoInteractions(achievementRepository, playerAchievementRepository, playerAchievementBatchRepository);
+  }
+
+  /**
+   * Tests whether revealing achievements is still unsupported.
+   */
+  @Test
+  public void updateAllRevealUnsupported() {
+    when(achievementRepository.findAllById(any())).thenReturn(List.of());
+
+    assertThrows(UnsupportedOperationException.class, () -> instance.updateAll(List.of(
+      new AchievementUpdateRequest(PLAYER_ID, "111", Operation.REVEAL, 1)
+    )));
+  }
+
+  private Achievement createAchievement(String achievementId, AchievementType type, Integer totalSteps) {
+    Achievement achievement = new Achievement();
+    achievement.setId(achievementId);
+    achievement.setType(type);
+    achievement.setTotalSteps(totalSteps);
+    return achievement;
   }
 }
@@ -8,12 +8,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,10 +26,12 @@ public class PlayerAchievementsControllerTest {
 
   @Mock
   private AchievementService achievementService;
+  @Mock
+  private AchievementIncrementBuffer achievementIncrementBuffer;
 
   @BeforeEach
   public void setUp() throws Exception {
-    instance = new AchievementsController(achievementService);
+    instance = new AchievementsController(achievementService, achievementIncrementBuffer);
   }
 
   @Test
@@ -41,30 +44,14 @@ public class PlayerAchievementsControllerTest {
       new AchievementUpdateRequest(1, "555", Operation.UNLOCK, 11),
       new AchievementUpdateRequest(1, "666", Operation.UNLOCK, 17),
     };
-    when(achievementService.increment(anyInt(), any(), anyInt())).thenAnswer(invocation ->
-      new UpdatedAchievementResponse(invocation.getArgument(1), true, AchievementState.UNLOCKED, invocation.getArgument(2)));
-    when(achievementService.setStepsAtLeast(anyInt(), any(), anyInt())).thenAnswer(invocation ->
-      new UpdatedAchievementResponse(invocation.getArgument(1), true, AchievementState.UNLOCKED, invocation.getArgument(2)));
-    when(achievementService.unlock(anyInt(), any())).thenAnswer(invocation ->
-      new UpdatedAchievementResponse(invocation.getArgument(1), true, AchievementState.UNLOCKED));
+    when(achievementService.updateAll(any())).thenAnswer(invocation -> invocation.<List<AchievementUpdateRequest>>getArgument(0).stream()
+      .map(request -> new UpdatedAchievementResponse(request.achievementId(), true, AchievementState.UNLOCKED, request.steps()))
+      .toList());
 
-    JsonApiDocument result = instance.update(updateRequests);
+    JsonApiDocument result = instance.update(updateRequests, new MockHttpServletResponse());
 
-    verify(achievementService).increment(1, "111", 7);
-    verify(achievementService).increment(1, "222", 19);
-    verify(achievementService).setStepsAtLeast(1, "333", 9);
-    verify(achievementService).setStepsAtLeast(1, "444", 13);
-    verify(achievementService).unlock(1, "555");
-    verify(achievementService).unlock(1, "666");
+    verify(achievementService).updateAll(List.of(updateRequests));
 
     assertThat(result.getData().get(), hasSize(6));
   }
-
-  @Test
-  public void updateReveledUnsupported() throws Exception {
-    AchievementUpdateRequest[] updateRequests = {new AchievementUpdateRequest(1, "111", Operation.REVEAL, 1)};
-
-    assertThrows(UnsupportedOperationException.class, () -> instance.update(updateRequests));
-
-  }
 }
@@ -0,0 +1,167 @@
+package com.faforever.api.data;
+
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.config.FafApiProperties.OverBudgetAction;
+import com.faforever.api.data.QueryCostAdmission.QueryCost;
+import com.faforever.api.data.domain.Game;
+import com.faforever.api.data.domain.GamePlayerStats;
+import com.faforever.api.data.domain.Player;
+import com.faforever.api.error.ApiException;
+import com.faforever.api.error.ErrorCode;
+import com.yahoo.elide.core.dictionary.EntityDictionary;
+import com.yahoo.elide.core.dictionary.RelationshipType;
+import com.yahoo.elide.core.type.Type;
+import com.yahoo.elide.core.utils.TypeHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static com.faforever.api.error.ApiExceptionMatcher.hasErrorCode;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class QueryCostAdmissionTest {
+
+  private final Type<?> gameType = TypeHelper.getClassType(Game.class);
+  private final Type<?> gamePlayerStatsType = TypeHelper.getClassType(GamePlayerStats.class);
+  private final Type<?> playerType = TypeHelper.getClassType(Player.class);
+
+  @Mock
+  private EntityDictionary entityDictionary;
+
+  private FafApiProperties properties;
+  private SimpleMeterRegistry meterRegistry;
+  private QueryCostAdmission instance;
+
+  @BeforeEach
+  public void setUp() {
+    properties = new FafApiProperties();
+    properties.getQueryCost().setMaxCost(10_000);
+    meterRegistry = new SimpleMeterRegistry();
+    instance = new QueryCostAdmission(entityDictionary, properties, meterRegistry);
+
+    // Not used if the admission is disabled
+    lenient().doReturn(gameType).when(entityDictionary).getEntityClass("game", DataController.API_VERSION);
+  }
+
+  private void mockPlayerStatsRelationships() {
+    when(entityDictionary.getRelationshipType(gameType, "playerStats")).thenReturn(RelationshipType.ONE_TO_MANY);
+    when(entityDictionary.getJsonAliasFor(gameType)).thenReturn("game");
+    doReturn(gamePlayerStatsType).when(entityDictionary).getParameterizedType(gameType, "playerStats");
+  }
+
+  @Test
+  public void estimateUsesPageSize() {
+    QueryCost cost = instance.estimate("/game", Map.of(QueryCostAdmission.PAGE_SIZE, "100"));
+
+    assertThat(cost, is(new QueryCost("game", 100, 1, true)));
+  }
+
+  @Test
+  public void estimateUsesPageLimit() {
+    QueryCost cost = instance.estimate("/game", Map.of(QueryCostAdmission.PAGE_LIMIT, "50"));
+
+    assertThat(cost.rootRows(), is(50L));
+  }
+
+  @Test
+  public void estimateUsesDefaultPageSize() {
+    assertThat(instance.estimate("/game", Map.of()).rootRows(), is(500L));
+    assertThat(instance.estimate("/game", Map.of(QueryCostAdmission.PAGE_SIZE, "invalid")).rootRows(), is(500L));
+  }
+
+  @Test
+  public void estimateSingleResource() {
+    QueryCost cost = instance.estimate("/game/1", Map.of(QueryCostAdmission.PAGE_SIZE, "100"));
+
+    assertThat(cost, is(new QueryCost("game", 1, 1, false)));
+  }
+
+  @Test
+  public void estimateUsesCardinalityHints() {
+    mockPlayerStatsRelationships();
+    when(entityDictionary.getRelationshipType(gamePlayerStatsType, "player")).thenReturn(RelationshipType.MANY_TO_ONE);
+    doReturn(playerType).when(entityDictionary).getParameterizedType(gamePlayerStatsType, "player");
+
+    QueryCost cost = instance.estimate("/game", Map.of(QueryCostAdmission.PAGE_SIZE, "100", "include", "playerStats.player"));
+
+    // Every game, 8 player stats per game (hint) and one player per player stats
+    assertThat(cost.costPerRootRow(), is(1L + 8 + 8));
+    assertThat(cost.total(), is(1700L));
+  }
+
+  @Test
+  public void estimateUsesDefaultCardinality() {
+    properties.getQueryCost().setCardinalityHints(Map.of());
+    mockPlayerStatsRelationships();
+
+    QueryCost cost = instance.estimate("/game", Map.of(QueryCostAdmission.PAGE_SIZE, "100", "include", "playerStats"));
+
+    assertThat(cost.costPerRootRow(), is(1L + 10));
+  }
+
+  @Test
+  public void estimateCountsSharedIncludePrefixesOnce() {
+    mockPlayerStatsRelationships();
+    when(entityDictionary.getRelationshipType(gamePlayerStatsType, "player")).thenReturn(RelationshipType.MANY_TO_ONE);
+    doReturn(playerType).when(entityDictionary).getParameterizedType(gamePlayerStatsType, "player");
+
+    QueryCost cost = instance.estimate("/game", Map.of(QueryCostAdmission.PAGE_SIZE, "100", "include", "playerStats,playerStats.player"));
+
+    assertThat(cost.costPerRootRow(), is(1L + 8 + 8));
+  }
+
+  @Test
+  public void admitWithinBudget() {
+    Map<String, String> requestParams = Map.of(QueryCostAdmission.PAGE_SIZE, "100");
+
+    assertThat(instance.admit("/game", requestParams), sameInstance(requestParams));
+  }
+
+  @Test
+  public void admitOverBudgetIsLoggedByDefault() {
+    Map<String, String> requestParams = Map.of(QueryCostAdmission.PAGE_SIZE, "20000");
+
+    assertThat(instance.admit("/game", requestParams), sameInstance(requestParams));
+    assertThat(meterRegistry.get("faf.api.data.queryCost.exceeded").tag("type", "game").counter().count(), is(1.0));
+  }
+
+  @Test
+  public void admitOverBudgetRejected() {
+    properties.getQueryCost().setOverBudgetAction(OverBudgetAction.REJECT);
+
+    ApiException result = assertThrows(ApiException.class, () -> instance.admit("/game", Map.of(QueryCostAdmission.PAGE_SIZE, "20000")));
+
+    assertThat(result, hasErrorCode(ErrorCode.QUERY_COST_EXCEEDED));
+  }
+
+  @Test
+  public void admitOverBudgetDowngraded() {
+    properties.getQueryCost().setOverBudgetAction(OverBudgetAction.DOWNGRADE);
+    mockPlayerStatsRelationships();
+
+    Map<String, String> result = instance.admit("/game", Map.of(QueryCostAdmission.PAGE_LIMIT, "20000", "include", "playerStats"));
+
+    // 10000 / (1 + 8)
+    assertThat(result.get(QueryCostAdmission.PAGE_LIMIT), is("1111"));
+  }
+
+  @Test
+  public void admitDisabled() {
+    properties.getQueryCost().setEnabled(false);
+    Map<String, String> requestParams = Map.of(QueryCostAdmission.PAGE_SIZE, "20000");
+
+    assertThat(instance.admit("/game", requestParams), sameInstance(requestParams));
+  }
+}
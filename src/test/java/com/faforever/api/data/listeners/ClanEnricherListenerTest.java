@@ -23,11 +23,9 @@ public class ClanEnricherListenerTest {
   }
 
   @Test
-  void enrich() throws Exception {
+  void websiteUrl() throws Exception {
     Clan clan = ClanFactory.builder().id(54).build();
 
-    instance.enrich(clan);
-
     assertThat(clan.getWebsiteUrl(), is("http://example.com/54"));
   }
 }
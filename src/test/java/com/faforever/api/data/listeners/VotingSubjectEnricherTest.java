@@ -6,6 +6,8 @@ import com.faforever.api.data.domain.VotingAnswer;
 import com.faforever.api.data.domain.VotingChoice;
 import com.faforever.api.data.domain.VotingQuestion;
 import com.faforever.api.data.domain.VotingSubject;
+import com.faforever.api.voting.VotingAnswerRepository;
+import com.faforever.api.voting.VotingPreference;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,29 +17,48 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.support.MessageSourceAccessor;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class VotingSubjectEnricherTest {
   private VotingSubjectEnricher instance;
   @Mock
   private MessageSourceAccessor messageSourceAccessor;
+  @Mock
+  private VotingAnswerRepository votingAnswerRepository;
+
+  /** The preferences that the repository returns, as added by {@link #addAnswerToChoice}. */
+  private final List<VotingPreference> preferences = new ArrayList<>();
 
   @BeforeEach
   public void setUp() {
     instance = new VotingSubjectEnricher();
-    instance.init(messageSourceAccessor);
+    instance.init(messageSourceAccessor, votingAnswerRepository);
+  }
+
+  private void mockPreferences(VotingQuestion votingQuestion) {
+    when(votingAnswerRepository.findPreferencesByQuestionId(votingQuestion.getId())).thenReturn(preferences.stream()
+      .sorted(Comparator.comparingInt(VotingPreference::voteId).thenComparingInt(VotingPreference::alternativeOrdinal))
+      .toList());
   }
 
   @Test
   public void testQuestionEnhancing() {
     VotingQuestion votingQuestion = new VotingQuestion();
+    votingQuestion.setId(1);
     votingQuestion.setAlternativeQuestion(true);
     votingQuestion.setQuestionKey("abc");
     VotingSubject votingSubject = new VotingSubject();
@@ -45,23 +66,23 @@ public class VotingSubjectEnricherTest {
     votingSubject.setRevealWinner(true);
     votingQuestion.setVotingSubject(votingSubject);
 
-    Vote vote1 = new Vote();
+    Vote vote1 = (Vote) new Vote().setId(1);
     Player player1 = new Player();
     vote1.setPlayer(player1);
 
-    Vote vote2 = new Vote();
+    Vote vote2 = (Vote) new Vote().setId(2);
     Player player2 = new Player();
     vote2.setPlayer(player2);
 
-    Vote vote3 = new Vote();
+    Vote vote3 = (Vote) new Vote().setId(3);
     Player player3 = new Player();
     vote1.setPlayer(player3);
 
-    Vote vote4 = new Vote();
+    Vote vote4 = (Vote) new Vote().setId(4);
     Player player4 = new Player();
     vote1.setPlayer(player4);
 
-    Vote vote5 = new Vote();
+    Vote vote5 = (Vote) new Vote().setId(5);
     Player player5 = new Player();
     vote1.setPlayer(player5);
 
@@ -86,6 +107,7 @@ public class VotingSubjectEnricherTest {
 
     addAnswerToChoice(votingChoice2, votingQuestion, vote5, 0);
 
+    mockPreferences(votingQuestion);
     instance.calculateWinners(votingQuestion);
 
     assertThat(votingQuestion.getWinners(), hasItem(votingChoice2));
@@ -151,6 +173,7 @@ public class VotingSubjectEnricherTest {
 
     addAnswerToChoice(votingChoice3, votingQuestion, vote5, 0);
 
+    mockPreferences(votingQuestion);
     instance.calculateWinners(votingQuestion);
 
     assertThat(votingQuestion.getWinners(), Matchers.allOf(hasItem(votingChoice2), hasItem(votingChoice)));
@@ -222,6 +245,7 @@ public class VotingSubjectEnricherTest {
 
     addAnswerToChoice(null, votingQuestion, vote7, 1);
 
+    mockPreferences(votingQuestion);
     instance.calculateWinners(votingQuestion);
 
     assertThat(votingQuestion.getWinners(), Matchers.allOf(hasItem(votingChoice2), hasItem(votingChoice)));
@@ -295,16 +319,82 @@ public class VotingSubjectEnricherTest {
     addAnswerToChoice(votingChoice3, votingQuestion, vote7, 0);
 
 
+    mockPreferences(votingQuestion);
     instance.calculateWinners(votingQuestion);
 
     assertThat(votingQuestion.getWinners(), is(List.of(votingChoice3)));
   }
 
+  @Test
+  public void testQuestionEnhancingRedistributesOverSeveralRounds() {
+    VotingQuestion votingQuestion = new VotingQuestion();
+    votingQuestion.setId(1);
+    votingQuestion.setAlternativeQuestion(true);
+    VotingSubject votingSubject = new VotingSubject();
+    votingSubject.setId(1);
+    votingSubject.setEndOfVoteTime(OffsetDateTime.MIN);
+    votingSubject.setRevealWinner(true);
+    votingQuestion.setVotingSubject(votingSubject);
+
+    List<VotingChoice> votingChoices = IntStream.rangeClosed(1, 4)
+      .mapToObj(id -> new VotingChoice().setVotingQuestion(votingQuestion).setId(id))
+      .toList();
+    VotingChoice a = votingChoices.get(0);
+    VotingChoice b = votingChoices.get(1);
+    VotingChoice c = votingChoices.get(2);
+    VotingChoice d = votingChoices.get(3);
+
+    AtomicInteger voteIds = new AtomicInteger();
+    // 1st preferences A: 4, B: 3, C: 2, D: 1. D and then C are eliminated, moving 3 votes to B, which beats A.
+    addBallot(votingQuestion, voteIds, 4, a);
+    addBallot(votingQuestion, voteIds, 3, b, c);
+    addBallot(votingQuestion, voteIds, 2, c, b);
+    addBallot(votingQuestion, voteIds, 1, d, b);
+
+    mockPreferences(votingQuestion);
+    instance.calculateWinners(votingQuestion);
+
+    assertThat(votingQuestion.getWinners(), is(List.of(b)));
+  }
+
+  @Test
+  public void testQuestionEnhancingPlurality() {
+    VotingQuestion votingQuestion = new VotingQuestion();
+    votingQuestion.setId(1);
+    votingQuestion.setAlternativeQuestion(false);
+    VotingSubject votingSubject = new VotingSubject();
+    votingSubject.setEndOfVoteTime(OffsetDateTime.MIN);
+    votingSubject.setRevealWinner(true);
+    votingQuestion.setVotingSubject(votingSubject);
+
+    VotingChoice a = new VotingChoice().setVotingQuestion(votingQuestion).setId(1).setAnswerCount(3);
+    VotingChoice b = new VotingChoice().setVotingQuestion(votingQuestion).setId(2).setAnswerCount(5);
+    VotingChoice c = new VotingChoice().setVotingQuestion(votingQuestion).setId(3).setAnswerCount(5);
+    votingQuestion.setVotingChoices(Set.of(a, b, c));
+
+    instance.calculateWinners(votingQuestion);
+
+    assertThat(votingQuestion.getWinners(), containsInAnyOrder(b, c));
+    verifyNoInteractions(votingAnswerRepository);
+  }
+
+  private void addBallot(VotingQuestion votingQuestion, AtomicInteger voteIds, int count, VotingChoice... preferences) {
+    for (int i = 0; i < count; i++) {
+      Vote vote = (Vote) new Vote().setId(voteIds.incrementAndGet());
+      for (int ordinal = 0; ordinal < preferences.length; ordinal++) {
+        addAnswerToChoice(preferences[ordinal], votingQuestion, vote, ordinal);
+      }
+    }
+  }
+
   private void addAnswerToChoice(VotingChoice votingChoice, VotingQuestion votingQuestion, Vote vote, int alternativeOrdinal) {
     VotingAnswer votingAnswer = new VotingAnswer();
     votingAnswer.setAlternativeOrdinal(alternativeOrdinal);
     votingAnswer.setVote(vote);
     votingAnswer.setVotingChoice(votingChoice);
+    if (votingChoice != null) {
+      preferences.add(new VotingPreference(vote.getId(), votingChoice.getId(), alternativeOrdinal));
+    }
 
     if (vote.getVotingAnswers() != null) {
       vote.getVotingAnswers().add(votingAnswer);
@@ -0,0 +1,64 @@
+package com.faforever.api.deployment;
+
+import com.faforever.api.config.FafApiProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ContentAddressedFileStoreTest {
+
+  @TempDir
+  public Path tempDirectory;
+
+  private Path storeDirectory;
+  private Path filesDirectory;
+  private ContentAddressedFileStore instance;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    storeDirectory = tempDirectory.resolve("store");
+    filesDirectory = Files.createDirectories(tempDirectory.resolve("updates_faf_files"));
+
+    FafApiProperties properties = new FafApiProperties();
+    properties.getDeployment().setContentStoreDirectory(storeDirectory.toString());
+    instance = new ContentAddressedFileStore(properties);
+  }
+
+  @Test
+  public void identicalFilesShareStoredContent() throws Exception {
+    Path first = Files.writeString(filesDirectory.resolve("effects.3700.nx2.tmp"), "content");
+    Path second = Files.writeString(filesDirectory.resolve("effects.3701.nx2.tmp"), "content");
+
+    instance.store(first, "9a0364b9e99bb480dd25e1f0284c8555", filesDirectory.resolve("effects.3700.nx2"));
+    instance.store(second, "9a0364b9e99bb480dd25e1f0284c8555", filesDirectory.resolve("effects.3701.nx2"));
+
+    Path storedFile = storeDirectory.resolve("9a/9a0364b9e99bb480dd25e1f0284c8555");
+    assertThat(Files.readString(storedFile), is("content"));
+    assertThat(Files.isSameFile(filesDirectory.resolve("effects.3700.nx2"), storedFile), is(true));
+    assertThat(Files.isSameFile(filesDirectory.resolve("effects.3701.nx2"), storedFile), is(true));
+    assertThat(Files.exists(first), is(false));
+    assertThat(Files.exists(second), is(false));
+  }
+
+  @Test
+  public void existingTargetIsReplaced() throws Exception {
+    Files.writeString(filesDirectory.resolve("effects.3700.nx2"), "old");
+    Path file = Files.writeString(filesDirectory.resolve("effects.3700.nx2.tmp"), "new");
+
+    instance.store(file, "22af645d1859cb5ca6da0c484f1f37ea", filesDirectory.resolve("effects.3700.nx2"));
+
+    assertThat(Files.readString(filesDirectory.resolve("effects.3700.nx2")), is("new"));
+  }
+
+  @Test
+  public void disabledWithoutDirectory() {
+    assertThat(new ContentAddressedFileStore(new FafApiProperties()).isEnabled(), is(false));
+    assertThat(instance.isEnabled(), is(true));
+  }
+}
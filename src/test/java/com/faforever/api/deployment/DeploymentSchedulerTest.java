@@ -0,0 +1,114 @@
+package com.faforever.api.deployment;
+
+import com.faforever.api.deployment.DeploymentJob.State;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class DeploymentSchedulerTest {
+
+  private static final String REPOSITORY_URL = "https://example.com/repo.git";
+
+  private Queue<Runnable> submittedTasks;
+  private List<String> deployedJobs;
+  private DeploymentScheduler instance;
+
+  @BeforeEach
+  public void setUp() {
+    submittedTasks = new ArrayDeque<>();
+    deployedJobs = new ArrayList<>();
+    instance = new DeploymentScheduler(submittedTasks::add);
+  }
+
+  @Test
+  public void deploymentsOfSameRepositoryAreSerialized() {
+    DeploymentJob faf = submit(REPOSITORY_URL, "faf", "1", () -> {});
+    DeploymentJob fafBeta = submit(REPOSITORY_URL, "fafbeta", "2", () -> {});
+
+    assertThat(submittedTasks, hasSize(1));
+    assertThat(fafBeta.getState(), is(State.QUEUED));
+
+    submittedTasks.remove().run();
+    assertThat(faf.getState(), is(State.SUCCEEDED));
+    assertThat(submittedTasks, hasSize(1));
+
+    submittedTasks.remove().run();
+    assertThat(fafBeta.getState(), is(State.SUCCEEDED));
+    assertThat(submittedTasks, empty());
+    assertThat(deployedJobs, contains("1", "2"));
+  }
+
+  @Test
+  public void deploymentsOfDifferentRepositoriesRunConcurrently() {
+    submit(REPOSITORY_URL, "faf", "1", () -> {});
+    submit("https://example.com/other.git", "coop", "2", () -> {});
+
+    assertThat(submittedTasks, hasSize(2));
+  }
+
+  @Test
+  public void pendingDeploymentIsSupersededByNewerOne() {
+    List<String> supersededJobs = new ArrayList<>();
+    submit(REPOSITORY_URL, "faf", "1", () -> supersededJobs.add("1"));
+    DeploymentJob second = submit(REPOSITORY_URL, "faf", "2", () -> supersededJobs.add("2"));
+    DeploymentJob third = submit(REPOSITORY_URL, "faf", "3", () -> supersededJobs.add("3"));
+
+    assertThat(second.getState(), is(State.SUPERSEDED));
+    assertThat(third.getState(), is(State.QUEUED));
+    assertThat(supersededJobs, contains("2"));
+
+    submittedTasks.remove().run();
+    submittedTasks.remove().run();
+
+    assertThat(submittedTasks, empty());
+    assertThat(deployedJobs, contains("1", "3"));
+  }
+
+  @Test
+  public void failedDeploymentDoesNotBlockQueue() {
+    DeploymentJob failing = instance.submit(REPOSITORY_URL, "faf", "1", job -> {
+      throw new IllegalStateException("Deployment failed");
+    }, () -> {});
+    submit(REPOSITORY_URL, "fafbeta", "2", () -> {});
+
+    submittedTasks.remove().run();
+    submittedTasks.remove().run();
+
+    assertThat(failing.getState(), is(State.FAILED));
+    assertThat(deployedJobs, contains("2"));
+  }
+
+  @Test
+  public void jobsReportPhasesAndFinishedJobs() {
+    DeploymentJob job = instance.submit(REPOSITORY_URL, "faf", "1", deploymentJob -> {
+      deploymentJob.enterPhase("Updating repository");
+      deploymentJob.enterPhase("Packaging files");
+    }, () -> {});
+    DeploymentJob queued = submit(REPOSITORY_URL, "fafbeta", "2", () -> {});
+
+    assertThat(instance.getJobs(), contains(job, queued));
+
+    submittedTasks.remove().run();
+
+    assertThat(job.getPhaseMillis(), hasKey("Updating repository"));
+    assertThat(job.getPhaseMillis(), hasKey("Packaging files"));
+    assertThat(job.getCurrentPhase(), nullValue());
+    assertThat(instance.getJobs(), contains(queued, job));
+  }
+
+  private DeploymentJob submit(String repositoryUrl, String modName, String description, Runnable onSuperseded) {
+    return instance.submit(repositoryUrl, modName, description, job -> deployedJobs.add(description), onSuperseded);
+  }
+}
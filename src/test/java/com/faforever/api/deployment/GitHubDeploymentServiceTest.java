@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.kohsuke.github.GHDeployment;
 import org.kohsuke.github.GHDeploymentBuilder;
+import org.kohsuke.github.GHDeploymentState;
 import org.kohsuke.github.GHDeploymentStatusBuilder;
 import org.kohsuke.github.GHEventPayload.Deployment;
 import org.kohsuke.github.GHEventPayload.Push;
@@ -15,7 +16,9 @@ import org.kohsuke.github.GHRepository;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,11 +42,14 @@ public class GitHubDeploymentServiceTest {
   private ApplicationContext applicationContext;
   @Mock
   private FeaturedModService featuredModService;
+  @Mock
+  private PlatformTransactionManager transactionManager;
 
   @BeforeEach
   public void setUp() throws Exception {
     apiProperties = new FafApiProperties();
-    instance = new GitHubDeploymentService(applicationContext, apiProperties, featuredModService);
+    instance = new GitHubDeploymentService(applicationContext, apiProperties, featuredModService,
+      new DeploymentScheduler(Runnable::run), transactionManager);
   }
 
   @Test
@@ -143,11 +149,61 @@ public class GitHubDeploymentServiceTest {
     when(task.setFeaturedMod(any())).thenReturn(task);
     when(task.setStatusDescriptionListener(any())).thenReturn(task);
     when(applicationContext.getBean(LegacyFeaturedModDeploymentTask.class)).thenReturn(task);
-    when(featuredModService.findModByTechnicalName("faf")).thenReturn(Optional.of(new FeaturedMod()));
+    when(featuredModService.findModByTechnicalName("faf")).thenReturn(Optional.of(new FeaturedMod().setGitUrl(EXAMPLE_REPO_URL)));
 
     instance.deploy(deployment);
 
     verify(task).run();
     verify(builder).create();
+    verify(transactionManager).commit(any());
+  }
+
+  @Test
+  public void supersededDeploymentIsMarkedInactive() throws Exception {
+    apiProperties.getGitHub().setDeploymentEnvironment(ENVIRONMENT);
+    List<Runnable> startedDeployments = new ArrayList<>();
+    instance = new GitHubDeploymentService(applicationContext, apiProperties, featuredModService,
+      new DeploymentScheduler(startedDeployments::add), transactionManager);
+
+    GHRepository ghRepository = mock(GHRepository.class);
+    GHDeploymentStatusBuilder builder = mock(GHDeploymentStatusBuilder.class);
+    when(builder.description(any())).thenReturn(builder);
+    GHDeployment deploymentMock = mock(GHDeployment.class);
+    when(ghRepository.getDeployment(2)).thenReturn(deploymentMock);
+    when(deploymentMock.createStatus(GHDeploymentState.INACTIVE)).thenReturn(builder);
+    when(featuredModService.findModByTechnicalName("faf")).thenReturn(Optional.of(new FeaturedMod().setGitUrl(EXAMPLE_REPO_URL)));
+
+    // The first deployment keeps running, so the second one is queued and then replaced by the third one
+    instance.deploy(deploymentEvent(1, ghRepository));
+    instance.deploy(deploymentEvent(2, ghRepository));
+    instance.deploy(deploymentEvent(3, ghRepository));
+
+    verify(deploymentMock).createStatus(GHDeploymentState.INACTIVE);
+    verify(builder).description("Superseded by a newer deployment");
+    verify(builder).create();
+  }
+
+  private Deployment deploymentEvent(long id, GHRepository repository) {
+    GHDeployment ghDeployment = new GHDeployment() {
+      @Override
+      public long getId() {
+        return id;
+      }
+
+      @Override
+      public String getEnvironment() {
+        return ENVIRONMENT;
+      }
+
+      @Override
+      public String getPayload() {
+        return "faf";
+      }
+    };
+
+    Deployment deployment = mock(Deployment.class);
+    when(deployment.getDeployment()).thenReturn(ghDeployment);
+    when(deployment.getRepository()).thenReturn(repository);
+    return deployment;
   }
 }
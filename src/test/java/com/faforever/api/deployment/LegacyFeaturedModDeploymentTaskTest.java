@@ -6,6 +6,7 @@ import com.faforever.api.data.domain.FeaturedMod;
 import com.faforever.api.deployment.git.GitWrapper;
 import com.faforever.api.featuredmods.FeaturedModFile;
 import com.faforever.api.featuredmods.FeaturedModService;
+import com.google.common.hash.Hashing;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,16 +23,24 @@ import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.hamcrest.CoreMatchers.allOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasProperty;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -69,7 +78,7 @@ public class LegacyFeaturedModDeploymentTaskTest {
     deployment.setRepositoriesDirectory(repositoriesFolder.toString());
     deployment.setFeaturedModsTargetDirectory(targetFolder.toString());
 
-    instance = new LegacyFeaturedModDeploymentTask(gitWrapper, featuredModService, properties, restTemplate);
+    instance = new LegacyFeaturedModDeploymentTask(gitWrapper, featuredModService, properties, restTemplate, new ContentAddressedFileStore(properties));
   }
 
   @Test
@@ -95,6 +104,7 @@ public class LegacyFeaturedModDeploymentTaskTest {
       );
       return null;
     }).when(gitWrapper).checkoutRef(any(), any());
+    when(gitWrapper.getCommitId(any(), any())).thenReturn("1f2e3d4c");
 
     when(featuredModService.getFeaturedMods()).thenReturn(List.of(
       new FeaturedMod().setTechnicalName("faf")
@@ -133,6 +143,7 @@ public class LegacyFeaturedModDeploymentTaskTest {
       );
       return null;
     }).when(gitWrapper).checkoutRef(any(), any());
+    when(gitWrapper.getCommitId(any(), any())).thenReturn("1f2e3d4c");
 
     when(featuredModService.getFeaturedMods()).thenReturn(List.of(
       new FeaturedMod().setTechnicalName("faf")
@@ -198,6 +209,7 @@ public class LegacyFeaturedModDeploymentTaskTest {
       );
       return null;
     }).when(gitWrapper).checkoutRef(any(), any());
+    when(gitWrapper.getCommitId(any(), any())).thenReturn("1f2e3d4c");
 
     when(featuredModService.getFeaturedMods()).thenReturn(List.of(
       new FeaturedMod().setTechnicalName("faf")
@@ -240,6 +252,7 @@ public class LegacyFeaturedModDeploymentTaskTest {
       );
       return null;
     }).when(gitWrapper).checkoutRef(any(), any());
+    when(gitWrapper.getCommitId(any(), any())).thenReturn("1f2e3d4c");
 
     when(featuredModService.getFeaturedMods()).thenReturn(List.of(
       new FeaturedMod().setTechnicalName("faf")
@@ -269,6 +282,133 @@ public class LegacyFeaturedModDeploymentTaskTest {
       )));
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testParallelPackagingMatchesSequentialPackaging() throws Exception {
+    instance.setFeaturedMod(new FeaturedMod()
+      .setGitBranch("branch")
+      .setFileExtension("nx3")
+      .setTechnicalName("faf")
+      .setAllowOverride(true)
+      .setGitUrl("git@example.com/FAForever/faf"));
+
+    List<String> directories = List.of("dirA", "dirB", "dirC");
+    Mockito.doAnswer(invocation -> {
+      Path repoFolder = invocation.getArgument(0);
+      for (String directory : directories) {
+        Files.createDirectories(repoFolder.resolve(directory + "/sub"));
+        Files.writeString(repoFolder.resolve(directory + "/file.lua"), ("-- " + directory + "\n").repeat(10_000));
+        Files.copy(LegacyFeaturedModDeploymentTaskTest.class.getResourceAsStream("/featured_mod/someDir/someFile"),
+          repoFolder.resolve(directory + "/sub/someFile"),
+          StandardCopyOption.REPLACE_EXISTING
+        );
+      }
+      Files.copy(
+        LegacyFeaturedModDeploymentTaskTest.class.getResourceAsStream("/featured_mod/mod_info.lua"),
+        repoFolder.resolve("mod_info.lua"),
+        StandardCopyOption.REPLACE_EXISTING
+      );
+      return null;
+    }).when(gitWrapper).checkoutRef(any(), any());
+    when(gitWrapper.getCommitId(any(), any())).thenReturn("1f2e3d4c");
+
+    when(featuredModService.getFeaturedMods()).thenReturn(List.of(
+      new FeaturedMod().setTechnicalName("faf")
+    ));
+    Map<String, Short> fileIds = Map.of(
+      "dirA.nx3", (short) 2,
+      "dirB.nx3", (short) 3,
+      "dirC.nx3", (short) 4
+    );
+    when(featuredModService.getFileIds("faf")).thenReturn(fileIds);
+
+    properties.getDeployment().setPackagingThreads(1);
+    instance.run();
+    Map<String, byte[]> sequentialContents = new HashMap<>();
+    for (String directory : directories) {
+      sequentialContents.put(directory, Files.readAllBytes(targetFolder.resolve("updates_faf_files/" + directory + ".1337.nx3")));
+    }
+
+    properties.getDeployment().setPackagingThreads(3);
+    instance.run();
+
+    ArgumentCaptor<List<FeaturedModFile>> filesCaptor = ArgumentCaptor.forClass(List.class);
+    verify(featuredModService, times(2)).save(eq("faf"), eq((short) 1337), filesCaptor.capture());
+    Map<Short, String> sequentialMd5s = filesCaptor.getAllValues().get(0).stream()
+      .collect(Collectors.toMap(FeaturedModFile::getFileId, FeaturedModFile::getMd5));
+    Map<Short, String> parallelMd5s = filesCaptor.getAllValues().get(1).stream()
+      .collect(Collectors.toMap(FeaturedModFile::getFileId, FeaturedModFile::getMd5));
+
+    assertThat(parallelMd5s.size(), is(3));
+    assertThat(parallelMd5s, is(sequentialMd5s));
+    for (String directory : directories) {
+      byte[] parallelContent = Files.readAllBytes(targetFolder.resolve("updates_faf_files/" + directory + ".1337.nx3"));
+      assertArrayEquals(sequentialContents.get(directory), parallelContent);
+      assertThat(parallelMd5s.get(fileIds.get(directory + ".nx3")),
+        is(Hashing.md5().hashBytes(parallelContent).toString()));
+    }
+    try (Stream<Path> files = Files.list(targetFolder.resolve("updates_faf_files"))) {
+      assertThat(files.noneMatch(file -> file.getFileName().toString().endsWith(".entry")), is(true));
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testRunReusesUnchangedFiles() throws Exception {
+    instance.setFeaturedMod(new FeaturedMod()
+      .setGitBranch("branch")
+      .setFileExtension("nx3")
+      .setTechnicalName("faf")
+      .setAllowOverride(true)
+      .setGitUrl("git@example.com/FAForever/faf"));
+
+    Mockito.doAnswer(invocation -> {
+      Path repoFolder = invocation.getArgument(0);
+      Files.createDirectories(repoFolder.resolve("someDir"));
+      Files.copy(
+        LegacyFeaturedModDeploymentTaskTest.class.getResourceAsStream("/featured_mod/mod_info.lua"),
+        repoFolder.resolve("mod_info.lua")
+      );
+      Files.copy(LegacyFeaturedModDeploymentTaskTest.class.getResourceAsStream("/featured_mod/someDir/someFile"),
+        repoFolder.resolve("someDir/someFile")
+      );
+      return null;
+    }).when(gitWrapper).checkoutRef(any(), any());
+    when(gitWrapper.getCommitId(any(), any())).thenReturn("5a6b7c8d");
+    when(gitWrapper.getChangedTopLevelPaths(any(), eq("1f2e3d4c"), eq("5a6b7c8d"))).thenReturn(Optional.of(Set.of("mod_info.lua")));
+
+    Files.writeString(repositoriesFolder.resolve("gitexamplecomFAForeverfaf.faf.deployment"), "commitId=1f2e3d4c\nversion=1336\n");
+    Path previousFile = targetFolder.resolve("updates_faf_files/someDir.1336.nx3");
+    Files.createDirectories(previousFile.getParent());
+    Files.writeString(previousFile, "previous");
+
+    when(featuredModService.getFeaturedMods()).thenReturn(List.of(
+      new FeaturedMod().setTechnicalName("faf")
+    ));
+    when(featuredModService.getFileIds("faf")).thenReturn(Map.of(
+      "someDir.nx3", (short) 2
+    ));
+    when(featuredModService.getFiles("faf", 1336)).thenReturn(List.of(new FeaturedModFile()
+      .setFileId((short) 2)
+      .setVersion(1336)
+      .setOriginalFileName("someDir.1336.nx3")
+      .setMd5("previousMd5")));
+
+    instance.run();
+
+    ArgumentCaptor<List<FeaturedModFile>> filesCaptor = ArgumentCaptor.forClass(List.class);
+    verify(featuredModService).save(eq("faf"), eq((short) 1337), filesCaptor.capture());
+
+    assertThat(filesCaptor.getValue(), contains(allOf(
+      hasProperty("fileId", is((short) 2)),
+      hasProperty("md5", is("previousMd5")),
+      hasProperty("name", is("someDir.1336.nx3")),
+      hasProperty("version", is(1337))
+    )));
+    assertThat(Files.exists(targetFolder.resolve("updates_faf_files/someDir.1337.nx3")), is(false));
+    assertThat(Files.readString(repositoriesFolder.resolve("gitexamplecomFAForeverfaf.faf.deployment")), containsString("commitId=5a6b7c8d"));
+  }
+
   @Test
   public void testInvokeDeploymentWebhookSkipped() {
     instance.invokeDeploymentWebhook(new FeaturedMod());
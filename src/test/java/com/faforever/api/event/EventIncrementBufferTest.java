@@ -0,0 +1,94 @@
+package com.faforever.api.event;
+
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.config.FafApiProperties.WriteBehind;
+import com.faforever.api.event.PlayerEventBatchRepository.PlayerEventKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class EventIncrementBufferTest {
+
+  private static final int PLAYER_ID = 1;
+
+  @Mock
+  private EventsService eventsService;
+
+  private EventIncrementBuffer instance;
+
+  private void createInstance(boolean enabled) {
+    FafApiProperties properties = new FafApiProperties();
+    WriteBehind writeBehind = properties.getWriteBehind();
+    writeBehind.setEnabled(enabled);
+    writeBehind.setFlushInterval(Duration.ofHours(1));
+    writeBehind.setMaxBufferedKeys(2);
+    instance = new EventIncrementBuffer(eventsService, properties, new SimpleMeterRegistry());
+  }
+
+  @AfterEach
+  public void tearDown() {
+    instance.destroy();
+  }
+
+  @Test
+  public void incrementsAreBufferedAndSummedUp() {
+    createInstance(true);
+    List<EventUpdateRequest> updateRequests = List.of(
+      new EventUpdateRequest(PLAYER_ID, "event", 2),
+      new EventUpdateRequest(PLAYER_ID, "event", 3)
+    );
+
+    assertThat(instance.offer(updateRequests), is(true));
+    verify(eventsService).verify(updateRequests);
+
+    instance.destroy();
+
+    verify(eventsService).applyIncrements(Map.of(new PlayerEventKey(PLAYER_ID, "event"), 5));
+  }
+
+  @Test
+  public void failingIncrementsAreDropped() {
+    createInstance(true);
+    PlayerEventKey failingKey = new PlayerEventKey(PLAYER_ID, "failing");
+    doThrow(new IllegalStateException("Invalid counter")).when(eventsService).applyIncrements(any());
+    instance.offer(List.of(new EventUpdateRequest(PLAYER_ID, "failing", 1)));
+
+    instance.destroy();
+
+    // Once as part of the batch, once on its own
+    verify(eventsService, times(2)).applyIncrements(Map.of(failingKey, 1));
+  }
+
+  @Test
+  public void incrementsAreNotBufferedIfBufferIsFull() {
+    createInstance(true);
+    instance.offer(List.of(new EventUpdateRequest(PLAYER_ID, "a", 1), new EventUpdateRequest(PLAYER_ID, "b", 1)));
+
+    assertThat(instance.offer(List.of(new EventUpdateRequest(PLAYER_ID, "c", 1))), is(false));
+  }
+
+  @Test
+  public void nothingIsBufferedIfDisabled() {
+    createInstance(false);
+
+    assertThat(instance.offer(List.of(new EventUpdateRequest(PLAYER_ID, "event", 1))), is(false));
+
+    verifyNoInteractions(eventsService);
+  }
+}
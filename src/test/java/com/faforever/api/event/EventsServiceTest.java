@@ -0,0 +1,74 @@
+package com.faforever.api.event;
+
+import com.faforever.api.data.domain.Event;
+import com.faforever.api.event.PlayerEventBatchRepository.PlayerEventCount;
+import com.faforever.api.event.PlayerEventBatchRepository.PlayerEventKey;
+import com.faforever.api.player.PlayerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EventsServiceTest {
+
+  private static final int PLAYER_ID = 1;
+  private static final String EVENT_ID = "event";
+
+  @Mock
+  private EventRepository eventRepository;
+  @Mock
+  private PlayerService playerService;
+  @Mock
+  private PlayerEventBatchRepository playerEventBatchRepository;
+
+  private EventsService instance;
+
+  @BeforeEach
+  public void setUp() {
+    instance = new EventsService(eventRepository, playerService, playerEventBatchRepository);
+  }
+
+  @Test
+  public void incrementAllSumsIncrementsOfTheSameCounter() {
+    PlayerEventKey key = new PlayerEventKey(PLAYER_ID, EVENT_ID);
+    when(eventRepository.findById(EVENT_ID)).thenReturn(Optional.of(new Event()));
+    when(playerEventBatchRepository.findCounts(Set.of(PLAYER_ID), Set.of(EVENT_ID))).thenReturn(List.of(new PlayerEventCount(5, key, 10)));
+
+    List<UpdatedEventResponse> responses = instance.incrementAll(List.of(
+      new EventUpdateRequest(PLAYER_ID, EVENT_ID, 3),
+      new EventUpdateRequest(PLAYER_ID, EVENT_ID, 4)
+    ));
+
+    verify(playerService).verifyPlayersExist(Set.of(PLAYER_ID));
+    verify(playerEventBatchRepository).incrementAll(Map.of(key, 7));
+    assertThat(responses, contains(
+      new UpdatedEventResponse(5, EVENT_ID, 6),
+      new UpdatedEventResponse(5, EVENT_ID, 10)
+    ));
+  }
+
+  /**
+   * Tests whether an empty batch doesn't query the database, since an empty {@code IN ()} is invalid SQL.
+   */
+  @Test
+  public void incrementAllEmptyBatch() {
+    assertThat(instance.incrementAll(List.of()), is(empty()));
+
+    verifyNoInteractions(eventRepository, playerService, playerEventBatchRepository);
+  }
+}
@@ -0,0 +1,111 @@
+package com.faforever.api.featuredmods;
+
+import com.faforever.api.config.FafApiProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class FeaturedModFileManifestTest {
+
+  @Mock
+  private LegacyFeaturedModFileRepository legacyFeaturedModFileRepository;
+
+  private FeaturedModFileManifest instance;
+
+  @BeforeEach
+  public void setUp() {
+    instance = new FeaturedModFileManifest(legacyFeaturedModFileRepository, new FafApiProperties());
+  }
+
+  @Test
+  public void getFilesResolvesLatestVersionPerFile() {
+    FeaturedModFile exe3700 = file(1, 1, "ForgedAlliance.exe", 3700);
+    FeaturedModFile exe3705 = file(2, 1, "ForgedAlliance.exe", 3705);
+    FeaturedModFile lua3690 = file(3, 2, "lua.nx2", 3690);
+    FeaturedModFile lua3710 = file(4, 2, "lua.nx2", 3710);
+    when(legacyFeaturedModFileRepository.getAllFiles("faf")).thenReturn(List.of(exe3705, lua3710, exe3700, lua3690));
+
+    assertThat(ids(instance.getFiles("faf", 3704)), contains(ids(exe3700, lua3690)));
+    assertThat(ids(instance.getFiles("faf", 3705)), contains(ids(exe3705, lua3690)));
+    assertThat(ids(instance.getFiles("faf", null)), contains(ids(exe3705, lua3710)));
+    assertThat(instance.getFiles("faf", 3600), is(empty()));
+    assertThat(ids(instance.getFiles("ladder1v1", 3710)), contains(ids(exe3705, lua3710)));
+
+    verify(legacyFeaturedModFileRepository).getAllFiles("faf");
+  }
+
+  @Test
+  public void getFilesReturnsCopies() {
+    FeaturedModFile exe = file(1, 1, "ForgedAlliance.exe", 3700);
+    when(legacyFeaturedModFileRepository.getAllFiles("fafbeta")).thenReturn(List.of(exe));
+
+    FeaturedModFile result = instance.getFiles("fafbeta", null).get(0);
+    result.setUrl("http://example.com/ForgedAlliance.exe");
+
+    assertThat(result, is(not(sameInstance(exe))));
+    assertThat(instance.getFiles("fafbeta", null).get(0).getUrl(), is(nullValue()));
+  }
+
+  @Test
+  public void getFileReturnsCopy() {
+    FeaturedModFile exe = file(5, 1, "ForgedAlliance.exe", 3700);
+    when(legacyFeaturedModFileRepository.getAllFiles("fafbeta")).thenReturn(List.of(exe));
+
+    FeaturedModFile result = instance.getFile("fafbeta", null, "ForgedAlliance.exe").orElseThrow();
+
+    assertThat(result, is(not(sameInstance(exe))));
+    assertThat(result.getVersion(), is(3700));
+    assertThat(instance.getFile("fafbeta", null, "unknown.nx2").isPresent(), is(false));
+  }
+
+  @Test
+  public void versionSavedReplacesFilesOfVersion() {
+    FeaturedModFile exe3700 = file(6, 1, "ForgedAlliance.exe", 3700);
+    FeaturedModFile lua3700 = file(7, 2, "lua.nx2", 3700);
+    FeaturedModFile exe3700Replaced = file(8, 1, "ForgedAlliance.exe", 3700);
+    FeaturedModFile exe3701 = file(9, 1, "ForgedAlliance.exe", 3701);
+    when(legacyFeaturedModFileRepository.getAllFiles("faf")).thenReturn(List.of(exe3700, lua3700));
+    instance.getFiles("faf", null);
+
+    when(legacyFeaturedModFileRepository.getFilesOfVersion("faf", 3700)).thenReturn(List.of(exe3700Replaced));
+    instance.versionSaved("faf", 3700);
+    assertThat(ids(instance.getFiles("faf", null)), contains(ids(exe3700Replaced)));
+
+    when(legacyFeaturedModFileRepository.getFilesOfVersion("faf", 3701)).thenReturn(List.of(exe3701));
+    instance.versionSaved("faf", 3701);
+    assertThat(ids(instance.getFiles("faf", 3700)), contains(ids(exe3700Replaced)));
+    assertThat(ids(instance.getFiles("faf", null)), contains(ids(exe3701)));
+  }
+
+  private static Integer[] ids(FeaturedModFile... files) {
+    return Arrays.stream(files).map(FeaturedModFile::getId).toArray(Integer[]::new);
+  }
+
+  private static List<Integer> ids(List<FeaturedModFile> files) {
+    return files.stream().map(FeaturedModFile::getId).toList();
+  }
+
+  private static FeaturedModFile file(int id, int fileId, String name, int version) {
+    return new FeaturedModFile()
+      .setId(id)
+      .setFileId((short) fileId)
+      .setName(name)
+      .setVersion(version);
+  }
+}
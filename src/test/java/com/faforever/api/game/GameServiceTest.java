@@ -44,6 +44,8 @@ class GameServiceTest {
     "9999,http://localhost/replays/0/0/0/99/9999.fafreplay",
     "5050501,http://localhost/replays/0/5/5/5/5050501.fafreplay",
     "11689995,http://localhost/replays/0/11/68/99/11689995.fafreplay",
+    "1000000000,http://localhost/replays/10/0/0/0/1000000000.fafreplay",
+    "2147483647,http://localhost/replays/21/47/48/36/2147483647.fafreplay",
   })
   void getReplayDownloadUrl(int replayId, String expectedUrl) {
     when(properties.getReplay()).thenReturn(replay);
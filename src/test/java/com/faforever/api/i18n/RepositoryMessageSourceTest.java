@@ -0,0 +1,103 @@
+package com.faforever.api.i18n;
+
+import com.faforever.api.data.domain.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RepositoryMessageSourceTest {
+
+  @Mock
+  private MessageRepository messageRepository;
+
+  private RepositoryMessageSource instance;
+
+  @BeforeEach
+  public void setUp() {
+    when(messageRepository.findAll()).thenReturn(List.of(
+      message(1, "greeting", "en", "US", "Hello {0}"),
+      message(2, "farewell", "en", "US", "Goodbye"),
+      message(3, "greeting", "de", "DE", "Hallo {0}")
+    ));
+
+    instance = new RepositoryMessageSource(messageRepository);
+    instance.afterPropertiesSet();
+  }
+
+  private static Message message(int id, String key, String language, String region, String value) {
+    return new Message()
+      .setId(id)
+      .setKey(key)
+      .setLanguage(language)
+      .setRegion(region)
+      .setValue(value);
+  }
+
+  @Test
+  public void getMessage() {
+    assertThat(instance.getMessage("greeting", new Object[]{"Bob"}, Locale.GERMANY), is("Hallo Bob"));
+    assertThat(instance.getMessage("greeting", new Object[]{"Bob"}, Locale.US), is("Hello Bob"));
+  }
+
+  @Test
+  public void getMessageFallsBackToDefaultLocale() {
+    assertThat(instance.getMessage("farewell", null, Locale.GERMANY), is("Goodbye"));
+    assertThat(instance.getMessage("greeting", new Object[]{"Bob"}, Locale.FRANCE), is("Hello Bob"));
+  }
+
+  @Test
+  public void messageFormatsAreSharedByLocalesWithoutMessages() {
+    assertThat(instance.resolveCode("greeting", Locale.FRANCE), is(sameInstance(instance.resolveCode("greeting", Locale.JAPAN))));
+    assertThat(instance.resolveCode("greeting", Locale.FRANCE), is(sameInstance(instance.resolveCode("greeting", Locale.US))));
+    assertThat(instance.resolveCode("greeting", Locale.FRANCE).getLocale(), is(Locale.US));
+  }
+
+  @Test
+  public void getMessageFallsBackToKey() {
+    assertThat(instance.getMessage("unknown", null, Locale.GERMANY), is("unknown"));
+  }
+
+  @Test
+  public void update() {
+    instance.getMessage("greeting", new Object[]{"Bob"}, Locale.GERMANY);
+
+    instance.update(message(3, "greeting", "de", "DE", "Servus {0}"));
+    instance.update(message(4, "farewell", "de", "DE", "Tschau"));
+
+    assertThat(instance.getMessage("greeting", new Object[]{"Bob"}, Locale.GERMANY), is("Servus Bob"));
+    assertThat(instance.getMessage("farewell", null, Locale.GERMANY), is("Tschau"));
+  }
+
+  @Test
+  public void updateOfDefaultLocaleAffectsOtherLocales() {
+    instance.update(message(2, "farewell", "en", "US", "Bye"));
+
+    assertThat(instance.getMessage("farewell", null, Locale.GERMANY), is("Bye"));
+  }
+
+  @Test
+  public void updateMovesMessageToOtherLocale() {
+    instance.update(message(3, "greeting", "fr", "FR", "Bonjour {0}"));
+
+    assertThat(instance.getMessage("greeting", new Object[]{"Bob"}, Locale.GERMANY), is("Hello Bob"));
+    assertThat(instance.getMessage("greeting", new Object[]{"Bob"}, Locale.FRANCE), is("Bonjour Bob"));
+  }
+
+  @Test
+  public void remove() {
+    instance.remove(message(3, "greeting", "de", "DE", "Hallo {0}"));
+
+    assertThat(instance.getMessage("greeting", new Object[]{"Bob"}, Locale.GERMANY), is("Hello Bob"));
+  }
+}
@@ -0,0 +1,152 @@
+package com.faforever.api.lua;
+
+import com.faforever.api.config.FafApiProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaTable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LuaSandboxPoolTest {
+
+  private LuaSandboxPool instance;
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  public void setUp() {
+    FafApiProperties properties = new FafApiProperties();
+    properties.getLua().setSandboxes(1);
+    properties.getLua().setSandboxTimeout(Duration.ofMillis(10));
+    properties.getLua().setMaxInstructions(100_000);
+    meterRegistry = new SimpleMeterRegistry();
+    instance = new LuaSandboxPool(properties, meterRegistry);
+  }
+
+  private LuaTable evaluate(String luaCode) {
+    return instance.evaluate(luaCode.getBytes(StandardCharsets.UTF_8), "test.lua");
+  }
+
+  @Test
+  public void evaluate() {
+    LuaTable result = evaluate("ScenarioInfo = { name = string.upper('mirage'), props = STRING('ARMY_17') }");
+
+    assertThat(result.get("ScenarioInfo").get("name").tojstring(), is("MIRAGE"));
+    assertThat(result.get("ScenarioInfo").get("props").tojstring(), is("ARMY_17"));
+    assertThat(meterRegistry.get("faf.api.lua.evaluation").timer().count(), is(1L));
+    assertThat(meterRegistry.get("faf.api.lua.sandbox.busy").gauge().value(), is(0.0));
+  }
+
+  @Test
+  public void variablesDoNotLeakIntoNextEvaluation() {
+    evaluate("ScenarioInfo = { name = 'first' }; STRING = nil");
+
+    LuaTable result = evaluate("value = STRING(ScenarioInfo)");
+
+    assertThat(result.get("value").isnil(), is(true));
+  }
+
+  @Test
+  public void globalsCanNotBeModified() {
+    assertThrows(LuaError.class, () -> evaluate("_G.ScenarioInfo = { name = 'x' }"));
+
+    assertThat(evaluate("value = ScenarioInfo").get("value").isnil(), is(true));
+  }
+
+  @Test
+  public void librariesAreReadOnly() {
+    assertThrows(LuaError.class, () -> evaluate("string.upper = nil"));
+
+    assertThat(evaluate("value = string.upper('a')").get("value").tojstring(), is("A"));
+  }
+
+  @Test
+  public void fileSystemIsNotAccessible() {
+    assertThrows(LuaError.class, () -> evaluate("dofile('/etc/passwd')"));
+    assertThrows(LuaError.class, () -> evaluate("io.open('/etc/passwd')"));
+    assertThrows(LuaError.class, () -> evaluate("require('os')"));
+  }
+
+  @Test
+  public void errorsCanNotBeCaught() {
+    assertThrows(LuaError.class, () -> evaluate("pcall(function() while true do end end)"));
+    assertThrows(LuaError.class, () -> evaluate("xpcall(function() while true do end end, print)"));
+  }
+
+  @Test
+  public void repeatedStringsAreLimited() {
+    assertThrows(LuaError.class, () -> evaluate("value = string.rep('x', 1e9)"));
+    assertThrows(LuaError.class, () -> evaluate("value = ('x'):rep(1e9)"));
+
+    assertThat(evaluate("value = string.rep('ab', 3)").get("value").tojstring(), is("ababab"));
+  }
+
+  @Test
+  public void repeatedStringsInTableExceedMemoryLimit() {
+    LuaError result = assertThrows(LuaError.class, () -> evaluate("t = {} for i = 1, 100000 do t[i] = string.rep('x', 1000000) end"));
+    assertThat(result.getMessage(), containsString("Memory limit exceeded"));
+
+    assertThat(evaluate("value = 1").get("value").toint(), is(1));
+  }
+
+  @Test
+  public void doubledStringExceedsMemoryLimit() {
+    LuaError result = assertThrows(LuaError.class, () -> evaluate("s = 'x' for i = 1, 100 do s = s .. s end"));
+    assertThat(result.getMessage(), containsString("Memory limit exceeded"));
+
+    assertThat(evaluate("s = 'x' for i = 1, 10 do s = s .. s end value = #s").get("value").toint(), is(1024));
+  }
+
+  @Test
+  public void concatenatedTableExceedsMemoryLimit() {
+    LuaError result = assertThrows(LuaError.class, () -> evaluate("s = string.rep('x', 1000000) t = {} for i = 1, 1000 do t[i] = s end value = table.concat(t)"));
+    assertThat(result.getMessage(), containsString("Memory limit exceeded by concat"));
+
+    assertThat(evaluate("value = table.concat({'a', 'b', 1}, ',')").get("value").tojstring(), is("a,b,1"));
+  }
+
+  @Test
+  public void substitutedStringExceedsMemoryLimit() {
+    LuaError result = assertThrows(LuaError.class, () -> evaluate("s = string.rep('x', 100000) value = s:gsub('x', s)"));
+    assertThat(result.getMessage(), containsString("Memory limit exceeded by gsub"));
+
+    assertThat(evaluate("value = ('abc'):gsub('b', '%0%0')").get("value").tojstring(), is("abbc"));
+  }
+
+  @Test
+  public void tooManyConcatenatedValues() {
+    LuaError result = assertThrows(LuaError.class, () -> evaluate("s = 'x' value = " + "s .. ".repeat(16) + "s"));
+    assertThat(result.getMessage(), containsString("concatenates more than 16 values"));
+
+    assertThat(evaluate("s = 'x' value = " + "s .. ".repeat(15) + "s").get("value").tojstring(), is("x".repeat(16)));
+  }
+
+  @Test
+  public void codeTooLarge() {
+    LuaError result = assertThrows(LuaError.class, () -> evaluate("value = 1 --" + "x".repeat(256 * 1024)));
+    assertThat(result.getMessage(), containsString("test.lua is larger than"));
+  }
+
+  @Test
+  public void syntaxError() {
+    assertThrows(LuaError.class, () -> evaluate("ScenarioInfo = {"));
+
+    assertThat(evaluate("value = 1").get("value").toint(), is(1));
+  }
+
+  @Test
+  public void instructionLimitExceeded() {
+    LuaError result = assertThrows(LuaError.class, () -> evaluate("while true do end"));
+    assertThat(result.getMessage(), containsString("Instruction limit exceeded"));
+
+    assertThat(evaluate("for i = 1, 1000 do value = i end").get("value").toint(), is(1000));
+  }
+
+}
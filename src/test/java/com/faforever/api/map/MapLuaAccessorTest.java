@@ -0,0 +1,29 @@
+package com.faforever.api.map;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class MapLuaAccessorTest {
+
+  @ParameterizedTest
+  @CsvSource({
+    "/maps/mirage/mirage.scmap, true",
+    "/maps/mirage.v0002/mirage.scmap, true",
+    "/MAPS/Mirage.V0002/MIRAGE.scmap, true",
+    "/maps/mirage.v02/mirage.scmap, false",
+    "/maps/mirage.vabcd/mirage.scmap, false",
+    "/maps/mirage2/mirage.scmap, false",
+    "/maps/mirage/mirage.scmap2, false",
+    "/maps/mirage/mirage_scmap, false",
+    "/maps/mirage.v0002mirage.scmap, false",
+    "maps/mirage/mirage.scmap, false",
+    "/maps/mirage.scmap, false",
+    "'', false",
+  })
+  public void isMapFilePath(String path, boolean expected) {
+    assertThat(MapLuaAccessor.isMapFilePath(path, "mirage", "mirage.scmap"), is(expected));
+  }
+}
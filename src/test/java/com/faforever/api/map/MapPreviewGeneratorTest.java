@@ -0,0 +1,50 @@
+package com.faforever.api.map;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class MapPreviewGeneratorTest {
+
+  @Test
+  public void downscale() {
+    BufferedImage image = new BufferedImage(512, 512, BufferedImage.TYPE_INT_RGB);
+    for (int x = 0; x < image.getWidth(); x++) {
+      for (int y = 0; y < image.getHeight(); y++) {
+        image.setRGB(x, y, Color.GREEN.getRGB());
+      }
+    }
+
+    BufferedImage result = MapPreviewGenerator.downscale(image, 128);
+
+    assertThat(result.getWidth(), is(128));
+    assertThat(result.getHeight(), is(128));
+    assertThat(result.getRGB(64, 64), is(Color.GREEN.getRGB()));
+  }
+
+  @Test
+  public void downscaleNeverUpscales() {
+    BufferedImage image = new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB);
+
+    assertThat(MapPreviewGenerator.downscale(image, 128), is(sameInstance(image)));
+
+    BufferedImage result = MapPreviewGenerator.downscale(image, 80);
+    assertThat(result.getWidth(), is(80));
+    assertThat(result.getHeight(), is(40));
+  }
+
+  @Test
+  public void downscaleKeepsAspectRatio() {
+    BufferedImage image = new BufferedImage(1024, 256, BufferedImage.TYPE_INT_RGB);
+
+    BufferedImage result = MapPreviewGenerator.downscale(image, 100);
+
+    assertThat(result.getWidth(), is(100));
+    assertThat(result.getHeight(), is(25));
+  }
+}
@@ -10,8 +10,10 @@ import com.faforever.api.data.domain.Player;
 import com.faforever.api.error.ApiException;
 import com.faforever.api.error.Error;
 import com.faforever.api.error.ErrorCode;
+import com.faforever.api.lua.LuaSandboxPool;
 import com.faforever.commons.io.Unzipper;
 import com.google.common.io.ByteStreams;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import junitx.framework.FileAssert;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -24,6 +26,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.client.HttpClientErrorException.Forbidden;
 import org.thymeleaf.util.StringUtils;
 
@@ -72,21 +75,28 @@ public class MapServiceTest {
   private ContentService contentService;
   @Mock
   private Player author;
+  @Mock
+  private PlatformTransactionManager transactionManager;
 
   private MapService instance;
   private Map mapProperties;
 
   @BeforeEach
   void beforeEach() {
-    instance = new MapService(fafApiProperties, mapRepository, contentService);
+    instance = new MapService(fafApiProperties, mapRepository, contentService, new MapPreviewGenerator(new SimpleMeterRegistry()), transactionManager,
+      new LuaSandboxPool(new FafApiProperties(), new SimpleMeterRegistry()));
   }
 
   private String loadMapAsString(String filename) throws IOException {
     return new String(loadMapAsBytes(filename), StandardCharsets.UTF_8);
   }
 
-  private InputStream loadMapAsInputSteam(String filename) {
-    return MapServiceTest.class.getResourceAsStream("/maps/" + filename);
+  private Path copyMapToDirectory(String filename, Path directory) throws IOException {
+    Path uploadedZip = directory.resolve(filename);
+    try (InputStream inputStream = MapServiceTest.class.getResourceAsStream("/maps/" + filename)) {
+      Files.copy(inputStream, uploadedZip);
+    }
+    return uploadedZip;
   }
 
   private byte[] loadMapAsBytes(String filename) throws IOException {
@@ -97,6 +107,8 @@ public class MapServiceTest {
 
   @Nested
   class Validation {
+    @TempDir
+    Path uploadDirectory;
 
     @ParameterizedTest
     @ValueSource(strings = {
@@ -205,13 +217,13 @@ public class MapServiceTest {
     }
 
     @Test
-    void authorBannedFromVault() {
+    void authorBannedFromVault() throws IOException {
       when(author.getActiveBanOf(BanLevel.VAULT)).thenReturn(Optional.of(
         new BanInfo()
           .setLevel(BanLevel.VAULT)
       ));
 
-      InputStream mapData = loadMapAsInputSteam("command_conquer_rush.v0007.zip");
+      Path mapData = copyMapToDirectory("command_conquer_rush.v0007.zip", uploadDirectory);
       assertThrows(Forbidden.class, () -> instance.uploadMap(mapData, "command_conquer_rush.v0007.zip", author, true));
       verify(mapRepository, never()).save(any(com.faforever.api.data.domain.Map.class));
     }
@@ -245,12 +257,12 @@ public class MapServiceTest {
       "MAP_FILE_INSIDE_ZIP_MISSING,without_scmap.zip",
       "MAP_FILE_INSIDE_ZIP_MISSING,without_scriptlua.zip",
     })
-    void uploadFails(String errorCodeEnumValue, String fileName) {
+    void uploadFails(String errorCodeEnumValue, String fileName) throws IOException {
       uploadFails(ErrorCode.valueOf(errorCodeEnumValue), fileName);
     }
 
-    void uploadFails(ErrorCode expectedErrorCode, String fileName) {
-      InputStream mapData = loadMapAsInputSteam(fileName);
+    void uploadFails(ErrorCode expectedErrorCode, String fileName) throws IOException {
+      Path mapData = copyMapToDirectory(fileName, baseTemporaryDirectory);
       ApiException result = assertThrows(ApiException.class, () -> instance.uploadMap(mapData, fileName, author, true));
       assertThat(result, hasErrorCode(expectedErrorCode));
       verify(mapRepository, never()).save(any(com.faforever.api.data.domain.Map.class));
@@ -266,7 +278,7 @@ public class MapServiceTest {
     }
 
     @Test
-    void notCorrectAuthor() {
+    void notCorrectAuthor() throws IOException {
       when(fafApiProperties.getMap()).thenReturn(mapProperties);
 
       Player me = new Player();
@@ -281,7 +293,7 @@ public class MapServiceTest {
     }
 
     @Test
-    void annonymousAuthor() {
+    void annonymousAuthor() throws IOException {
       when(fafApiProperties.getMap()).thenReturn(mapProperties);
 
       Player me = new Player();
@@ -294,7 +306,7 @@ public class MapServiceTest {
     }
 
     @Test
-    void versionExistsAlready() {
+    void versionExistsAlready() throws IOException {
       when(fafApiProperties.getMap()).thenReturn(mapProperties);
 
       com.faforever.api.data.domain.Map map = new com.faforever.api.data.domain.Map()
@@ -308,18 +320,18 @@ public class MapServiceTest {
     }
 
     @Test
-    void noMapName() {
+    void noMapName() throws IOException {
       String zipFilename = "no_map_name.zip";
-      InputStream mapData = loadMapAsInputSteam(zipFilename);
+      Path mapData = copyMapToDirectory(zipFilename, baseTemporaryDirectory);
       ApiException result = assertThrows(ApiException.class, () -> instance.uploadMap(mapData, zipFilename, author, true));
       assertThat(result, hasErrorCodes(ErrorCode.MAP_NAME_MISSING));
       verify(mapRepository, never()).save(any(com.faforever.api.data.domain.Map.class));
     }
 
     @Test
-    void adaptiveFilesMissing() {
+    void adaptiveFilesMissing() throws IOException {
       String zipFilename = "adaptive_map_files_missing.zip";
-      InputStream mapData = loadMapAsInputSteam(zipFilename);
+      Path mapData = copyMapToDirectory(zipFilename, baseTemporaryDirectory);
       ApiException result = assertThrows(ApiException.class, () -> instance.uploadMap(mapData, zipFilename, author, true));
       assertThat(result, hasErrorCodes(
         ErrorCode.MAP_FILE_INSIDE_ZIP_MISSING,
@@ -329,9 +341,9 @@ public class MapServiceTest {
     }
 
     @Test
-    void invalidScenario() {
+    void invalidScenario() throws IOException {
       String zipFilename = "invalid_scenario.zip";
-      InputStream mapData = loadMapAsInputSteam(zipFilename);
+      Path mapData = copyMapToDirectory(zipFilename, baseTemporaryDirectory);
       ApiException result = assertThrows(ApiException.class, () -> instance.uploadMap(mapData, zipFilename, author, true));
       assertThat(result, hasErrorCodes(
         ErrorCode.MAP_SCRIPT_LINE_MISSING,
@@ -351,7 +363,7 @@ public class MapServiceTest {
       String zipFilename = "command_conquer_rush.v0007.zip";
       when(fafApiProperties.getMap()).thenReturn(mapProperties);
       when(mapRepository.findOneByDisplayName(any())).thenReturn(Optional.empty());
-      InputStream mapData = loadMapAsInputSteam(zipFilename);
+      Path mapData = copyMapToDirectory(zipFilename, baseTemporaryDirectory);
 
       Path tmpDir = temporaryDirectory;
       instance.uploadMap(mapData, zipFilename, author, true);
@@ -372,6 +384,8 @@ public class MapServiceTest {
       assertEquals("maps/command_conquer_rush.v0007.zip", mapVersion.getFilename());
 
       assertFalse(Files.exists(tmpDir));
+      // The uploaded file belongs to the caller
+      assertTrue(Files.exists(mapData));
 
       Path generatedFile = finalDirectory.resolve("command_conquer_rush.v0007.zip");
       assertTrue(Files.exists(generatedFile));
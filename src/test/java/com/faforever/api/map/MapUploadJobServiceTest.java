@@ -0,0 +1,148 @@
+package com.faforever.api.map;
+
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.content.ContentService;
+import com.faforever.api.data.domain.Player;
+import com.faforever.api.error.ApiException;
+import com.faforever.api.error.ErrorCode;
+import com.faforever.api.error.ErrorResult;
+import com.faforever.api.error.ServiceUnavailableApiException;
+import com.faforever.api.map.MapUploadJob.State;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.faforever.api.error.ApiExceptionMatcher.hasErrorCode;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class MapUploadJobServiceTest {
+
+  private static final String FILE_NAME = "map.v0001.zip";
+
+  @TempDir
+  Path temporaryDirectory;
+
+  @Mock
+  private MapService mapService;
+  @Mock
+  private ContentService contentService;
+
+  private Player author;
+  private MapUploadJobService instance;
+
+  @BeforeEach
+  public void setUp() {
+    FafApiProperties properties = new FafApiProperties();
+    properties.getMap()
+      .setUploadWorkers(1)
+      .setUploadQueueCapacity(1);
+
+    author = (Player) new Player().setId(1);
+    instance = new MapUploadJobService(mapService, contentService, properties);
+
+    when(contentService.createTempDir()).thenAnswer(invocation -> Files.createTempDirectory(temporaryDirectory, "upload"));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    instance.destroy();
+  }
+
+  @Test
+  public void uploadSucceeds() throws Exception {
+    MapUploadJob job = instance.submit(createFile(), author, true);
+
+    assertThat(awaitJob(job).getState(), is(State.SUCCEEDED));
+    assertThat(instance.getJob(job.getId(), author), is(job));
+  }
+
+  @Test
+  public void apiExceptionFailsJob() throws Exception {
+    doThrow(ApiException.of(ErrorCode.MAP_NAME_MISSING)).when(mapService).uploadMap(any(), anyString(), any(), anyBoolean());
+
+    MapUploadJob job = awaitJob(instance.submit(createFile(), author, true));
+
+    assertThat(job.getState(), is(State.FAILED));
+    assertThat(job.getErrors(), hasSize(1));
+    ErrorResult error = job.getErrors().get(0);
+    assertThat(error.getHttpStatusCode(), is("422"));
+    assertThat(error.getAppCode(), is(String.valueOf(ErrorCode.MAP_NAME_MISSING.getCode())));
+  }
+
+  @Test
+  public void unexpectedExceptionIsNotExposed() throws Exception {
+    doThrow(new IllegalStateException("/secret/path")).when(mapService).uploadMap(any(), anyString(), any(), anyBoolean());
+
+    MapUploadJob job = awaitJob(instance.submit(createFile(), author, true));
+
+    assertThat(job.getState(), is(State.FAILED));
+    ErrorResult error = job.getErrors().get(0);
+    assertThat(error.getHttpStatusCode(), is("500"));
+    assertThat(error.getTitle(), not(containsString("IllegalStateException")));
+    assertThat(error.getDetail(), not(containsString("/secret/path")));
+  }
+
+  @Test
+  public void uploadIsRejectedIfQueueIsFull() throws Exception {
+    CountDownLatch processingLatch = new CountDownLatch(1);
+    CountDownLatch releaseLatch = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      processingLatch.countDown();
+      releaseLatch.await(10, TimeUnit.SECONDS);
+      return null;
+    }).when(mapService).uploadMap(any(), anyString(), any(), anyBoolean());
+
+    MapUploadJob processing = instance.submit(createFile(), author, true);
+    processingLatch.await(10, TimeUnit.SECONDS);
+    MapUploadJob queued = instance.submit(createFile(), author, true);
+
+    ServiceUnavailableApiException result = assertThrows(ServiceUnavailableApiException.class,
+      () -> instance.submit(createFile(), author, true));
+    assertThat(result, hasErrorCode(ErrorCode.MAP_UPLOAD_QUEUE_FULL));
+    // Only the rejected upload has been cleaned up
+    try (Stream<Path> tempDirectories = Files.list(temporaryDirectory)) {
+      assertThat(tempDirectories.toList(), hasSize(2));
+    }
+
+    releaseLatch.countDown();
+    assertThat(awaitJob(processing).getState(), is(State.SUCCEEDED));
+    assertThat(awaitJob(queued).getState(), is(State.SUCCEEDED));
+  }
+
+  private MockMultipartFile createFile() {
+    return new MockMultipartFile("file", FILE_NAME, "application/zip", new byte[]{1, 2, 3});
+  }
+
+  private MapUploadJob awaitJob(MapUploadJob job) throws InterruptedException {
+    Instant deadline = Instant.now().plus(Duration.ofSeconds(10));
+    while ((job.getState() == State.QUEUED || job.getState() == State.PROCESSING) && Instant.now().isBefore(deadline)) {
+      Thread.sleep(10);
+    }
+    return job;
+  }
+}
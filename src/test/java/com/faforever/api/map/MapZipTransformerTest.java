@@ -0,0 +1,82 @@
+package com.faforever.api.map;
+
+import com.faforever.api.error.ApiException;
+import com.faforever.api.error.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static com.faforever.api.error.ApiExceptionMatcher.hasErrorCode;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MapZipTransformerTest {
+
+  @TempDir
+  public Path temporaryDirectory;
+
+  @Test
+  public void transform() throws Exception {
+    byte[] binaryContent = new byte[4096];
+    binaryContent[17] = 42;
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    entries.put("old_name/", new byte[0]);
+    entries.put("old_name/map_scenario.lua", "map = '/maps/OLD_NAME/map.scmap'\r\nsave = '/maps/old_name/map_save.lua'".getBytes(StandardCharsets.ISO_8859_1));
+    entries.put("old_name/map.scmap", binaryContent);
+    entries.put("old_name/env/other.lua", "path = '/maps/old_name/env'".getBytes(StandardCharsets.ISO_8859_1));
+    Path source = createZip(entries);
+    Path target = temporaryDirectory.resolve("target.zip");
+
+    new MapZipTransformer(StandardCharsets.ISO_8859_1, "old_name", "new_name.v0001").transform(source, target);
+
+    try (ZipFile zipFile = new ZipFile(target.toFile())) {
+      assertThat(Collections.list(zipFile.entries()).stream().map(ZipEntry::getName).toList(), contains(
+        "new_name.v0001/",
+        "new_name.v0001/map_scenario.lua",
+        "new_name.v0001/map.scmap",
+        "new_name.v0001/env/other.lua"
+      ));
+      assertThat(read(zipFile, "new_name.v0001/map_scenario.lua"),
+        is("map = '/maps/new_name.v0001/map.scmap'\r\nsave = '/maps/new_name.v0001/map_save.lua'"));
+      assertThat(read(zipFile, "new_name.v0001/env/other.lua"), is("path = '/maps/old_name/env'"));
+      assertThat(zipFile.getInputStream(zipFile.getEntry("new_name.v0001/map.scmap")).readAllBytes(), is(binaryContent));
+    }
+  }
+
+  @Test
+  public void transformRejectsEntriesOutsideOfMapFolder() throws Exception {
+    Path source = createZip(Map.of("other/file.lua", new byte[0]));
+
+    ApiException result = assertThrows(ApiException.class, () -> new MapZipTransformer(StandardCharsets.ISO_8859_1, "old_name", "new_name")
+      .transform(source, temporaryDirectory.resolve("target.zip")));
+    assertThat(result, hasErrorCode(ErrorCode.MAP_INVALID_ZIP));
+  }
+
+  private Path createZip(Map<String, byte[]> entries) throws IOException {
+    Path zip = temporaryDirectory.resolve("source.zip");
+    try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zip))) {
+      for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+        zipOutputStream.putNextEntry(new ZipEntry(entry.getKey()));
+        zipOutputStream.write(entry.getValue());
+        zipOutputStream.closeEntry();
+      }
+    }
+    return zip;
+  }
+
+  private String read(ZipFile zipFile, String name) throws IOException {
+    return new String(zipFile.getInputStream(zipFile.getEntry(name)).readAllBytes(), StandardCharsets.ISO_8859_1);
+  }
+}
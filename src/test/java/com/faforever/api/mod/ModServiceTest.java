@@ -8,6 +8,8 @@ import com.faforever.api.data.domain.ModVersion;
 import com.faforever.api.data.domain.Player;
 import com.faforever.api.error.ApiException;
 import com.faforever.api.error.ErrorCode;
+import com.faforever.api.lua.LuaSandboxPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,11 +24,18 @@ import org.springframework.web.client.HttpClientErrorException.Forbidden;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static com.faforever.api.error.ApiExceptionMatcher.hasErrorCode;
+import static com.faforever.api.error.ApiExceptionMatcher.hasErrorCodes;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -46,6 +55,7 @@ public class ModServiceTest {
   public Path temporaryFolder;
 
   private ModService instance;
+  private FafApiProperties properties;
 
   @Mock
   private ModRepository modRepository;
@@ -54,11 +64,11 @@ public class ModServiceTest {
 
   @BeforeEach
   public void setUp() {
-    FafApiProperties properties = new FafApiProperties();
+    properties = new FafApiProperties();
     properties.getMod().setTargetDirectory(temporaryFolder.resolve("mods"));
     properties.getMod().setThumbnailTargetDirectory(temporaryFolder.resolve("thumbnails"));
 
-    instance = new ModService(properties, modRepository, modVersionRepository);
+    instance = new ModService(properties, modRepository, modVersionRepository, new LuaSandboxPool(properties, new SimpleMeterRegistry()));
   }
 
   @Test
@@ -146,6 +156,101 @@ public class ModServiceTest {
     assertThat(result, hasErrorCode(ErrorCode.MOD_STRUCTURE_INVALID));
   }
 
+  @Test
+  public void testZipSlip() throws Exception {
+    Path uploadedFile = createZip("mod/mod_info.lua", new byte[0], "mod/../../evil.lua", new byte[0]);
+
+    ApiException result = assertThrows(ApiException.class, () -> instance.processUploadedMod(uploadedFile, new Player()));
+    assertThat(result, hasErrorCode(ErrorCode.MOD_ZIP_ENTRY_INVALID));
+  }
+
+  @Test
+  public void testCompressionRatioTooHigh() throws Exception {
+    Path uploadedFile = createZip("mod/mod_info.lua", new byte[0], "mod/zeros.bin", new byte[10 * 1024 * 1024]);
+
+    ApiException result = assertThrows(ApiException.class, () -> instance.processUploadedMod(uploadedFile, new Player()));
+    assertThat(result, hasErrorCode(ErrorCode.MOD_ZIP_COMPRESSION_RATIO_TOO_HIGH));
+  }
+
+  @Test
+  public void testCompressionRatioTooHighWithFalselyDeclaredSize() throws Exception {
+    Path uploadedFile = createZip("mod/mod_info.lua", new byte[0], "mod/zeros.bin", new byte[10 * 1024 * 1024]);
+    declareSize(uploadedFile, "mod/zeros.bin", 1);
+
+    ApiException result = assertThrows(ApiException.class, () -> instance.processUploadedMod(uploadedFile, new Player()));
+    assertThat(result, hasErrorCode(ErrorCode.MOD_ZIP_COMPRESSION_RATIO_TOO_HIGH));
+  }
+
+  @Test
+  public void testDeclaredSizeDoesNotMatchContent() throws Exception {
+    Path uploadedFile = createZip("mod/mod_info.lua", new byte[0], "mod/units.bp", new byte[1024]);
+    declareSize(uploadedFile, "mod/units.bp", 1);
+
+    ApiException result = assertThrows(ApiException.class, () -> instance.processUploadedMod(uploadedFile, new Player()));
+    assertThat(result, hasErrorCode(ErrorCode.MOD_ZIP_ENTRY_SIZE_INVALID));
+  }
+
+  @Test
+  public void testUncompressedSizeTooLarge() throws Exception {
+    properties.getMod().setMaxUncompressedSize(1024);
+    Path uploadedFile = prepareMod(TEST_MOD);
+
+    ApiException result = assertThrows(ApiException.class, () -> instance.processUploadedMod(uploadedFile, new Player()));
+    assertThat(result, hasErrorCode(ErrorCode.MOD_ZIP_TOO_LARGE));
+  }
+
+  @Test
+  public void testModInfoMissing() throws Exception {
+    Path uploadedFile = createZip("mod/hook/lua/sim/Unit.lua", new byte[0]);
+
+    ApiException result = assertThrows(ApiException.class, () -> instance.processUploadedMod(uploadedFile, new Player()));
+    assertThat(result, hasErrorCode(ErrorCode.MOD_INFO_MISSING));
+  }
+
+  @Test
+  public void testModInfoIncomplete() throws Exception {
+    Path uploadedFile = createZip("mod/mod_info.lua", "name = 'Mod'".getBytes(StandardCharsets.UTF_8));
+
+    ApiException result = assertThrows(ApiException.class, () -> instance.processUploadedMod(uploadedFile, new Player()));
+    assertThat(result, hasErrorCodes(ErrorCode.MOD_UID_MISSING, ErrorCode.MOD_VERSION_MISSING,
+      ErrorCode.MOD_DESCRIPTION_MISSING, ErrorCode.MOD_AUTHOR_MISSING));
+  }
+
+  @Test
+  public void testModInfoEndlessLoop() throws Exception {
+    Path uploadedFile = createZip("mod/mod_info.lua", "while true do end".getBytes(StandardCharsets.UTF_8));
+
+    ApiException result = assertThrows(ApiException.class, () -> instance.processUploadedMod(uploadedFile, new Player()));
+    assertThat(result, hasErrorCode(ErrorCode.PARSING_LUA_FILE_FAILED));
+  }
+
+  private Path createZip(Object... namesAndContents) throws IOException {
+    Path uploadedFile = temporaryFolder.resolve("uploaded-mod.zip");
+    try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(uploadedFile))) {
+      for (int i = 0; i < namesAndContents.length; i += 2) {
+        zipOutputStream.putNextEntry(new ZipEntry((String) namesAndContents[i]));
+        zipOutputStream.write((byte[]) namesAndContents[i + 1]);
+        zipOutputStream.closeEntry();
+      }
+    }
+    return uploadedFile;
+  }
+
+  /**
+   * Overwrites the uncompressed size of the specified entry in the central directory of a zip file.
+   */
+  private void declareSize(Path zipFile, String entryName, int size) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(zipFile)).order(ByteOrder.LITTLE_ENDIAN);
+    byte[] name = entryName.getBytes(StandardCharsets.UTF_8);
+    for (int offset = 0; offset < buffer.limit() - 46; offset++) {
+      if (buffer.getInt(offset) == 0x02014b50 && buffer.getShort(offset + 28) == name.length
+        && Arrays.equals(name, Arrays.copyOfRange(buffer.array(), offset + 46, offset + 46 + name.length))) {
+        buffer.putInt(offset + 24, size);
+      }
+    }
+    Files.write(zipFile, buffer.array());
+  }
+
   @NotNull
   private Path prepareMod(String path) throws IOException {
     Path uploadedFile = temporaryFolder.resolve("uploaded-mod.zip");
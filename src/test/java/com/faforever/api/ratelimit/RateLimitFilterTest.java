@@ -0,0 +1,117 @@
+package com.faforever.api.ratelimit;
+
+import com.faforever.api.config.FafApiProperties;
+import com.faforever.api.config.FafApiProperties.RateLimitRoute;
+import com.faforever.api.security.FafUserDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class RateLimitFilterTest {
+
+  private RateLimitFilter instance;
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  public void setUp() {
+    FafApiProperties properties = new FafApiProperties();
+    properties.getRateLimit().setRoutes(List.of(
+      new RateLimitRoute("POST", "/users/register", 0, 2, Duration.ofHours(1)),
+      new RateLimitRoute("GET", "/data/**", 100, 1, Duration.ofHours(1))
+    ));
+    meterRegistry = new SimpleMeterRegistry();
+    instance = new RateLimitFilter(properties, new ObjectMapper(), meterRegistry);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void anonymousRequestsAreLimitedByRemoteAddress() throws Exception {
+    assertThat(register("10.0.0.1", "1.1.1.1").getStatus(), is(200));
+    assertThat(register("10.0.0.1", "2.2.2.2").getStatus(), is(200));
+
+    MockHttpServletResponse response = register("10.0.0.1", "3.3.3.3");
+
+    assertThat(response.getStatus(), is(429));
+    assertThat(response.getHeader(HttpHeaders.RETRY_AFTER), is(notNullValue()));
+    assertThat(response.getContentAsString(), containsString("Too many requests"));
+    assertThat(meterRegistry.get("faf.api.rateLimit.rejected").counter().count(), is(1.0));
+  }
+
+  @Test
+  public void remoteAddressesHaveSeparateBuckets() throws Exception {
+    register("10.0.0.1", null);
+    register("10.0.0.1", null);
+
+    assertThat(register("10.0.0.2", null).getStatus(), is(200));
+  }
+
+  @Test
+  public void authenticatedRequestsAreLimitedByUser() throws Exception {
+    FafUserDetails user = new FafUserDetails(5, "JUnit", "", true, List.of(), Set.of());
+    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+
+    register("10.0.0.1", null);
+    register("10.0.0.2", null);
+
+    assertThat(register("10.0.0.3", null).getStatus(), is(429));
+  }
+
+  @Test
+  public void otherRoutesAreNotLimited() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      assertThat(filter(new MockHttpServletRequest("GET", "/users/register")).getStatus(), is(200));
+    }
+  }
+
+  @Test
+  public void onlyLargePagesAreLimited() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      assertThat(filter(dataRequest("50")).getStatus(), is(200));
+    }
+
+    assertThat(filter(dataRequest("100")).getStatus(), is(200));
+    assertThat(filter(dataRequest("100")).getStatus(), is(429));
+  }
+
+  private MockHttpServletResponse register(String remoteAddress, String forwardedFor) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users/register");
+    request.setRemoteAddr(remoteAddress);
+    if (forwardedFor != null) {
+      request.addHeader("X-Forwarded-For", forwardedFor);
+    }
+    return filter(request);
+  }
+
+  private MockHttpServletRequest dataRequest(String pageSize) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/data/player");
+    request.setParameter("page[size]", pageSize);
+    return request;
+  }
+
+  private MockHttpServletResponse filter(MockHttpServletRequest request) throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    instance.doFilter(request, response, new MockFilterChain());
+    return response;
+  }
+}
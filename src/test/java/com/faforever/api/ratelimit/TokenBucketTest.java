@@ -0,0 +1,43 @@
+package com.faforever.api.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class TokenBucketTest {
+
+  private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+  @Test
+  public void burstUpToCapacity() {
+    TokenBucket instance = new TokenBucket(3, Duration.ofSeconds(3), 0);
+
+    assertThat(instance.tryConsume(0), is(0L));
+    assertThat(instance.tryConsume(0), is(0L));
+    assertThat(instance.tryConsume(0), is(0L));
+    assertThat(instance.tryConsume(0), greaterThan(0L));
+  }
+
+  @Test
+  public void refillsOverTime() {
+    TokenBucket instance = new TokenBucket(2, Duration.ofSeconds(2), 0);
+
+    instance.tryConsume(0);
+    instance.tryConsume(0);
+    assertThat(instance.tryConsume(0), is(SECOND));
+    assertThat(instance.tryConsume(SECOND), is(0L));
+    assertThat(instance.tryConsume(SECOND), greaterThan(0L));
+  }
+
+  @Test
+  public void idleTimeDoesNotExceedCapacity() {
+    TokenBucket instance = new TokenBucket(1, Duration.ofSeconds(1), 0);
+
+    assertThat(instance.tryConsume(100 * SECOND), is(0L));
+    assertThat(instance.tryConsume(100 * SECOND), greaterThan(0L));
+  }
+}
@@ -0,0 +1,118 @@
+package com.faforever.api.security;
+
+import com.faforever.api.data.domain.GroupPermission;
+import com.faforever.api.data.domain.UserGroup;
+import com.faforever.api.user.UserGroupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class GroupPermissionResolverTest {
+
+  private GroupPermissionResolver instance;
+
+  @Mock
+  private UserGroupRepository userGroupRepository;
+
+  private GroupPermission readAuditLog;
+  private GroupPermission adminAccountBan;
+  private GroupPermission writeAvatar;
+  private UserGroup root;
+  private UserGroup child;
+  private UserGroup grandChild;
+
+  @BeforeEach
+  public void setUp() {
+    instance = new GroupPermissionResolver(userGroupRepository);
+
+    readAuditLog = permission(1, "READ_AUDIT_LOG");
+    adminAccountBan = permission(2, "ADMIN_ACCOUNT_BAN");
+    writeAvatar = permission(3, "WRITE_AVATAR");
+
+    root = group(1, null, readAuditLog);
+    child = group(2, root, adminAccountBan);
+    grandChild = group(3, child, writeAvatar);
+  }
+
+  @Test
+  public void childInheritsPermissionsOfAllAncestors() {
+    when(userGroupRepository.findAllWithPermissions()).thenReturn(List.of(root, child, grandChild));
+
+    assertThat(instance.getPermissions(Set.of(grandChild)), containsInAnyOrder(readAuditLog, adminAccountBan, writeAvatar));
+    assertThat(instance.getPermissions(Set.of(child)), containsInAnyOrder(readAuditLog, adminAccountBan));
+    assertThat(instance.getPermissions(Set.of(root)), containsInAnyOrder(readAuditLog));
+  }
+
+  @Test
+  public void closureIsComputedOnceUntilInvalidated() {
+    when(userGroupRepository.findAllWithPermissions()).thenReturn(List.of(root, child, grandChild));
+
+    instance.getPermissions(Set.of(child));
+    instance.getPermissions(Set.of(root));
+    verify(userGroupRepository, times(1)).findAllWithPermissions();
+
+    instance.invalidate();
+    instance.getPermissions(Set.of(root));
+    verify(userGroupRepository, times(2)).findAllWithPermissions();
+  }
+
+  @Test
+  public void closureComputedDuringInvalidationIsNotKept() {
+    UserGroup revokedChild = group(2, root);
+    when(userGroupRepository.findAllWithPermissions())
+      .thenAnswer(invocation -> {
+        // A group change is committed while the closure is being computed from the previous state
+        instance.invalidate();
+        return List.of(root, child);
+      })
+      .thenReturn(List.of(root, revokedChild));
+
+    assertThat(instance.getPermissions(Set.of(child)), containsInAnyOrder(readAuditLog, adminAccountBan));
+    assertThat(instance.getPermissions(Set.of(child)), containsInAnyOrder(readAuditLog));
+    assertThat(instance.getPermissions(Set.of(child)), containsInAnyOrder(readAuditLog));
+    verify(userGroupRepository, times(2)).findAllWithPermissions();
+  }
+
+  @Test
+  public void cyclicGroupTreeTerminates() {
+    root.setParent(grandChild);
+    when(userGroupRepository.findAllWithPermissions()).thenReturn(List.of(root, child, grandChild));
+
+    assertThat(instance.getPermissions(Set.of(root)), containsInAnyOrder(readAuditLog, adminAccountBan, writeAvatar));
+  }
+
+  @Test
+  public void unknownGroupHasNoPermissions() {
+    when(userGroupRepository.findAllWithPermissions()).thenReturn(List.of(root));
+
+    assertThat(instance.getPermissions(Set.of(child)), empty());
+  }
+
+  private GroupPermission permission(int id, String technicalName) {
+    GroupPermission permission = new GroupPermission();
+    permission.setId(id);
+    permission.setTechnicalName(technicalName);
+    return permission;
+  }
+
+  private UserGroup group(int id, UserGroup parent, GroupPermission... permissions) {
+    UserGroup userGroup = new UserGroup();
+    userGroup.setId(id);
+    userGroup.setParent(parent);
+    userGroup.setPermissions(Set.of(permissions));
+    return userGroup;
+  }
+}
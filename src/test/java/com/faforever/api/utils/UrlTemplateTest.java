@@ -0,0 +1,22 @@
+package com.faforever.api.utils;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class UrlTemplateTest {
+
+  @ParameterizedTest
+  @CsvSource({
+    "http://example.com/%s, http://example.com/map.zip",
+    "http://example.com/%s?download=true, http://example.com/map.zip?download=true",
+    "%s, map.zip",
+    "http://example.com/100%%/%s, http://example.com/100%/map.zip",
+    "http://example.com/%.3s, http://example.com/map",
+  })
+  public void expand(String format, String expected) {
+    assertThat(UrlTemplate.of(format).expand("map.zip"), is(expected));
+  }
+}
@@ -1,6 +1,7 @@
 package com.faforever.api.voting;
 
 import com.faforever.api.data.domain.Player;
+import com.faforever.api.data.domain.Validity;
 import com.faforever.api.data.domain.Vote;
 import com.faforever.api.data.domain.VotingAnswer;
 import com.faforever.api.data.domain.VotingChoice;
@@ -17,12 +18,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static com.faforever.api.error.ApiExceptionMatcher.hasErrorCode;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -312,4 +316,21 @@ public class VotingServiceTest {
     instance.saveVote(vote, player);
     verify(voteRepository).save(vote);
   }
+
+  @Test
+  public void votingSubjectsAbleToVote() {
+    Player player = (Player) new Player().setId(1);
+    VotingSubject votedSubject = new VotingSubject().setId(1);
+    VotingSubject enoughGamesSubject = new VotingSubject().setId(2).setMinGamesToVote(10);
+    VotingSubject notEnoughGamesSubject = new VotingSubject().setId(3).setMinGamesToVote(50);
+
+    when(voteRepository.findVotingSubjectIdsByPlayer(player)).thenReturn(Set.of(votedSubject.getId()));
+    when(votingSubjectRepository.findOpenAt(any())).thenReturn(List.of(votedSubject, enoughGamesSubject, notEnoughGamesSubject));
+    when(gamePlayerStatsRepository.countByPlayerAndGameValidity(player, Validity.VALID)).thenReturn(20);
+
+    assertThat(instance.votingSubjectsAbleToVote(player), is(List.of(enoughGamesSubject)));
+    assertThat(instance.votingSubjectsAbleToVote(player), is(List.of(enoughGamesSubject)));
+
+    verify(gamePlayerStatsRepository).countByPlayerAndGameValidity(player, Validity.VALID);
+  }
 }
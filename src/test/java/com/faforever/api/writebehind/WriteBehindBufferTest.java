@@ -0,0 +1,99 @@
+package com.faforever.api.writebehind;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class WriteBehindBufferTest {
+
+  private final List<Map<String, Integer>> flushedBatches = new ArrayList<>();
+  private SimpleMeterRegistry meterRegistry;
+  private String failingKey;
+  private WriteBehindBuffer<String> instance;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    instance = new WriteBehindBuffer<>("test", batch -> {
+      if (batch.containsKey(failingKey)) {
+        throw new IllegalStateException("Database unavailable");
+      }
+      flushedBatches.add(Map.copyOf(batch));
+    }, Duration.ofHours(1), 100, 3, meterRegistry);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    failingKey = null;
+    instance.close();
+  }
+
+  @Test
+  public void incrementsAreAggregatedPerKey() {
+    instance.add("a", 1);
+    instance.add("b", 2);
+    instance.add("a", 3);
+
+    assertThat(meterRegistry.get("faf.api.writeBehind.pending").gauge().value(), is(2.0));
+
+    instance.flush();
+
+    assertThat(flushedBatches, is(List.of(Map.of("a", 4, "b", 2))));
+    assertThat(meterRegistry.get("faf.api.writeBehind.pending").gauge().value(), is(0.0));
+    assertThat(meterRegistry.get("faf.api.writeBehind.flush").timer().count(), is(1L));
+  }
+
+  @Test
+  public void emptyBufferIsNotFlushed() {
+    instance.flush();
+
+    assertThat(flushedBatches, hasSize(0));
+  }
+
+  @Test
+  public void failedFlushIsRetriedPerKey() {
+    instance.add("a", 1);
+    instance.add("b", 2);
+    instance.add("c", 3);
+    failingKey = "b";
+
+    instance.flush();
+
+    assertThat(flushedBatches, containsInAnyOrder(Map.of("a", 1), Map.of("c", 3)));
+    assertThat(meterRegistry.get("faf.api.writeBehind.dropped").counter().count(), is(2.0));
+    assertThat(meterRegistry.get("faf.api.writeBehind.pending").gauge().value(), is(0.0));
+  }
+
+  @Test
+  public void bufferIsFullAtMaxBufferedKeys() {
+    instance.add("a", 1);
+    instance.add("b", 1);
+    assertThat(instance.isFull(), is(false));
+
+    instance.add("c", 1);
+    assertThat(instance.isFull(), is(true));
+
+    instance.flush();
+    assertThat(instance.isFull(), is(false));
+  }
+
+  @Test
+  public void closeFlushesPendingIncrements() {
+    instance.add("a", 1);
+
+    instance.close();
+
+    assertThat(flushedBatches, is(List.of(Map.of("a", 1))));
+  }
+}